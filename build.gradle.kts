@@ -5,6 +5,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.7"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.promoit.finance"
@@ -49,6 +50,14 @@ dependencies {
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
 }
 
+// benchmarks: ./gradlew jmh (исходники в src/jmh/java)
+jmh {
+    warmupIterations = 2
+    iterations = 5
+    fork = 1
+    profilers.add("gc")
+}
+
 tasks.withType<Test> {
     useJUnitPlatform()
 }
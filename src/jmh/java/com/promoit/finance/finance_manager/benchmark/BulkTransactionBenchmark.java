@@ -0,0 +1,81 @@
+package com.promoit.finance.finance_manager.benchmark;
+
+import com.promoit.finance.finance_manager.FinanceManagerApplication;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.service.FinanceService;
+import com.promoit.finance.finance_manager.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение добавления N транзакций по одной (POST /{walletId}/transaction на каждую)
+ * с одним пакетным добавлением (POST /{walletId}/transactions) на полном контексте
+ * приложения с БД H2 в памяти.
+ * Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkTransactionBenchmark {
+    private static final String[] CATEGORIES = {
+            "Food", "Transport", "Rent", "Health", "Fun", "Salary", "Gifts", "Travel", "Education", "Other"
+    };
+
+    @Param({"100", "1000"})
+    private int transactions;
+
+    private ConfigurableApplicationContext context;
+    private FinanceService financeService;
+    private UUID walletId;
+    private List<TransactionRequestDto> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(FinanceManagerApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:bulk-benchmark-" + UUID.randomUUID(),
+                "logging.level.com.promoit.finance", "WARN"
+        ));
+        context = application.run();
+        financeService = context.getBean(FinanceService.class);
+        walletId = context.getBean(UserService.class).register("benchmark", "benchmark").getWalletId();
+
+        requests = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            requests.add(TransactionRequestDto.builder()
+                    .type(TransactionType.INCOME)
+                    .amount(1 + i % 1000 / 100.0)
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .description("Benchmark transaction")
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleItem(Blackhole blackhole) {
+        for (TransactionRequestDto request : requests) {
+            blackhole.consume(financeService.addTransaction(walletId, request));
+        }
+    }
+
+    @Benchmark
+    public void bulk(Blackhole blackhole) {
+        blackhole.consume(financeService.addTransactions(walletId, requests));
+    }
+}
@@ -0,0 +1,85 @@
+package com.promoit.finance.finance_manager.benchmark;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.service.StatisticsAggregator;
+import com.promoit.finance.finance_manager.service.TransactionColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение расчета статистики за период по сущностям TransactionEntity (то, что получает код
+ * после загрузки через JPA) с однопроходным сканированием колонок {@link TransactionColumns}.
+ * Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ColumnarStatisticsBenchmark {
+    private static final int CATEGORIES = 10;
+
+    @Param({"10000", "1000000"})
+    private int transactions;
+
+    private List<TransactionEntity> entities;
+    private TransactionColumns columns;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long fromMicros;
+    private long toMicros;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(UUID.randomUUID());
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 0, 0);
+        entities = new ArrayList<>(transactions);
+        columns = new TransactionColumns(transactions);
+        for (int i = 0; i < transactions; i++) {
+            int category = random.nextInt(CATEGORIES);
+            TransactionType type = random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            Money amount = Money.ofMinor(100 + random.nextInt(100_000));
+            LocalDateTime date = start.plusMinutes(i * 7L);
+            entities.add(TransactionEntity.builder()
+                    .id(UUID.randomUUID())
+                    .type(type)
+                    .amount(amount)
+                    .categoryId(category)
+                    .description("Benchmark transaction")
+                    .date(date)
+                    .wallet(wallet)
+                    .build());
+            columns.append(TransactionColumns.toEpochMicros(date), type, category, amount);
+        }
+        // Период - средняя половина истории кошелька
+        from = entities.get(transactions / 4).getDate();
+        to = entities.get(transactions * 3 / 4).getDate();
+        fromMicros = TransactionColumns.toEpochMicros(from);
+        toMicros = TransactionColumns.toEpochMicros(to);
+    }
+
+    @Benchmark
+    public StatisticsAggregator entities() {
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        for (TransactionEntity transaction : entities) {
+            if (!transaction.getDate().isBefore(from) && !transaction.getDate().isAfter(to)) {
+                aggregator.add(transaction);
+            }
+        }
+        return aggregator;
+    }
+
+    @Benchmark
+    public StatisticsAggregator columns() {
+        return columns.aggregate(fromMicros, toMicros, null);
+    }
+}
@@ -0,0 +1,87 @@
+package com.promoit.finance.finance_manager.benchmark;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.service.LedgerJournal;
+import com.promoit.finance.finance_manager.service.LedgerRecord;
+import com.promoit.finance.finance_manager.service.LedgerState;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Скорость восстановления состояния из журнала операций в записях в секунду:
+ * чтение журнала из отображенных в память сегментов с применением к {@link LedgerState}
+ * и, для сравнения, только чтение записей без применения.
+ * Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LedgerReplayBenchmark {
+    private static final int RECORDS = 1_000_000;
+    private static final int CATEGORIES = 10;
+
+    @Param({"100", "10000"})
+    private int wallets;
+
+    private Path directory;
+    private LedgerJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ledger-benchmark");
+        journal = new LedgerJournal(directory, 64L * 1024 * 1024);
+        Random random = new Random(42);
+        for (int categoryId = 0; categoryId < CATEGORIES; categoryId++) {
+            LedgerRecord.category(categoryId, "category-" + categoryId).forEach(journal::append);
+        }
+        UUID[] walletIds = new UUID[wallets];
+        for (int i = 0; i < wallets; i++) {
+            walletIds[i] = UUID.randomUUID();
+            journal.append(LedgerRecord.budgetSet(walletIds[i], 0, Money.of(1000.0), BudgetPeriod.NONE, null, null));
+        }
+        for (int i = wallets + CATEGORIES; i < RECORDS; i++) {
+            TransactionType type = random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE;
+            journal.append(LedgerRecord.transaction(
+                    walletIds[random.nextInt(wallets)], UUID.randomUUID(), i * 1_000_000L,
+                    type, random.nextInt(CATEGORIES), Money.ofMinor(100 + random.nextInt(100_000))
+            ));
+        }
+        journal.force();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public LedgerState replay() {
+        LedgerState state = new LedgerState();
+        journal.replay(0, state::apply);
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public long readOnly() {
+        long[] checksum = new long[1];
+        journal.replay(0, record -> checksum[0] += record.categoryId());
+        return checksum[0];
+    }
+}
@@ -0,0 +1,69 @@
+package com.promoit.finance.finance_manager.benchmark;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение сумм по категориям в double (упакованные Double в карте и примитивный массив)
+ * с суммами в копейках в long ({@link Money}). Частота выделения памяти видна в выводе
+ * профилировщика gc (gc.alloc.rate.norm), который включен в блоке jmh сборки.
+ * Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MoneyAggregationBenchmark {
+    private static final int CATEGORIES = 10;
+
+    @Param({"10000", "1000000"})
+    private int transactions;
+
+    private int[] categoryIds;
+    private double[] amounts;
+    private long[] amountsMinor;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        categoryIds = new int[transactions];
+        amounts = new double[transactions];
+        amountsMinor = new long[transactions];
+        for (int i = 0; i < transactions; i++) {
+            categoryIds[i] = random.nextInt(CATEGORIES);
+            amounts[i] = 1 + random.nextInt(100_000) / 100.0;
+            amountsMinor[i] = Money.toMinor(amounts[i]);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Double> boxedDouble() {
+        Map<Integer, Double> totals = new HashMap<>();
+        for (int i = 0; i < transactions; i++) {
+            totals.merge(categoryIds[i], amounts[i], Double::sum);
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public double[] primitiveDouble() {
+        double[] totals = new double[CATEGORIES];
+        for (int i = 0; i < transactions; i++) {
+            totals[categoryIds[i]] += amounts[i];
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public long[] primitiveMinor() {
+        long[] totals = new long[CATEGORIES];
+        for (int i = 0; i < transactions; i++) {
+            totals[categoryIds[i]] += amountsMinor[i];
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,102 @@
+package com.promoit.finance.finance_manager.benchmark;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.service.StatisticsAggregator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнение прежнего расчета статистики (четыре прохода stream + anyMatch на каждый бюджет)
+ * с однопроходным {@link StatisticsAggregator}.
+ * Запуск: ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatisticsAggregationBenchmark {
+    private static final String[] CATEGORIES = {
+            "Food", "Transport", "Rent", "Health", "Fun", "Salary", "Gifts", "Travel", "Education", "Other"
+    };
+
+    @Param({"1000", "100000"})
+    private int transactions;
+
+    private List<TransactionEntity> data;
+    private List<Integer> budgetCategories;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        data = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            data.add(TransactionEntity.builder()
+                    .type(random.nextInt(4) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE)
+                    .amount(Money.ofMinor(100 + random.nextInt(100_000)))
+                    .categoryId(random.nextInt(CATEGORIES.length))
+                    .date(now.minusMinutes(i))
+                    .build());
+        }
+        budgetCategories = new ArrayList<>();
+        for (int categoryId = 0; categoryId < CATEGORIES.length; categoryId++) {
+            budgetCategories.add(categoryId);
+        }
+    }
+
+    @Benchmark
+    public void streams(Blackhole blackhole) {
+        double totalIncome = data.stream()
+                .filter(t -> t.getType() == TransactionType.INCOME)
+                .mapToDouble(t -> t.getAmount().toDouble())
+                .sum();
+        double totalExpense = data.stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE)
+                .mapToDouble(t -> t.getAmount().toDouble())
+                .sum();
+        Map<String, Double> incomeByCategory = data.stream()
+                .filter(t -> t.getType() == TransactionType.INCOME)
+                .collect(Collectors.groupingBy(
+                        t -> CATEGORIES[t.getCategoryId()],
+                        Collectors.summingDouble(t -> t.getAmount().toDouble())
+                ));
+        Map<String, Double> expenseByCategory = data.stream()
+                .filter(t -> t.getType() == TransactionType.EXPENSE)
+                .collect(Collectors.groupingBy(
+                        t -> CATEGORIES[t.getCategoryId()],
+                        Collectors.summingDouble(t -> t.getAmount().toDouble())
+                ));
+        for (Integer category : budgetCategories) {
+            blackhole.consume(data.stream()
+                    .filter(t -> t.getType() == TransactionType.EXPENSE)
+                    .anyMatch(t -> category.equals(t.getCategoryId())));
+            blackhole.consume(expenseByCategory.getOrDefault(CATEGORIES[category], 0.0));
+        }
+        blackhole.consume(totalIncome - totalExpense);
+        blackhole.consume(incomeByCategory);
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        for (TransactionEntity transaction : data) {
+            aggregator.add(transaction);
+        }
+        for (int category : budgetCategories) {
+            blackhole.consume(aggregator.hasExpense(category));
+            blackhole.consume(aggregator.getExpense(category));
+        }
+        blackhole.consume(aggregator.getBalance());
+        blackhole.consume(aggregator.getIncomeByCategory(categoryId -> CATEGORIES[categoryId]));
+        blackhole.consume(aggregator.getExpenseByCategory(categoryId -> CATEGORIES[categoryId]));
+    }
+}
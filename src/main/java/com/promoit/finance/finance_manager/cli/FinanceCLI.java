@@ -11,6 +11,7 @@ import com.promoit.finance.finance_manager.service.UserService;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Scanner;
 import java.util.UUID;
@@ -275,8 +276,8 @@ public class FinanceCLI implements CommandLineRunner {
                     System.out.println("Использовано: " + budget.getUsagePercentage() + "%");
 
                     if (budget.getExceeded()) {
-                        notificationService.notifyBudgetExceeded(currentUsername, category, budget.getCurrentSpent());
-                    } else if (budget.getUsagePercentage() >= 80) {
+                        notificationService.notifyBudgetExceeded(currentUsername, category, budget.getCurrentSpent().toDecimal());
+                    } else if (budget.getUsagePercentage().compareTo(BigDecimal.valueOf(80)) >= 0) {
                         notificationService.notifyBudgetWarning(currentUsername, category, budget.getUsagePercentage());
                     }
                 });
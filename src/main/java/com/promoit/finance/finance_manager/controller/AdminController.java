@@ -0,0 +1,197 @@
+package com.promoit.finance.finance_manager.controller;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.BudgetIndexStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.BudgetRolloverResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.ColumnarStoreStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerRestoreResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerVerifyResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.NotificationStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.OperatorStatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.RollupRebuildResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsCacheStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.WriteLaneStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.WriteRetryStatsDto;
+import com.promoit.finance.finance_manager.service.BudgetIndex;
+import com.promoit.finance.finance_manager.service.BudgetRolloverService;
+import com.promoit.finance.finance_manager.service.ColumnarTransactionStore;
+import com.promoit.finance.finance_manager.service.LedgerService;
+import com.promoit.finance.finance_manager.service.NotificationService;
+import com.promoit.finance.finance_manager.service.OperatorStatisticsService;
+import com.promoit.finance.finance_manager.service.RollupService;
+import com.promoit.finance.finance_manager.service.StatisticsCache;
+import com.promoit.finance.finance_manager.service.WalletLaneExecutor;
+import com.promoit.finance.finance_manager.service.WalletWriteExecutor;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    private final RollupService rollupService;
+    private final StatisticsCache statisticsCache;
+    private final OperatorStatisticsService operatorStatisticsService;
+    private final ColumnarTransactionStore columnarStore;
+    private final WalletWriteExecutor writeExecutor;
+    private final WalletLaneExecutor walletLanes;
+    private final LedgerService ledgerService;
+    private final NotificationService notificationService;
+    private final BudgetRolloverService budgetRolloverService;
+    private final BudgetIndex budgetIndex;
+
+    public AdminController(
+            RollupService rollupService,
+            StatisticsCache statisticsCache,
+            OperatorStatisticsService operatorStatisticsService,
+            ColumnarTransactionStore columnarStore,
+            WalletWriteExecutor writeExecutor,
+            WalletLaneExecutor walletLanes,
+            LedgerService ledgerService,
+            NotificationService notificationService,
+            BudgetRolloverService budgetRolloverService,
+            BudgetIndex budgetIndex
+    ) {
+        this.rollupService = rollupService;
+        this.statisticsCache = statisticsCache;
+        this.operatorStatisticsService = operatorStatisticsService;
+        this.columnarStore = columnarStore;
+        this.writeExecutor = writeExecutor;
+        this.walletLanes = walletLanes;
+        this.ledgerService = ledgerService;
+        this.notificationService = notificationService;
+        this.budgetRolloverService = budgetRolloverService;
+        this.budgetIndex = budgetIndex;
+    }
+
+    /**
+     * Перестраивает дневные агрегаты статистики по транзакциям и сверяет результат.
+     * @param walletId UUID кошелька (опционально, по умолчанию - все кошельки)
+     * @return RollupRebuildResponseDto с количеством обработанных кошельков, агрегатов и расхождений
+     */
+    @PostMapping("/rollups/rebuild")
+    public RollupRebuildResponseDto rebuildRollups(@RequestParam(required = false) UUID walletId) {
+        return walletId == null ? rollupService.rebuildAll() : rollupService.rebuildWallet(walletId);
+    }
+
+    /**
+     * Сверяет дневные агрегаты кошелька с его транзакциями без перестроения.
+     * @param walletId UUID кошелька
+     * @return true, если агрегаты совпадают с транзакциями
+     */
+    @GetMapping("/rollups/verify")
+    public boolean verifyRollups(@RequestParam UUID walletId) {
+        return rollupService.verify(walletId);
+    }
+
+    /**
+     * Возвращает счетчики кэша статистики (попадания, промахи, вытеснения, инвалидации).
+     * @return StatisticsCacheStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/cache/statistics")
+    public StatisticsCacheStatsDto getStatisticsCacheStats() {
+        return statisticsCache.getStats();
+    }
+
+    /**
+     * Возвращает счетчики колоночного хранилища транзакций (кошельки в памяти, объем, загрузки, вытеснения).
+     * @return ColumnarStoreStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/columnar-store")
+    public ColumnarStoreStatsDto getColumnarStoreStats() {
+        return columnarStore.getStats();
+    }
+
+    /**
+     * Возвращает счетчики конфликтов оптимистической блокировки и повторов записи.
+     * @return WriteRetryStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/write-retry")
+    public WriteRetryStatsDto getWriteRetryStats() {
+        return writeExecutor.getStats();
+    }
+
+    /**
+     * Возвращает счетчики полос записи кошельков: глубину очереди, группы, откаты групп и задержку по каждой полосе.
+     * @return WriteLaneStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/write-lanes")
+    public WriteLaneStatsDto getWriteLaneStats() {
+        return walletLanes.getStats();
+    }
+
+    /**
+     * Возвращает счетчики журнала операций (записи, сегменты, последний снимок, время восстановления при запуске).
+     * @return LedgerStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/ledger")
+    public LedgerStatsDto getLedgerStats() {
+        return ledgerService.getStats();
+    }
+
+    /**
+     * Сверяет журнал операций с транзакциями в БД по каждому кошельку.
+     * @return LedgerVerifyResponseDto с кошельками, по которым журнал расходится с БД
+     */
+    @GetMapping("/ledger/verify")
+    public LedgerVerifyResponseDto verifyLedger() {
+        return ledgerService.verify();
+    }
+
+    /**
+     * Записывает в БД балансы кошельков и бюджеты, восстановленные из журнала операций.
+     * @return LedgerRestoreResponseDto с количеством восстановленных кошельков и бюджетов
+     */
+    @PostMapping("/ledger/restore")
+    public LedgerRestoreResponseDto restoreFromLedger() {
+        return ledgerService.restore();
+    }
+
+    /**
+     * Возвращает счетчики очереди уведомлений (глубина, отброшенные, объединенные, отправленные).
+     * @return NotificationStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/notifications")
+    public NotificationStatsDto getNotificationStats() {
+        return notificationService.getStats();
+    }
+
+    /**
+     * Переводит на следующий период бюджеты, период которых закончился, не дожидаясь планового запуска.
+     * @return BudgetRolloverResponseDto с количеством переведенных бюджетов и порций
+     */
+    @PostMapping("/budgets/rollover")
+    public BudgetRolloverResponseDto rolloverBudgets() {
+        return budgetRolloverService.rollover(LocalDate.now());
+    }
+
+    /**
+     * Возвращает счетчики индекса бюджетов кошельков (попадания, загрузки, вытеснения, обновления).
+     * @return BudgetIndexStatsDto с текущими значениями счетчиков
+     */
+    @GetMapping("/budget-index")
+    public BudgetIndexStatsDto getBudgetIndexStats() {
+        return budgetIndex.getStats();
+    }
+
+    /**
+     * Сверяет бюджеты кошелька в индексе с БД; при расхождении кошелек удаляется из индекса.
+     * @param walletId UUID кошелька
+     * @return true, если индекс совпадает с БД или кошелька нет в индексе
+     */
+    @GetMapping("/budget-index/verify")
+    public boolean verifyBudgetIndex(@RequestParam UUID walletId) {
+        return budgetIndex.verify(walletId);
+    }
+
+    /**
+     * Возвращает сводную статистику по всем кошелькам: суммы доходов и расходов по категориям
+     * и количество превышенных бюджетов.
+     * @return OperatorStatisticsResponseDto со сводной статистикой
+     */
+    @GetMapping("/statistics")
+    public OperatorStatisticsResponseDto getOperatorStatistics() {
+        return operatorStatisticsService.getStatistics();
+    }
+}
@@ -2,24 +2,37 @@ package com.promoit.finance.finance_manager.controller;
 
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.Granularity;
 import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsSeriesResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.BulkTransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionPageResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
 import com.promoit.finance.finance_manager.service.ExportService;
 import com.promoit.finance.finance_manager.service.FinanceService;
+import com.promoit.finance.finance_manager.service.IdempotencyService;
+import com.promoit.finance.finance_manager.service.ImportService;
+import com.promoit.finance.finance_manager.service.WalletLaneExecutor;
 import jakarta.validation.Valid;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -28,10 +41,22 @@ import java.util.UUID;
 public class FinanceController {
     private final FinanceService financeService;
     private final ExportService exportService;
+    private final WalletLaneExecutor walletLanes;
+    private final IdempotencyService idempotencyService;
+    private final ImportService importService;
 
-    public FinanceController(FinanceService financeService, ExportService exportService) {
+    public FinanceController(
+            FinanceService financeService,
+            ExportService exportService,
+            WalletLaneExecutor walletLanes,
+            IdempotencyService idempotencyService,
+            ImportService importService
+    ) {
         this.financeService = financeService;
         this.exportService = exportService;
+        this.walletLanes = walletLanes;
+        this.idempotencyService = idempotencyService;
+        this.importService = importService;
     }
 
     /**
@@ -45,7 +70,9 @@ public class FinanceController {
             @PathVariable UUID walletId,
             @RequestBody BudgetRequestDto request
     ) {
-        return financeService.setBudget(walletId, request.getCategory(), request.getLimitAmount());
+        return walletLanes.execute(walletId, () -> financeService.setBudget(
+                walletId, request.getCategory(), request.getLimitAmount(), request.getPeriod(), request.getPeriodDays()
+        ));
     }
 
     /**
@@ -59,7 +86,7 @@ public class FinanceController {
             @PathVariable UUID walletId,
             @RequestBody List<BudgetRequestDto> requests
     ) {
-        return financeService.setBudgets(walletId, requests);
+        return walletLanes.execute(walletId, () -> financeService.setBudgets(walletId, requests));
     }
 
     /**
@@ -72,21 +99,66 @@ public class FinanceController {
             @PathVariable UUID walletId,
             @RequestParam String category
     ) {
-        financeService.deleteBudget(walletId, category);
+        walletLanes.execute(walletId, () -> financeService.deleteBudget(walletId, category));
     }
 
     /**
      * Создает новую финансовую транзакцию для указанного кошелька.
-     * @param walletId UUID идентификатор кошелька
-     * @param request  DTO с данными транзакции
+     * Повтор запроса с тем же Idempotency-Key не создает вторую транзакцию, а возвращает первый ответ.
+     * Тот же ключ с другим кошельком или содержимым запроса отклоняется.
+     * @param walletId       UUID идентификатор кошелька
+     * @param idempotencyKey ключ идемпотентности из заголовка Idempotency-Key (опционально)
+     * @param request        DTO с данными транзакции
      * @return TransactionResponseDto созданная транзакция с детальной информацией
      */
     @PostMapping("/{walletId}/transaction")
     public TransactionResponseDto addTransaction(
             @PathVariable UUID walletId,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody TransactionRequestDto request
     ) {
-        return financeService.addTransaction(walletId, request);
+        return walletLanes.execute(walletId, () -> idempotencyService.execute(
+                idempotencyKey, "transaction:" + walletId, request, TransactionResponseDto.class,
+                () -> financeService.addTransaction(walletId, request)
+        ));
+    }
+
+    /**
+     * Добавляет пакет транзакций кошелька в одной транзакции БД.
+     * Транзакции, не прошедшие проверку, отклоняются, остальные добавляются.
+     * @param walletId UUID идентификатор кошелька
+     * @param requests список DTO с данными транзакций в порядке применения
+     * @return BulkTransactionResponseDto с результатом по каждой транзакции
+     */
+    @PostMapping("/{walletId}/transactions")
+    public BulkTransactionResponseDto addTransactions(
+            @PathVariable UUID walletId,
+            @RequestBody List<TransactionRequestDto> requests
+    ) {
+        return walletLanes.execute(walletId, () -> financeService.addTransactions(walletId, requests));
+    }
+
+    /**
+     * Импортирует банковскую выписку в формате CSV потоком, пакетами по finance.csv-import.chunk-size строк.
+     * Ход импорта возвращается в формате NDJSON: ошибки по строкам, прогресс после каждого пакета и итог.
+     * @param walletId  UUID идентификатор кошелька
+     * @param file      CSV-файл в кодировке UTF-8 с заголовком (amount, category, опционально date, type, description)
+     * @param delimiter разделитель полей (по умолчанию запятая)
+     * @return поток строк application/x-ndjson с ходом импорта
+     */
+    @PostMapping(
+            value = "/{walletId}/import",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = "application/x-ndjson"
+    )
+    public ResponseEntity<StreamingResponseBody> importTransactions(
+            @PathVariable UUID walletId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = ",") char delimiter
+    ) throws IOException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(importService.importCsv(walletId, file.getInputStream(), delimiter));
     }
 
     /**
@@ -107,6 +179,92 @@ public class FinanceController {
         return financeService.getStatistics(walletId, categories, startDate, endDate);
     }
 
+    /**
+     * Возвращает статистику кошелька по интервалам (дням, неделям или месяцам) для построения графиков.
+     * Фильтры по категориям и периоду работают так же, как в getStatistics.
+     * @param walletId    UUID идентификатор кошелька
+     * @param categories  список категорий для фильтрации (опционально)
+     * @param startDate   начальная дата периода в формате ISO (опционально)
+     * @param endDate     конечная дата периода в формате ISO (опционально)
+     * @param granularity размер интервала DAY/WEEK/MONTH (по умолчанию DAY)
+     * @return StatisticsSeriesResponseDto с доходами, расходами и суммами по категориям для каждого интервала
+     */
+    @GetMapping("/{walletId}/statistics/series")
+    public StatisticsSeriesResponseDto getStatisticsSeries(
+            @PathVariable UUID walletId,
+            @RequestParam(required = false) List<String> categories,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "DAY") Granularity granularity
+    ) {
+        return financeService.getStatisticsSeries(walletId, categories, startDate, endDate, granularity);
+    }
+
+    /**
+     * Возвращает историю транзакций кошелька постранично (от новых к старым) с фильтрацией.
+     * Для следующей страницы передается курсор nextCursor из предыдущего ответа.
+     * @param walletId  UUID идентификатор кошелька
+     * @param startDate начальная дата периода в формате ISO (опционально)
+     * @param endDate   конечная дата периода в формате ISO (опционально)
+     * @param type      тип транзакций INCOME/EXPENSE (опционально)
+     * @param category  категория транзакций (опционально)
+     * @param cursor    курсор следующей страницы (опционально, без него - первая страница)
+     * @param size      размер страницы (по умолчанию 50, максимум 500)
+     * @return TransactionPageResponseDto с транзакциями страницы и курсором следующей
+     */
+    @GetMapping("/{walletId}/transactions")
+    public TransactionPageResponseDto getTransactions(
+            @PathVariable UUID walletId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size
+    ) {
+        return financeService.getTransactions(walletId, startDate, endDate, type, category, cursor, size);
+    }
+
+    /**
+     * Выгружает все транзакции кошелька потоком в формате NDJSON (одна транзакция на строку).
+     * Подходит для сверки кошельков с любым числом транзакций: ответ не собирается в памяти.
+     * @param walletId UUID идентификатор кошелька
+     * @return поток строк application/x-ndjson
+     */
+    @GetMapping(value = "/{walletId}/transactions/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamTransactions(@PathVariable UUID walletId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(exportService.streamTransactions(walletId));
+    }
+
+    /**
+     * Выгружает финансовый отчет за период потоком прямо в ответ: файл на диске не создается,
+     * документ целиком в памяти не собирается, поэтому одновременные выгрузки не мешают друг другу.
+     * @param walletId UUID кошелька для анализа
+     * @param startDate начальная дата периода (включительно)
+     * @param endDate конечная дата периода (включительно)
+     * @param filename название файла для скачивания (без расширения)
+     * @param includeTransactions добавить в отчет все транзакции периода
+     * @param gzip сжать отчет gzip (файл .json.gz)
+     * @return поток JSON-отчета
+     */
+    @GetMapping("/{walletId}/export/stream")
+    public ResponseEntity<StreamingResponseBody> exportStream(
+            @PathVariable UUID walletId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "report") String filename,
+            @RequestParam(defaultValue = "false") boolean includeTransactions,
+            @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        StreamingResponseBody body = exportService.streamReport(walletId, startDate, endDate, includeTransactions, gzip);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename + (gzip ? ".json.gz" : ".json"))
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Создает детальный финансовый отчет в JSON формате:
      *   - Автоматически скачивает файл после генерации
@@ -141,19 +299,32 @@ public class FinanceController {
     }
 
     /**
-     * Создает две связанные транзакции: списание у отправителя и зачисление получателю
-     * @param fromUser    логин пользователя-отправителя (обязательный)
-     * @param toUser      логин пользователя-получателя (обязательный)
-     * @param amount      сумма перевода, должна быть положительной (обязательный)
-     * @param description назначение платежа (необязательный, по умолчанию "Transfer")
+     * Создает две связанные транзакции: списание у отправителя и зачисление получателю.
+     * Повтор запроса с тем же Idempotency-Key не выполняет перевод повторно.
+     * Ключ привязан к отправителю и параметрам перевода: тот же ключ от другого отправителя
+     * или с другим получателем, суммой или описанием отклоняется.
+     * @param idempotencyKey ключ идемпотентности из заголовка Idempotency-Key (необязательный)
+     * @param fromUser       логин пользователя-отправителя (обязательный)
+     * @param toUser         логин пользователя-получателя (обязательный)
+     * @param amount         сумма перевода, должна быть положительной (обязательный)
+     * @param description    назначение платежа (необязательный, по умолчанию "Transfer")
      */
     @PostMapping("/transfer")
     public void transfer(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestParam(required = true) String fromUser,
             @RequestParam(required = true) String toUser,
             @RequestParam(required = true) Double amount,
             @RequestParam(defaultValue = "Transfer") String description
     ) {
-        financeService.transfer(fromUser, toUser, amount, description);
+        Map<String, Object> request = Map.of(
+                "fromUser", fromUser, "toUser", toUser, "amount", amount, "description", description
+        );
+        walletLanes.execute(fromUser, toUser, () -> idempotencyService.execute(
+                idempotencyKey, "transfer:" + fromUser, request, Void.class, () -> {
+                    financeService.transfer(fromUser, toUser, amount, description);
+                    return null;
+                }
+        ));
     }
 }
\ No newline at end of file
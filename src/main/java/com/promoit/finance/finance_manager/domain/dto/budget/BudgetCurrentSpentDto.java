@@ -0,0 +1,18 @@
+package com.promoit.finance.finance_manager.domain.dto.budget;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+
+/**
+ * Траты текущего периода бюджета категории (проекция результата запроса)
+ */
+public interface BudgetCurrentSpentDto {
+    /**
+     * id категории бюджета в словаре категорий
+     */
+    Integer getCategoryId();
+
+    /**
+     * Траты текущего периода
+     */
+    Money getCurrentSpent();
+}
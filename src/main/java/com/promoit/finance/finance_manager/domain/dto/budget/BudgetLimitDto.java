@@ -0,0 +1,46 @@
+package com.promoit.finance.finance_manager.domain.dto.budget;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Настройки бюджета категории без трат (запись индекса бюджетов кошелька)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetLimitDto {
+    /**
+     * id категории бюджета в словаре категорий
+     */
+    private Integer categoryId;
+
+    /**
+     * Лимит бюджета
+     */
+    private Money limitAmount;
+
+    /**
+     * Период бюджета
+     */
+    private BudgetPeriod period;
+
+    /**
+     * Длина произвольного периода в днях (null для остальных периодов)
+     */
+    private Integer periodDays;
+
+    /**
+     * Начало текущего периода (null для бессрочного бюджета)
+     */
+    private LocalDate periodStart;
+
+    /**
+     * Конец текущего периода, не включительно (null для бессрочного бюджета)
+     */
+    private LocalDate periodEnd;
+}
@@ -0,0 +1,46 @@
+package com.promoit.finance.finance_manager.domain.dto.budget;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Период бюджета: по окончании периода траты архивируются и обнуляются.
+ * Недельный период начинается с понедельника, месячный - с первого числа,
+ * произвольный - с дня установки и длится заданное количество дней.
+ */
+public enum BudgetPeriod {
+    /**
+     * Бессрочный бюджет: траты не обнуляются
+     */
+    NONE,
+    WEEKLY,
+    MONTHLY,
+    CUSTOM;
+
+    /**
+     * Начало периода, в который попадает дата (null для бессрочного бюджета)
+     */
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+            case NONE -> null;
+            case WEEKLY -> date.with(DayOfWeek.MONDAY);
+            case MONTHLY -> date.withDayOfMonth(1);
+            case CUSTOM -> date;
+        };
+    }
+
+    /**
+     * Конец периода (не включительно) - начало следующего периода (null для бессрочного бюджета).
+     * Должен совпадать с переходом на следующий период в {@code BudgetRepository#rollOver}.
+     * @param start начало периода
+     * @param periodDays длина произвольного периода в днях
+     */
+    public LocalDate endOf(LocalDate start, Integer periodDays) {
+        return switch (this) {
+            case NONE -> null;
+            case WEEKLY -> start.plusWeeks(1);
+            case MONTHLY -> start.plusMonths(1);
+            case CUSTOM -> start.plusDays(periodDays);
+        };
+    }
+}
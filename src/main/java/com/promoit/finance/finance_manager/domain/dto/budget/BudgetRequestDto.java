@@ -1,5 +1,6 @@
 package com.promoit.finance.finance_manager.domain.dto.budget;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
@@ -20,8 +21,27 @@ public class BudgetRequestDto {
     private String category;
 
     /**
-     * Максимально допустимая сумма расходов
+     * Максимально допустимая сумма расходов, не больше двух знаков после точки (целое число копеек)
      */
     @Positive(message = "Лимит бюджета должен быть положительным числом")
+    @Digits(integer = 15, fraction = 2, message = "Лимит бюджета должен содержать не больше 15 цифр до точки и 2 после")
     private Double limitAmount;
+
+    /**
+     * Период бюджета (не указан - период не меняется, для нового бюджета - бессрочный)
+     */
+    private BudgetPeriod period;
+
+    /**
+     * Длина периода в днях, обязательна для произвольного периода
+     */
+    @Positive(message = "Длина периода должна быть положительным числом")
+    private Integer periodDays;
+
+    /**
+     * Бюджет без указания периода
+     */
+    public BudgetRequestDto(String category, Double limitAmount) {
+        this(category, limitAmount, null, null);
+    }
 }
\ No newline at end of file
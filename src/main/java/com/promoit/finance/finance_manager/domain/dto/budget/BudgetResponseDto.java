@@ -1,9 +1,11 @@
 package com.promoit.finance.finance_manager.domain.dto.budget;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import java.time.LocalDate;
 import java.util.UUID;
 
 /**
@@ -27,24 +29,39 @@ public class BudgetResponseDto {
     /**
      * Установленный лимит расходов
      */
-    private Double limitAmount;
+    private Money limitAmount;
 
     /**
-     * Текущая сумма потраченных средств
+     * Текущая сумма потраченных средств (для периодического бюджета - в текущем периоде)
      */
-    private Double currentSpent;
+    private Money currentSpent;
 
     /**
      * Оставшийся лимит (вычисляемое поле)
      */
-    private Double remainingAmount;
+    private Money remainingAmount;
 
     /**
      * Идентификатор кошелька владельца
      */
     private UUID walletId;
 
-    public Double getRemainingAmount() {
-        return limitAmount - currentSpent;
+    /**
+     * Период бюджета
+     */
+    private BudgetPeriod period;
+
+    /**
+     * Начало текущего периода (null для бессрочного бюджета)
+     */
+    private LocalDate periodStart;
+
+    /**
+     * Конец текущего периода, не включительно (null для бессрочного бюджета)
+     */
+    private LocalDate periodEnd;
+
+    public Money getRemainingAmount() {
+        return limitAmount.minus(currentSpent);
     }
 }
\ No newline at end of file
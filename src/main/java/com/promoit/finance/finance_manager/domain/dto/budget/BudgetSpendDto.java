@@ -0,0 +1,17 @@
+package com.promoit.finance.finance_manager.domain.dto.budget;
+
+/**
+ * Лимит и траты бюджета до атомарного увеличения трат (проекция результата нативного запроса).
+ * Суммы в копейках, как они хранятся в колонках BIGINT.
+ */
+public interface BudgetSpendDto {
+    /**
+     * Лимит бюджета в копейках
+     */
+    long getLimitAmount();
+
+    /**
+     * Траты бюджета до увеличения в копейках
+     */
+    long getSpentBefore();
+}
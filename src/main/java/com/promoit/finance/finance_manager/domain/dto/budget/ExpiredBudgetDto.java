@@ -0,0 +1,30 @@
+package com.promoit.finance.finance_manager.domain.dto.budget;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Бюджет, период которого закончился (без загрузки сущности)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpiredBudgetDto {
+    /**
+     * Идентификатор бюджета
+     */
+    private UUID id;
+
+    /**
+     * Идентификатор кошелька бюджета
+     */
+    private UUID walletId;
+
+    /**
+     * id категории бюджета в словаре категорий
+     */
+    private Integer categoryId;
+}
@@ -0,0 +1,110 @@
+package com.promoit.finance.finance_manager.domain.dto.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Денежная сумма с фиксированной точкой: целое количество копеек в примитивном long.
+ * Сложение и вычитание точные, поэтому суммы не накапливают ошибку округления double.
+ * В JSON сумма записывается обычным числом с двумя знаками после точки (12.34), как и прежние
+ * суммы double; в БД хранится количество копеек ({@code MoneyConverter}).
+ * Для циклов агрегации есть статические методы над копейками без создания объектов:
+ * {@link #toMinor(double)} и {@link #toDouble(long)}.
+ * В копейках хранятся суммы транзакций, балансы кошельков, лимиты и траты бюджетов, дневные агрегаты
+ * и история бюджетов, поэтому агрегат SUM в БД тоже считается точно в BIGINT.
+ * Суммы запросов (DTO с ограничениями валидации) проверяются на целое число копеек и переводятся
+ * в Money на входе в сервис.
+ * @param minorUnits сумма в копейках
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+    /**
+     * Количество знаков после точки
+     */
+    public static final int SCALE = 2;
+
+    /**
+     * Количество копеек в рубле
+     */
+    public static final long MINOR_PER_UNIT = 100;
+
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofMinor(long minorUnits) {
+        return new Money(minorUnits);
+    }
+
+    /**
+     * Сумма из double с округлением до копейки
+     */
+    public static Money of(double amount) {
+        return new Money(toMinor(amount));
+    }
+
+    @JsonCreator
+    public static Money of(BigDecimal amount) {
+        return new Money(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Количество копеек в сумме double с округлением до копейки.
+     * Суммы с двумя знаками после точки и их суммы, посчитанные в double, отличаются от целого
+     * числа копеек на доли ulp, поэтому округление восстанавливает точное значение.
+     */
+    public static long toMinor(double amount) {
+        return Math.round(amount * MINOR_PER_UNIT);
+    }
+
+    /**
+     * Сумма в копейках как ближайший к ней double (100.5 для 10050)
+     */
+    public static double toDouble(long minorUnits) {
+        return minorUnits / (double) MINOR_PER_UNIT;
+    }
+
+    public double toDouble() {
+        return toDouble(minorUnits);
+    }
+
+    @JsonValue
+    public BigDecimal toDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits));
+    }
+
+    /**
+     * Доля суммы от другой суммы в процентах с двумя знаками после точки (HALF_UP)
+     * @param whole сумма, принятая за 100% (положительная)
+     */
+    public BigDecimal percentOf(Money whole) {
+        return BigDecimal.valueOf(minorUnits).movePointRight(2)
+                .divide(BigDecimal.valueOf(whole.minorUnits), SCALE, RoundingMode.HALF_UP);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO со счетчиками индекса бюджетов кошельков
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetIndexStatsDto {
+    /**
+     * Количество кошельков в индексе
+     */
+    private Integer wallets;
+
+    /**
+     * Максимальное количество кошельков
+     */
+    private Integer maxWallets;
+
+    /**
+     * Количество обращений, обслуженных из памяти
+     */
+    private Long hits;
+
+    /**
+     * Количество загрузок бюджетов кошелька из БД
+     */
+    private Long loads;
+
+    /**
+     * Количество вытеснений кошельков по размеру
+     */
+    private Long evictions;
+
+    /**
+     * Количество изменений бюджетов, примененных к индексу
+     */
+    private Long updates;
+
+    /**
+     * Количество кошельков, удаленных из индекса: на время транзакции изменения бюджета,
+     * после перехода на следующий период и восстановления из журнала
+     */
+    private Long invalidations;
+
+    /**
+     * Количество расхождений индекса с БД, найденных сверкой
+     */
+    private Long mismatches;
+}
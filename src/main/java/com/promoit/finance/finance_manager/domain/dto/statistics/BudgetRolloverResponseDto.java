@@ -0,0 +1,35 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO с результатом перехода бюджетов на следующий период
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BudgetRolloverResponseDto {
+    /**
+     * Количество переведенных бюджетов
+     */
+    private Long budgets;
+
+    /**
+     * Количество порций (транзакций)
+     */
+    private Integer batches;
+
+    /**
+     * false, если переход остановлен по ограничению времени и остались бюджеты с закончившимся периодом
+     */
+    private Boolean completed;
+
+    /**
+     * Время выполнения в миллисекундах
+     */
+    private Long elapsedMs;
+}
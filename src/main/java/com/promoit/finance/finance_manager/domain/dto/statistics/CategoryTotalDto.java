@@ -0,0 +1,43 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Агрегированная строка по транзакциям кошелька: сумма и количество операций
+ * одного типа в одной категории. Заполняется напрямую из GROUP BY запроса.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryTotalDto {
+    /**
+     * Тип транзакций (доход/расход)
+     */
+    private TransactionType type;
+
+    /**
+     * id категории в словаре категорий
+     */
+    private Integer categoryId;
+
+    /**
+     * Сумма транзакций в группе
+     */
+    private Money total;
+
+    /**
+     * Количество транзакций в группе
+     */
+    private Long count;
+
+    /**
+     * Строка GROUP BY запроса: SUM по сумме в копейках возвращает BIGINT
+     */
+    public CategoryTotalDto(TransactionType type, Integer categoryId, Long totalMinor, Long count) {
+        this(type, categoryId, Money.ofMinor(totalMinor), count);
+    }
+}
@@ -0,0 +1,50 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO со счетчиками колоночного хранилища транзакций
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarStoreStatsDto {
+    /**
+     * Включено ли хранилище
+     */
+    private Boolean enabled;
+
+    /**
+     * Количество загруженных кошельков
+     */
+    private Integer wallets;
+
+    /**
+     * Количество транзакций в загруженных кошельках
+     */
+    private Long transactions;
+
+    /**
+     * Оценка занятой памяти в байтах
+     */
+    private Long usedBytes;
+
+    /**
+     * Лимит памяти в байтах
+     */
+    private Long maxBytes;
+
+    /**
+     * Количество загрузок кошельков из БД
+     */
+    private Long loads;
+
+    /**
+     * Количество вытесненных кошельков
+     */
+    private Long evictions;
+}
@@ -0,0 +1,49 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Агрегат транзакций кошелька за один календарный день по типу и категории.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyCategoryTotalDto {
+    /**
+     * Календарный день
+     */
+    private LocalDate date;
+
+    /**
+     * Тип транзакций (доход/расход)
+     */
+    private TransactionType type;
+
+    /**
+     * id категории в словаре категорий
+     */
+    private Integer categoryId;
+
+    /**
+     * Сумма транзакций за день
+     */
+    private Money total;
+
+    /**
+     * Количество транзакций за день
+     */
+    private Long count;
+
+    /**
+     * Строка GROUP BY запроса: SUM по сумме в копейках возвращает BIGINT
+     */
+    public DailyCategoryTotalDto(LocalDate date, TransactionType type, Integer categoryId, Long totalMinor, Long count) {
+        this(date, type, categoryId, Money.ofMinor(totalMinor), count);
+    }
+}
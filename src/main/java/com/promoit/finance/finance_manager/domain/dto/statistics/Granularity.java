@@ -0,0 +1,47 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Размер интервала в серии статистики
+ */
+public enum Granularity {
+    /**
+     * Календарный день
+     */
+    DAY,
+
+    /**
+     * Неделя с понедельника по воскресенье
+     */
+    WEEK,
+
+    /**
+     * Календарный месяц
+     */
+    MONTH;
+
+    /**
+     * Первый день интервала, в который попадает указанный день
+     */
+    public LocalDate bucketStart(LocalDate day) {
+        return switch (this) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Первый день следующего интервала
+     */
+    public LocalDate nextBucketStart(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case WEEK -> bucketStart.plusWeeks(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO с результатом восстановления балансов и бюджетов из журнала операций
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerRestoreResponseDto {
+    /**
+     * Количество кошельков, баланс которых записан из журнала
+     */
+    private Integer wallets;
+
+    /**
+     * Количество записанных бюджетов
+     */
+    private Integer budgets;
+
+    /**
+     * Количество кошельков журнала, которых нет в БД
+     */
+    private Integer missingWallets;
+
+    /**
+     * Время выполнения в миллисекундах
+     */
+    private Long elapsedMs;
+}
@@ -0,0 +1,55 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO со счетчиками журнала операций
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerStatsDto {
+    /**
+     * Включен ли журнал
+     */
+    private Boolean enabled;
+
+    /**
+     * Номер последней записи журнала
+     */
+    private Long records;
+
+    /**
+     * Количество сегментов журнала
+     */
+    private Integer segments;
+
+    /**
+     * Номер последней записи, вошедшей в снимок состояния
+     */
+    private Long snapshotSequence;
+
+    /**
+     * Количество кошельков в восстановленном состоянии
+     */
+    private Integer wallets;
+
+    /**
+     * Количество бюджетов в восстановленном состоянии
+     */
+    private Integer budgets;
+
+    /**
+     * Количество записей хвоста журнала, примененных при запуске после загрузки снимка
+     */
+    private Long recoveredRecords;
+
+    /**
+     * Время восстановления состояния при запуске в миллисекундах
+     */
+    private Long recoveryMs;
+}
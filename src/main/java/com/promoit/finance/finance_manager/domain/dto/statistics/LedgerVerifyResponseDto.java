@@ -0,0 +1,70 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO с результатом сверки журнала операций с транзакциями в БД
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerVerifyResponseDto {
+    /**
+     * Количество прочитанных записей журнала
+     */
+    private Long records;
+
+    /**
+     * Количество сверенных кошельков
+     */
+    private Integer wallets;
+
+    /**
+     * Кошельки, по которым журнал расходится с БД
+     */
+    private List<Mismatch> mismatches;
+
+    /**
+     * Время выполнения в миллисекундах
+     */
+    private Long elapsedMs;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Mismatch {
+        /**
+         * Идентификатор кошелька
+         */
+        private UUID walletId;
+
+        /**
+         * Количество транзакций кошелька по журналу
+         */
+        private Long journalTransactions;
+
+        /**
+         * Количество транзакций кошелька в БД
+         */
+        private Long databaseTransactions;
+
+        /**
+         * Сумма транзакций (доходы минус расходы) по журналу
+         */
+        private Money journalBalance;
+
+        /**
+         * Сумма транзакций (доходы минус расходы) в БД
+         */
+        private Money databaseBalance;
+    }
+}
@@ -0,0 +1,50 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO со счетчиками очереди уведомлений
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationStatsDto {
+    /**
+     * Текущее количество уведомлений в очереди
+     */
+    private Integer queueDepth;
+
+    /**
+     * Емкость очереди
+     */
+    private Integer queueCapacity;
+
+    /**
+     * Количество уведомлений, поставленных в очередь
+     */
+    private Long enqueued;
+
+    /**
+     * Количество уведомлений, отброшенных при заполненной очереди
+     */
+    private Long dropped;
+
+    /**
+     * Количество повторных уведомлений, объединенных с другими в пределах окна
+     */
+    private Long coalesced;
+
+    /**
+     * Количество отправленных уведомлений
+     */
+    private Long delivered;
+
+    /**
+     * Количество обработанных пакетов
+     */
+    private Long batches;
+}
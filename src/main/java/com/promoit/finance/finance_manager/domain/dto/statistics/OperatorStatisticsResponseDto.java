@@ -0,0 +1,75 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * DTO со сводной статистикой по всем кошелькам системы
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperatorStatisticsResponseDto {
+    /**
+     * Количество кошельков
+     */
+    private Integer wallets;
+
+    /**
+     * Общая сумма доходов по всем кошелькам
+     */
+    private Money totalIncome;
+
+    /**
+     * Общая сумма расходов по всем кошелькам
+     */
+    private Money totalExpense;
+
+    /**
+     * Разница доходов и расходов по всем кошелькам
+     */
+    private Money balance;
+
+    /**
+     * Суммы доходов по категориям
+     * Key: название категории, Value: сумма доходов
+     */
+    private Map<String, Money> incomeByCategory;
+
+    /**
+     * Суммы расходов по категориям
+     * Key: название категории, Value: сумма расходов
+     */
+    private Map<String, Money> expenseByCategory;
+
+    /**
+     * Общее количество бюджетов
+     */
+    private Long budgets;
+
+    /**
+     * Количество бюджетов, траты по которым превысили лимит
+     */
+    private Long exceededBudgets;
+
+    /**
+     * Количество групп кошельков, на которые был разбит расчет
+     */
+    private Integer partitions;
+
+    /**
+     * Уровень параллелизма пула расчета
+     */
+    private Integer parallelism;
+
+    /**
+     * Время выполнения в миллисекундах
+     */
+    private Long elapsedMs;
+}
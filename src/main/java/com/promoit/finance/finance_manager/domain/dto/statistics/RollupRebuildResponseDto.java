@@ -0,0 +1,35 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO с результатом перестроения дневных агрегатов
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponseDto {
+    /**
+     * Количество обработанных кошельков
+     */
+    private Integer wallets;
+
+    /**
+     * Количество записанных дневных агрегатов
+     */
+    private Long rows;
+
+    /**
+     * Количество кошельков, агрегаты которых расходятся с транзакциями после перестроения
+     */
+    private Integer mismatches;
+
+    /**
+     * Время выполнения в миллисекундах
+     */
+    private Long elapsedMs;
+}
@@ -0,0 +1,34 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Ключ кэша статистики: кошелек, нормализованный набор категорий и период.
+ * @param walletId идентификатор кошелька
+ * @param categories отсортированный набор категорий без повторов (пустой = все категории)
+ * @param startDate начало периода (null = без фильтра по дате)
+ * @param endDate конец периода (null = без фильтра по дате)
+ */
+public record StatisticsCacheKey(UUID walletId, Set<String> categories, LocalDateTime startDate, LocalDateTime endDate) {
+
+    /**
+     * Строит ключ так же, как FinanceService трактует фильтры: порядок и повторы категорий не важны,
+     * период учитывается только при заданных обеих границах.
+     */
+    public static StatisticsCacheKey of(
+            UUID walletId, List<String> categories, LocalDateTime startDate, LocalDateTime endDate
+    ) {
+        Set<String> normalized = categories == null || categories.isEmpty()
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new TreeSet<>(categories));
+        boolean filterByPeriod = startDate != null && endDate != null;
+        return new StatisticsCacheKey(
+                walletId, normalized, filterByPeriod ? startDate : null, filterByPeriod ? endDate : null
+        );
+    }
+}
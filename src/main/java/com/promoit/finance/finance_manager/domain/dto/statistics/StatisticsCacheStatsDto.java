@@ -0,0 +1,45 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO со счетчиками кэша статистики
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticsCacheStatsDto {
+    /**
+     * Текущее количество записей в кэше
+     */
+    private Integer size;
+
+    /**
+     * Максимальное количество записей
+     */
+    private Integer maxSize;
+
+    /**
+     * Количество попаданий
+     */
+    private Long hits;
+
+    /**
+     * Количество промахов
+     */
+    private Long misses;
+
+    /**
+     * Количество вытеснений по размеру и по времени жизни
+     */
+    private Long evictions;
+
+    /**
+     * Количество записей, удаленных из-за изменений кошельков
+     */
+    private Long invalidations;
+}
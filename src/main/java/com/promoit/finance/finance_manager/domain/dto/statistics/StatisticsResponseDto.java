@@ -1,10 +1,12 @@
 package com.promoit.finance.finance_manager.domain.dto.statistics;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.Map;
 
 /**
@@ -19,29 +21,29 @@ public class StatisticsResponseDto {
     /**
      * Общая сумма всех доходов за период
      */
-    private Double totalIncome;
+    private Money totalIncome;
 
     /**
      * Общая сумма всех расходов за период
      */
-    private Double totalExpense;
+    private Money totalExpense;
 
     /**
      * Текущий баланс кошелька (доходы - расходы)
      */
-    private Double balance;
+    private Money balance;
 
     /**
      * Суммы доходов сгруппированные по категориям
      * Key: название категории, Value: сумма доходов
      */
-    private Map<String, Double> incomeByCategory;
+    private Map<String, Money> incomeByCategory;
 
     /**
      * Суммы расходов сгруппированные по категориям
      * Key: название категории, Value: сумма расходов
      */
-    private Map<String, Double> expenseByCategory;
+    private Map<String, Money> expenseByCategory;
 
     /**
      * Статус бюджетов по категориям
@@ -60,17 +62,17 @@ public class StatisticsResponseDto {
         /**
          * Установленный лимит бюджета
          */
-        private Double limitAmount;
+        private Money limitAmount;
 
         /**
          * Фактически потраченная сумма в категории
          */
-        private Double currentSpent;
+        private Money currentSpent;
 
         /**
          * Оставшийся лимит (limitAmount - currentSpent)
          */
-        private Double remaining;
+        private Money remaining;
 
         /**
          * Флаг превышения бюджета
@@ -78,8 +80,8 @@ public class StatisticsResponseDto {
         private Boolean exceeded;
 
         /**
-         * Процент использования бюджета (0-100+)
+         * Процент использования бюджета (0-100+) с двумя знаками после точки
          */
-        private Double usagePercentage;
+        private BigDecimal usagePercentage;
     }
 }
\ No newline at end of file
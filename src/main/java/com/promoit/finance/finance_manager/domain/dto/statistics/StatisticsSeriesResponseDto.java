@@ -0,0 +1,76 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO с финансовой статистикой кошелька, разбитой на интервалы (дни, недели или месяцы).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticsSeriesResponseDto {
+    /**
+     * Размер интервала
+     */
+    private Granularity granularity;
+
+    /**
+     * Интервалы по возрастанию даты, включая интервалы без транзакций
+     */
+    private List<Bucket> buckets;
+
+    /**
+     * Статистика одного интервала
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+        /**
+         * Первый день интервала
+         */
+        private LocalDate periodStart;
+
+        /**
+         * Последний день интервала
+         */
+        private LocalDate periodEnd;
+
+        /**
+         * Сумма доходов за интервал
+         */
+        private Money totalIncome;
+
+        /**
+         * Сумма расходов за интервал
+         */
+        private Money totalExpense;
+
+        /**
+         * Разница доходов и расходов за интервал
+         */
+        private Money balance;
+
+        /**
+         * Суммы доходов по категориям
+         * Key: название категории, Value: сумма доходов
+         */
+        private Map<String, Money> incomeByCategory;
+
+        /**
+         * Суммы расходов по категориям
+         * Key: название категории, Value: сумма расходов
+         */
+        private Map<String, Money> expenseByCategory;
+    }
+}
@@ -0,0 +1,44 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Сумма и количество транзакций одного типа в кошельке. Заполняется напрямую из GROUP BY запроса.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletTotalDto {
+    /**
+     * Идентификатор кошелька
+     */
+    private UUID walletId;
+
+    /**
+     * Тип транзакций (доход/расход)
+     */
+    private TransactionType type;
+
+    /**
+     * Сумма транзакций
+     */
+    private Money total;
+
+    /**
+     * Количество транзакций
+     */
+    private Long count;
+
+    /**
+     * Строка GROUP BY запроса: SUM по сумме в копейках возвращает BIGINT
+     */
+    public WalletTotalDto(UUID walletId, TransactionType type, Long totalMinor, Long count) {
+        this(walletId, type, Money.ofMinor(totalMinor), count);
+    }
+}
@@ -0,0 +1,93 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO со счетчиками полос записи кошельков
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteLaneStatsDto {
+    /**
+     * Включен ли режим полос записи
+     */
+    private Boolean enabled;
+
+    /**
+     * Количество полос
+     */
+    private Integer lanes;
+
+    /**
+     * Емкость очереди одной полосы
+     */
+    private Integer queueCapacity;
+
+    /**
+     * Максимальное количество операций в одной групповой транзакции
+     */
+    private Integer groupSize;
+
+    /**
+     * Счетчики по каждой полосе
+     */
+    private List<Lane> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Lane {
+        /**
+         * Номер полосы
+         */
+        private Integer index;
+
+        /**
+         * Текущее количество операций в очереди
+         */
+        private Integer queueDepth;
+
+        /**
+         * Количество выполненных операций
+         */
+        private Long operations;
+
+        /**
+         * Количество групповых транзакций
+         */
+        private Long groups;
+
+        /**
+         * Количество групп, откаченных и выполненных заново по одной операции
+         */
+        private Long fallbacks;
+
+        /**
+         * Количество операций, отклоненных из-за заполненной очереди
+         */
+        private Long rejected;
+
+        /**
+         * Количество операций, не дождавшихся результата за отведенное время
+         */
+        private Long timeouts;
+
+        /**
+         * Среднее время от постановки в очередь до результата, мкс
+         */
+        private Long avgLatencyMicros;
+
+        /**
+         * Максимальное время от постановки в очередь до результата, мкс
+         */
+        private Long maxLatencyMicros;
+    }
+}
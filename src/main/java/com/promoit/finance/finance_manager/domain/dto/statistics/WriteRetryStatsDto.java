@@ -0,0 +1,40 @@
+package com.promoit.finance.finance_manager.domain.dto.statistics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO со счетчиками повторов записи при конфликтах оптимистической блокировки
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteRetryStatsDto {
+    /**
+     * Максимальное количество попыток одной операции
+     */
+    private Integer maxAttempts;
+
+    /**
+     * Количество выполненных операций записи
+     */
+    private Long operations;
+
+    /**
+     * Количество конфликтов версий
+     */
+    private Long conflicts;
+
+    /**
+     * Количество повторов после конфликта
+     */
+    private Long retries;
+
+    /**
+     * Количество операций, завершившихся ошибкой после всех попыток
+     */
+    private Long exhausted;
+}
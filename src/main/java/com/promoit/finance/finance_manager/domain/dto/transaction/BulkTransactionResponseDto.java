@@ -0,0 +1,67 @@
+package com.promoit.finance.finance_manager.domain.dto.transaction;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO с результатом пакетного добавления транзакций
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransactionResponseDto {
+    /**
+     * Количество добавленных транзакций
+     */
+    private Integer accepted;
+
+    /**
+     * Количество отклоненных транзакций
+     */
+    private Integer rejected;
+
+    /**
+     * Баланс кошелька после применения пакета
+     */
+    private Money balance;
+
+    /**
+     * Результаты в порядке транзакций запроса
+     */
+    private List<Item> items;
+
+    /**
+     * Результат одной транзакции пакета
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        /**
+         * Позиция транзакции в запросе (с нуля)
+         */
+        private Integer index;
+
+        /**
+         * Добавлена ли транзакция
+         */
+        private Boolean accepted;
+
+        /**
+         * Добавленная транзакция (только для добавленных)
+         */
+        private TransactionResponseDto transaction;
+
+        /**
+         * Причина отклонения (только для отклоненных)
+         */
+        private String error;
+    }
+}
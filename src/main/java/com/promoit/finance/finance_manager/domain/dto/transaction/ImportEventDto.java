@@ -0,0 +1,77 @@
+package com.promoit.finance.finance_manager.domain.dto.transaction;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Строка ленты хода импорта выписки (NDJSON): ошибка в строке файла, прогресс после пакета
+ * или итог импорта. Незаполненные поля в ленту не пишутся.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportEventDto {
+    /**
+     * Вид события
+     */
+    private Event event;
+
+    /**
+     * Номер строки данных в файле, с 1 без учета заголовка (только для ошибок)
+     */
+    private Long row;
+
+    /**
+     * Причина отклонения строки или остановки импорта
+     */
+    private String error;
+
+    /**
+     * Количество прочитанных строк данных
+     */
+    private Long rows;
+
+    /**
+     * Количество добавленных транзакций
+     */
+    private Long imported;
+
+    /**
+     * Количество отклоненных строк
+     */
+    private Long rejected;
+
+    /**
+     * Время с начала импорта в миллисекундах
+     */
+    private Long elapsedMs;
+
+    /**
+     * Скорость импорта в строках в секунду
+     */
+    private Double rowsPerSecond;
+
+    public enum Event {
+        /**
+         * Строка отклонена
+         */
+        ERROR,
+        /**
+         * Очередной пакет записан
+         */
+        PROGRESS,
+        /**
+         * Файл импортирован до конца
+         */
+        DONE,
+        /**
+         * Импорт остановлен, записанные ранее пакеты сохранены
+         */
+        FAILED
+    }
+}
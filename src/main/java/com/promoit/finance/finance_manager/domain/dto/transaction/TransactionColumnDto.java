@@ -0,0 +1,37 @@
+package com.promoit.finance.finance_manager.domain.dto.transaction;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Поля транзакции, нужные для аналитики: дата, тип, категория и сумма.
+ * Используется для загрузки кошелька в колоночное хранилище без создания сущностей.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionColumnDto {
+    /**
+     * Дата и время транзакции
+     */
+    private LocalDateTime date;
+
+    /**
+     * Тип транзакции (доход/расход)
+     */
+    private TransactionType type;
+
+    /**
+     * id категории в словаре категорий
+     */
+    private Integer categoryId;
+
+    /**
+     * Сумма транзакции
+     */
+    private Money amount;
+}
@@ -0,0 +1,35 @@
+package com.promoit.finance.finance_manager.domain.dto.transaction;
+
+import com.promoit.finance.finance_manager.domain.exception.transaction.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в истории транзакций для keyset-пагинации: дата и идентификатор последней выданной транзакции.
+ * Клиенту передается в виде непрозрачной строки Base64.
+ * @param date дата последней транзакции страницы
+ * @param id идентификатор последней транзакции страницы
+ */
+public record TransactionCursor(LocalDateTime date, UUID id) {
+
+    public String encode() {
+        String raw = date + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+}
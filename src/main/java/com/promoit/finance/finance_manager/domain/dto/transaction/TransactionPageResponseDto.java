@@ -0,0 +1,32 @@
+package com.promoit.finance.finance_manager.domain.dto.transaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO со страницей истории транзакций
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageResponseDto {
+    /**
+     * Транзакции страницы от новых к старым
+     */
+    private List<TransactionResponseDto> items;
+
+    /**
+     * Курсор для запроса следующей страницы (null, если страниц больше нет)
+     */
+    private String nextCursor;
+
+    /**
+     * Есть ли следующая страница
+     */
+    private Boolean hasMore;
+}
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 /**
  * DTO для запроса на создание транзакции
  */
@@ -19,11 +21,12 @@ public class TransactionRequestDto {
     private TransactionType type;
 
     /**
-     * Сумма транзакции
+     * Сумма транзакции, не больше двух знаков после точки (целое число копеек)
      */
     @NotNull(message = "Сумма обязательна")
     @Positive(message = "Сумма должна быть положительным числом")
     @DecimalMin(value = "0.01", message = "Сумма должна быть не менее 0.01")
+    @Digits(integer = 15, fraction = 2, message = "Сумма должна содержать не больше 15 цифр до точки и 2 после")
     private Double amount;
 
     /**
@@ -38,4 +41,11 @@ public class TransactionRequestDto {
      */
     @Size(max = 255, message = "Описание не должно превышать 255 символов")
     private String description;
+
+    /**
+     * Дата транзакции (опционально, по умолчанию - момент добавления).
+     * Задается при импорте выписок за прошлые периоды.
+     */
+    @PastOrPresent(message = "Дата транзакции не может быть в будущем")
+    private LocalDateTime date;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.promoit.finance.finance_manager.domain.dto.transaction;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,7 +30,7 @@ public class TransactionResponseDto {
     /**
      * Сумма транзакции
      */
-    private Double amount;
+    private Money amount;
 
     /**
      * Категория транзакции
@@ -54,5 +55,5 @@ public class TransactionResponseDto {
     /**
      * Новый баланс кошелька после транзакции
      */
-    private Double newBalance;
+    private Money newBalance;
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.promoit.finance.finance_manager.domain.dto.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Пользователь и id его кошелька (без загрузки сущностей)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserWalletDto {
+    /**
+     * Имя пользователя
+     */
+    private String username;
+
+    /**
+     * Идентификатор кошелька пользователя
+     */
+    private UUID walletId;
+}
@@ -1,5 +1,8 @@
 package com.promoit.finance.finance_manager.domain.entity;
 
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.entity.converter.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +10,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.UuidGenerator;
 
+import java.time.LocalDate;
 import java.util.UUID;
 
 
@@ -14,6 +18,7 @@ import java.util.UUID;
  * Состояние кошелька.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_budget_period_end", columnList = "period_end"))
 @Data
 @Builder
 @AllArgsConstructor
@@ -23,10 +28,52 @@ public class BudgetEntity {
     @UuidGenerator
     private UUID id;
 
-    private String category;
-    private Double limitAmount;
+    /**
+     * id категории в словаре категорий
+     */
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+    /**
+     * Лимит бюджета, хранится в копейках
+     */
+    @Convert(converter = MoneyConverter.class)
+    private Money limitAmount;
+    /**
+     * Траты текущего периода, хранятся в копейках
+     */
+    @Convert(converter = MoneyConverter.class)
     @Builder.Default
-    private Double currentSpent = 0.0;
+    private Money currentSpent = Money.ZERO;
+
+    /**
+     * Период бюджета
+     */
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private BudgetPeriod period = BudgetPeriod.NONE;
+
+    /**
+     * Длина произвольного периода в днях (только для {@link BudgetPeriod#CUSTOM})
+     */
+    private Integer periodDays;
+
+    /**
+     * Начало текущего периода (null для бессрочного бюджета)
+     */
+    private LocalDate periodStart;
+
+    /**
+     * Конец текущего периода, не включительно (null для бессрочного бюджета).
+     * Бюджеты с наступившим концом периода обнуляются фоновым переходом на следующий период.
+     */
+    @Column(name = "period_end")
+    private LocalDate periodEnd;
+
+    /**
+     * Версия для оптимистической блокировки: параллельные обновления трат не затирают друг друга
+     */
+    @Version
+    private Long version;
 
     @ManyToOne
     @JoinColumn(name = "wallet_id")
@@ -0,0 +1,59 @@
+package com.promoit.finance.finance_manager.domain.entity;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.entity.converter.MoneyConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Итог завершенного периода бюджета: лимит и траты за период.
+ * Записывается пакетно при переходе бюджетов на следующий период.
+ * Суммы хранятся в копейках (BIGINT), итоги периодов складываются без ошибок округления.
+ */
+@Entity
+@Table(
+        name = "budget_history",
+        indexes = @Index(name = "idx_budget_history_wallet_category", columnList = "wallet_id, category_id, period_start")
+)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BudgetHistoryEntity {
+    @Id
+    @UuidGenerator
+    private UUID id;
+
+    @Column(name = "budget_id", nullable = false)
+    private UUID budgetId;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    /**
+     * Конец периода, не включительно
+     */
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "limit_amount")
+    private Money limitAmount;
+
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "spent")
+    private Money spent;
+}
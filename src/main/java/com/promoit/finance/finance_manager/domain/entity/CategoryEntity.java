@@ -0,0 +1,26 @@
+package com.promoit.finance.finance_manager.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Словарь категорий: каждое название хранится один раз, транзакции,
+ * бюджеты и дневные агрегаты ссылаются на категорию по целочисленному id.
+ */
+@Entity
+@Table(name = "category")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(unique = true, nullable = false, length = 100)
+    private String name;
+}
@@ -0,0 +1,59 @@
+package com.promoit.finance.finance_manager.domain.entity;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.converter.MoneyConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Дневной агрегат транзакций кошелька: сумма и количество операций одного типа
+ * в одной категории за календарный день. Поддерживается инкрементально при каждой транзакции.
+ */
+@Entity
+@Table(
+        name = "daily_category_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_rollup_wallet_date_category_type",
+                columnNames = {"wallet_id", "rollup_date", "category_id", "type"}
+        )
+)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailyCategoryRollupEntity {
+    @Id
+    @UuidGenerator
+    private UUID id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private UUID walletId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate rollupDate;
+
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    /**
+     * Сумма транзакций за день, хранится в копейках
+     */
+    @Convert(converter = MoneyConverter.class)
+    @Builder.Default
+    private Money totalAmount = Money.ZERO;
+
+    @Builder.Default
+    private Long transactionCount = 0L;
+}
@@ -0,0 +1,52 @@
+package com.promoit.finance.finance_manager.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ключ идемпотентности выполненной операции и ее сохраненный ответ.
+ * Повтор запроса с тем же ключом возвращает сохраненный ответ без повторного выполнения операции.
+ */
+@Entity
+@Table(
+        name = "idempotency_key",
+        indexes = @Index(name = "idx_idempotency_key_created_at", columnList = "created_at")
+)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class IdempotencyKeyEntity {
+    /**
+     * Значение заголовка Idempotency-Key
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    /**
+     * Операция, для которой использован ключ (например, "transaction:{walletId}" или "transfer:{fromUser}")
+     */
+    @Column(nullable = false, length = 100)
+    private String operation;
+
+    /**
+     * SHA-256 содержимого запроса (hex): повтор ключа с другим содержимым отклоняется
+     */
+    @Column(name = "request_hash", length = 64)
+    private String requestHash;
+
+    /**
+     * Ответ операции в JSON (null для операций без ответа)
+     */
+    @Lob
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
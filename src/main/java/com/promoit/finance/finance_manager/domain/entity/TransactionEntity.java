@@ -1,7 +1,8 @@
 package com.promoit.finance.finance_manager.domain.entity;
 
-
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.converter.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,20 +14,36 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = @Index(
+        name = "idx_transaction_wallet_date_id",
+        columnList = "wallet_id, date, id, type, category_id"
+))
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class TransactionEntity {
+    /**
+     * id генерируется в приложении без обращения к БД, поэтому вставки группируются в JDBC-пакеты.
+     * Версия с меткой времени монотонно растет, и новые строки дописываются в конец индекса первичного ключа.
+     */
     @Id
-    @UuidGenerator
+    @UuidGenerator(style = UuidGenerator.Style.TIME)
     private UUID id;
 
     @Enumerated(EnumType.STRING)
     private TransactionType type;
 
-    private Double amount;
-    private String category;
+    /**
+     * Сумма транзакции, хранится в копейках
+     */
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
+    /**
+     * id категории в словаре категорий
+     */
+    @Column(name = "category_id", nullable = false)
+    private Integer categoryId;
     private String description;
     private LocalDateTime date;
 
@@ -1,5 +1,7 @@
 package com.promoit.finance.finance_manager.domain.entity;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.entity.converter.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,7 +22,18 @@ public class WalletEntity {
     @UuidGenerator
     private UUID id;
 
-    private double balance = 0.0;
+    /**
+     * Баланс, хранится в копейках
+     */
+    @Convert(converter = MoneyConverter.class)
+    @Column(nullable = false)
+    private Money balance = Money.ZERO;
+
+    /**
+     * Версия для оптимистической блокировки: параллельная запись устаревшего состояния кошелька завершится конфликтом
+     */
+    @Version
+    private Long version;
 
     @OneToOne
     @JoinColumn(name = "user_id")
@@ -0,0 +1,24 @@
+package com.promoit.finance.finance_manager.domain.event;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Событие установки или удаления бюджета категории.
+ * Публикуется внутри транзакции записи, слушатели обрабатывают его после коммита.
+ * @param walletId идентификатор кошелька
+ * @param categoryId id категории бюджета в словаре категорий
+ * @param limitAmount новый лимит бюджета (null, если бюджет удален)
+ * @param period период бюджета (null, если бюджет удален)
+ * @param periodDays длина произвольного периода в днях (null для остальных периодов или удаленного бюджета)
+ * @param periodStart начало текущего периода бюджета (null для бессрочного или удаленного бюджета)
+ * @param periodEnd конец текущего периода бюджета (null для бессрочного или удаленного бюджета)
+ */
+public record BudgetChangedEvent(
+        UUID walletId, int categoryId, Money limitAmount, BudgetPeriod period,
+        Integer periodDays, LocalDate periodStart, LocalDate periodEnd
+) {
+}
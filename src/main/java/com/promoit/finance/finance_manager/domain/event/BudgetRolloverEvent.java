@@ -0,0 +1,13 @@
+package com.promoit.finance.finance_manager.domain.event;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
+
+import java.util.List;
+
+/**
+ * Событие перехода порции бюджетов на следующий период: траты архивированы и обнулены.
+ * Публикуется внутри транзакции перехода, слушатели обрабатывают его после коммита.
+ * @param budgets бюджеты, переведенные на следующий период
+ */
+public record BudgetRolloverEvent(List<ExpiredBudgetDto> budgets) {
+}
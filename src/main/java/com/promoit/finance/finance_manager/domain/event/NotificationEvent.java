@@ -0,0 +1,24 @@
+package com.promoit.finance.finance_manager.domain.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Событие уведомления пользователя (пересечение порога бюджета или отрицательный баланс).
+ * Публикуется внутри транзакции записи, в очередь уведомлений попадает только после коммита.
+ * @param type вид уведомления
+ * @param username имя пользователя
+ * @param category категория бюджета (null для отрицательного баланса)
+ * @param value потраченная сумма для превышения бюджета, процент использования для предупреждения,
+ *              баланс для отрицательного баланса (с двумя знаками после точки)
+ */
+public record NotificationEvent(Type type, String username, String category, BigDecimal value) {
+
+    /**
+     * Вид уведомления. Для одной категории более поздний вид важнее: превышение заменяет предупреждение.
+     */
+    public enum Type {
+        BUDGET_WARNING,
+        BUDGET_EXCEEDED,
+        NEGATIVE_BALANCE
+    }
+}
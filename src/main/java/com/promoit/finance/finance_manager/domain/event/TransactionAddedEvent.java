@@ -0,0 +1,27 @@
+package com.promoit.finance.finance_manager.domain.event;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Событие сохранения новой транзакции кошелька.
+ * Публикуется внутри транзакции записи, слушатели обрабатывают его после коммита.
+ * @param walletId идентификатор кошелька
+ * @param transactionId идентификатор транзакции
+ * @param date дата транзакции
+ * @param type тип транзакции
+ * @param categoryId id категории транзакции в словаре категорий
+ * @param amount сумма транзакции
+ */
+public record TransactionAddedEvent(
+        UUID walletId,
+        UUID transactionId,
+        LocalDateTime date,
+        TransactionType type,
+        int categoryId,
+        Money amount
+) {
+}
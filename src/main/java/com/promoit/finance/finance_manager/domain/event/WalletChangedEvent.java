@@ -0,0 +1,11 @@
+package com.promoit.finance.finance_manager.domain.event;
+
+import java.util.UUID;
+
+/**
+ * Событие изменения данных кошелька (транзакции, перевода или бюджетов).
+ * Публикуется внутри транзакции записи, слушатели обрабатывают его после коммита.
+ * @param walletId идентификатор измененного кошелька
+ */
+public record WalletChangedEvent(UUID walletId) {
+}
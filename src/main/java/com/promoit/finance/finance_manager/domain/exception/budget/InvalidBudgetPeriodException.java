@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.budget;
+
+
+public class InvalidBudgetPeriodException extends RuntimeException {
+    public InvalidBudgetPeriodException(String message) {
+        super(message);
+    }
+}
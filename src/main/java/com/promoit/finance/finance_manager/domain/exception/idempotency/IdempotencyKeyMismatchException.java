@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.idempotency;
+
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
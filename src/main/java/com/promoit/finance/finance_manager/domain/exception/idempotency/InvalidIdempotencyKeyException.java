@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.idempotency;
+
+
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.statistics;
+
+
+public class InvalidPeriodException extends RuntimeException {
+    public InvalidPeriodException(String message) {
+        super(message);
+    }
+}
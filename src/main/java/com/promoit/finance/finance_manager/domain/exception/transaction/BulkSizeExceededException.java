@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.transaction;
+
+
+public class BulkSizeExceededException extends RuntimeException {
+    public BulkSizeExceededException(String message) {
+        super(message);
+    }
+}
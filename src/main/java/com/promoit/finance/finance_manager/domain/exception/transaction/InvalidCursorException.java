@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.transaction;
+
+
+public class InvalidCursorException extends RuntimeException {
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+}
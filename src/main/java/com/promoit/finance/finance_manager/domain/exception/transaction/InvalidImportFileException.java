@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.transaction;
+
+
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.wallet;
+
+
+public class WalletLaneBusyException extends RuntimeException {
+    public WalletLaneBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.promoit.finance.finance_manager.domain.exception.wallet;
+
+
+public class WalletLaneTimeoutException extends RuntimeException {
+    public WalletLaneTimeoutException(String message) {
+        super(message);
+    }
+}
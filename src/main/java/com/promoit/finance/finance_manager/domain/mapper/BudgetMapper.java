@@ -1,9 +1,12 @@
 package com.promoit.finance.finance_manager.domain.mapper;
 
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
 import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
 
+import java.time.LocalDate;
+
 /**
  * Маппер для преобразования между BudgetEntity и Budget DTO
  */
@@ -11,26 +14,39 @@ public class BudgetMapper {
 
     /**
      * Преобразует сущность бюджета в DTO для ответа
+     * @param category название категории бюджета из словаря категорий
      */
-    public static BudgetResponseDto toDto(BudgetEntity entity) {
+    public static BudgetResponseDto toDto(BudgetEntity entity, String category) {
         return BudgetResponseDto.builder()
                 .id(entity.getId())
-                .category(entity.getCategory())
+                .category(category)
                 .limitAmount(entity.getLimitAmount())
-                .currentSpent(entity.getCurrentSpent())
+                .currentSpent(currentSpent(entity, LocalDate.now()))
                 .walletId(entity.getWallet().getId())
+                .period(entity.getPeriod())
+                .periodStart(entity.getPeriodStart())
+                .periodEnd(entity.getPeriodEnd())
                 // remainingAmount вычисляется автоматически через getter
                 .build();
     }
 
+    /**
+     * Траты бюджета в текущем периоде. Если период закончился, а переход на следующий период
+     * еще не выполнен, траты относятся к прошедшему периоду и текущие траты равны нулю.
+     */
+    public static Money currentSpent(BudgetEntity entity, LocalDate today) {
+        LocalDate periodEnd = entity.getPeriodEnd();
+        return periodEnd != null && !periodEnd.isAfter(today) ? Money.ZERO : entity.getCurrentSpent();
+    }
+
     /**
      * Создает новую сущность бюджета из базовых данных
      */
-    public static BudgetEntity toEntity(String category, Double limitAmount, WalletEntity wallet) {
+    public static BudgetEntity toEntity(int categoryId, Money limitAmount, WalletEntity wallet) {
         return BudgetEntity.builder()
-                .category(category)
+                .categoryId(categoryId)
                 .limitAmount(limitAmount)
-                .currentSpent(0.0)
+                .currentSpent(Money.ZERO)
                 .wallet(wallet)
                 .build();
     }
@@ -1,5 +1,6 @@
 package com.promoit.finance.finance_manager.domain.mapper;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
 
 import java.util.Map;
@@ -7,11 +8,11 @@ import java.util.Map;
 public class StatisticsMapper {
 
    public static StatisticsResponseDto toDto(
-            Double totalIncome,
-            Double totalExpense,
-            Double balance,
-            Map<String, Double> incomeByCategory,
-            Map<String, Double> expenseByCategory,
+            Money totalIncome,
+            Money totalExpense,
+            Money balance,
+            Map<String, Money> incomeByCategory,
+            Map<String, Money> expenseByCategory,
             Map<String, StatisticsResponseDto.BudgetStatus> budgetStatus
     ) {
         return StatisticsResponseDto.builder()
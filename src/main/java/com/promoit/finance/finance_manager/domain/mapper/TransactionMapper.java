@@ -1,5 +1,6 @@
 package com.promoit.finance.finance_manager.domain.mapper;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
 import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
@@ -8,27 +9,56 @@ import java.time.LocalDateTime;
 
 public class TransactionMapper {
 
-    public static TransactionEntity toEntity(WalletEntity wallet, TransactionRequestDto request) {
+    /**
+     * Создает транзакцию из запроса. Сумма запроса уже проверена на целое число копеек,
+     * поэтому перевод в {@link Money} точный.
+     */
+    public static TransactionEntity toEntity(WalletEntity wallet, TransactionRequestDto request, int categoryId) {
         return TransactionEntity.builder()
                 .type(request.getType())
-                .amount(request.getAmount())
-                .category(request.getCategory())
+                .amount(Money.of(request.getAmount()))
+                .categoryId(categoryId)
                 .description(request.getDescription())
-                .date(LocalDateTime.now())
+                .date(request.getDate() != null ? request.getDate() : LocalDateTime.now())
                 .wallet(wallet)
                 .build();
     }
 
-    public static TransactionResponseDto toDto(TransactionEntity entity) {
+    public static TransactionResponseDto toDto(TransactionEntity entity, String category) {
+        return toDto(entity, category, entity.getWallet().getBalance()); // текущий баланс после операции
+    }
+
+    /**
+     * Преобразует транзакцию в DTO с балансом, зафиксированным сразу после нее
+     * (для пакета транзакций текущий баланс кошелька уже учитывает следующие операции).
+     */
+    public static TransactionResponseDto toDto(TransactionEntity entity, String category, Money newBalance) {
+        return TransactionResponseDto.builder()
+                .id(entity.getId())
+                .type(entity.getType())
+                .amount(entity.getAmount())
+                .category(category)
+                .description(entity.getDescription())
+                .date(entity.getDate())
+                .walletId(entity.getWallet().getId())
+                .newBalance(newBalance)
+                .build();
+    }
+
+    /**
+     * Преобразует транзакцию из истории в DTO. Баланс после операции для исторических
+     * транзакций не восстанавливается, поэтому newBalance не заполняется.
+     * @param category название категории транзакции из словаря категорий
+     */
+    public static TransactionResponseDto toHistoryDto(TransactionEntity entity, String category) {
         return TransactionResponseDto.builder()
                 .id(entity.getId())
                 .type(entity.getType())
                 .amount(entity.getAmount())
-                .category(entity.getCategory())
+                .category(category)
                 .description(entity.getDescription())
                 .date(entity.getDate())
                 .walletId(entity.getWallet().getId())
-                .newBalance(entity.getWallet().getBalance()) // текущий баланс после операции
                 .build();
     }
 }
\ No newline at end of file
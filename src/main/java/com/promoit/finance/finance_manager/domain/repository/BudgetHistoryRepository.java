@@ -0,0 +1,28 @@
+package com.promoit.finance.finance_manager.domain.repository;
+
+import com.promoit.finance.finance_manager.domain.entity.BudgetHistoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface BudgetHistoryRepository extends JpaRepository<BudgetHistoryEntity, UUID> {
+
+    /**
+     * Архивирует текущий период бюджетов одним INSERT ... SELECT.
+     * Лимит и траты копируются как есть: в бюджете они тоже хранятся в копейках ({@code MoneyConverter}).
+     * @return количество записанных периодов
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            insert into budget_history (id, budget_id, wallet_id, category_id, period_start, period_end, limit_amount, spent)
+            select random_uuid(), b.id, b.wallet_id, b.category_id, b.period_start, b.period_end,
+                   b.limit_amount, b.current_spent
+            from budget_entity b
+            where b.id in (:budgetIds)
+            """)
+    int archiveCurrentPeriod(@Param("budgetIds") Collection<UUID> budgetIds);
+}
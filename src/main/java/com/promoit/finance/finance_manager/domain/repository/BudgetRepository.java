@@ -1,12 +1,147 @@
 package com.promoit.finance.finance_manager.domain.repository;
 
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetCurrentSpentDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetLimitDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetSpendDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
 import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
 import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface BudgetRepository extends JpaRepository<BudgetEntity, UUID> {
-    Optional<BudgetEntity> findByWalletAndCategory(WalletEntity wallet, String category);
+    Optional<BudgetEntity> findByWalletAndCategoryId(WalletEntity wallet, Integer categoryId);
+
+    List<BudgetEntity> findByWalletAndCategoryIdIn(WalletEntity wallet, Collection<Integer> categoryIds);
+
+    /**
+     * Настройки всех бюджетов кошелька без загрузки сущностей
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.budget.BudgetLimitDto(
+                b.categoryId, b.limitAmount, b.period, b.periodDays, b.periodStart, b.periodEnd
+            )
+            from BudgetEntity b
+            where b.wallet.id = :walletId
+            """)
+    List<BudgetLimitDto> findLimitsByWalletId(@Param("walletId") UUID walletId);
+
+    /**
+     * Траты периодических бюджетов кошелька, текущий период которых еще не закончился
+     */
+    @Query("""
+            select b.categoryId as categoryId, b.currentSpent as currentSpent
+            from BudgetEntity b
+            where b.wallet.id = :walletId
+              and b.periodEnd > :today
+            """)
+    List<BudgetCurrentSpentDto> findCurrentSpentByWalletId(
+            @Param("walletId") UUID walletId,
+            @Param("today") LocalDate today
+    );
+
+    /**
+     * Атомарно увеличивает траты бюджета кошелька по категории и возвращает лимит и траты до изменения.
+     * Изменение и чтение - один запрос (выборка из OLD TABLE над UPDATE в H2), строка бюджета
+     * блокируется до конца транзакции. Версия увеличивается, чтобы параллельное изменение бюджета
+     * через сущность получило конфликт оптимистической блокировки.
+     * Бюджет с закончившимся периодом не меняется: траты прошедшего периода уже не должны расти,
+     * сначала бюджет переводится на следующий период.
+     * @param amountMinor сумма расхода в копейках
+     * @param today текущая дата
+     * @return лимит и траты до изменения или пусто, если бюджета по категории нет или его период закончился
+     */
+    @Query(nativeQuery = true, value = """
+            select b.limit_amount as "limitAmount", b.current_spent as "spentBefore"
+            from old table (
+                update budget_entity
+                set current_spent = current_spent + :amountMinor,
+                    version = version + 1
+                where wallet_id = :walletId
+                  and category_id = :categoryId
+                  and (period_end is null or period_end > :today)
+            ) b
+            """)
+    Optional<BudgetSpendDto> addSpent(
+            @Param("walletId") UUID walletId,
+            @Param("categoryId") int categoryId,
+            @Param("amountMinor") long amountMinor,
+            @Param("today") LocalDate today
+    );
+
+    @Query("select count(b) from BudgetEntity b where b.wallet.id in :walletIds")
+    long countByWalletIds(@Param("walletIds") Collection<UUID> walletIds);
+
+    /**
+     * Количество бюджетов группы кошельков, траты по которым превысили лимит в текущем периоде.
+     * Бюджеты с закончившимся, но еще не обнуленным периодом не учитываются.
+     */
+    @Query("""
+            select count(b) from BudgetEntity b
+            where b.wallet.id in :walletIds
+              and b.currentSpent > b.limitAmount
+              and (b.periodEnd is null or b.periodEnd > :today)
+            """)
+    long countExceededByWalletIds(@Param("walletIds") Collection<UUID> walletIds, @Param("today") LocalDate today);
+
+    /**
+     * Очередная порция бюджетов, период которых закончился к указанной дате. Строки блокируются
+     * до конца транзакции, чтобы расходы не изменили траты между архивированием и обнулением.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto(b.id, b.wallet.id, b.categoryId)
+            from BudgetEntity b
+            where b.periodEnd <= :today
+            order by b.periodEnd, b.id
+            """)
+    List<ExpiredBudgetDto> lockExpired(@Param("today") LocalDate today, Pageable pageable);
+
+    /**
+     * Блокирует бюджет кошелька по категории, если его период закончился к указанной дате
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto(b.id, b.wallet.id, b.categoryId)
+            from BudgetEntity b
+            where b.wallet.id = :walletId
+              and b.categoryId = :categoryId
+              and b.periodEnd <= :today
+            """)
+    Optional<ExpiredBudgetDto> lockExpired(
+            @Param("walletId") UUID walletId,
+            @Param("categoryId") int categoryId,
+            @Param("today") LocalDate today
+    );
+
+    /**
+     * Переводит бюджеты на следующий период одним UPDATE: траты обнуляются, началом периода
+     * становится прежний конец, конец сдвигается на длину периода (как в {@code BudgetPeriod#endOf})
+     * @return количество переведенных бюджетов
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            update budget_entity
+            set current_spent = 0,
+                period_start = period_end,
+                period_end = case period
+                    when 'WEEKLY' then dateadd(day, 7, period_end)
+                    when 'MONTHLY' then dateadd(month, 1, period_end)
+                    else dateadd(day, period_days, period_end)
+                end,
+                version = version + 1
+            where id in (:budgetIds)
+            """)
+    int rollOver(@Param("budgetIds") Collection<UUID> budgetIds);
 }
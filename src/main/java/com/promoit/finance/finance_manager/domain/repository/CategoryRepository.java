@@ -0,0 +1,14 @@
+package com.promoit.finance.finance_manager.domain.repository;
+
+import com.promoit.finance.finance_manager.domain.entity.CategoryEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoryRepository extends JpaRepository<CategoryEntity, Integer> {
+    Optional<CategoryEntity> findByName(String name);
+
+    List<CategoryEntity> findByNameIn(Collection<String> names);
+}
@@ -0,0 +1,136 @@
+package com.promoit.finance.finance_manager.domain.repository;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.DailyCategoryRollupEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface DailyCategoryRollupRepository extends JpaRepository<DailyCategoryRollupEntity, UUID> {
+
+    /**
+     * Прибавляет сумму и количество к существующему дневному агрегату.
+     * @return количество обновленных строк (0, если агрегата за этот день еще нет)
+     */
+    @Modifying
+    @Query("""
+            update DailyCategoryRollupEntity r
+            set r.totalAmount = r.totalAmount + :amount,
+                r.transactionCount = r.transactionCount + :count
+            where r.walletId = :walletId
+              and r.rollupDate = :rollupDate
+              and r.categoryId = :categoryId
+              and r.type = :type
+            """)
+    int increment(
+            @Param("walletId") UUID walletId,
+            @Param("rollupDate") LocalDate rollupDate,
+            @Param("categoryId") Integer categoryId,
+            @Param("type") TransactionType type,
+            @Param("amount") Money amount,
+            @Param("count") Long count
+    );
+
+    /**
+     * Суммы по типу и категории за диапазон дней (включительно), null означает отсутствие ограничения.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto(
+                r.type, r.categoryId, sum(r.totalAmount), sum(r.transactionCount))
+            from DailyCategoryRollupEntity r
+            where r.walletId = :walletId
+              and (:fromDate is null or r.rollupDate >= :fromDate)
+              and (:toDate is null or r.rollupDate <= :toDate)
+            group by r.type, r.categoryId
+            """)
+    List<CategoryTotalDto> sumByTypeAndCategory(
+            @Param("walletId") UUID walletId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
+
+    /**
+     * То же, что {@link #sumByTypeAndCategory}, но только по указанным категориям.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto(
+                r.type, r.categoryId, sum(r.totalAmount), sum(r.transactionCount))
+            from DailyCategoryRollupEntity r
+            where r.walletId = :walletId
+              and r.categoryId in :categoryIds
+              and (:fromDate is null or r.rollupDate >= :fromDate)
+              and (:toDate is null or r.rollupDate <= :toDate)
+            group by r.type, r.categoryId
+            """)
+    List<CategoryTotalDto> sumByTypeAndCategoryIn(
+            @Param("walletId") UUID walletId,
+            @Param("categoryIds") Collection<Integer> categoryIds,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
+
+    /**
+     * Суммы по типу и категории по группе кошельков за все время.
+     * Используется для сводной статистики по системе, которая считается частями по группам кошельков.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto(
+                r.type, r.categoryId, sum(r.totalAmount), sum(r.transactionCount))
+            from DailyCategoryRollupEntity r
+            where r.walletId in :walletIds
+            group by r.type, r.categoryId
+            """)
+    List<CategoryTotalDto> sumByTypeAndCategoryForWallets(@Param("walletIds") Collection<UUID> walletIds);
+
+    /**
+     * Дневные агрегаты кошелька за диапазон дней (включительно) по возрастанию даты,
+     * null означает отсутствие ограничения.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto(
+                r.rollupDate, r.type, r.categoryId, r.totalAmount, r.transactionCount)
+            from DailyCategoryRollupEntity r
+            where r.walletId = :walletId
+              and (:fromDate is null or r.rollupDate >= :fromDate)
+              and (:toDate is null or r.rollupDate <= :toDate)
+            order by r.rollupDate
+            """)
+    List<DailyCategoryTotalDto> findDaily(
+            @Param("walletId") UUID walletId,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
+
+    /**
+     * То же, что {@link #findDaily}, но только по указанным категориям.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto(
+                r.rollupDate, r.type, r.categoryId, r.totalAmount, r.transactionCount)
+            from DailyCategoryRollupEntity r
+            where r.walletId = :walletId
+              and r.categoryId in :categoryIds
+              and (:fromDate is null or r.rollupDate >= :fromDate)
+              and (:toDate is null or r.rollupDate <= :toDate)
+            order by r.rollupDate
+            """)
+    List<DailyCategoryTotalDto> findDailyIn(
+            @Param("walletId") UUID walletId,
+            @Param("categoryIds") Collection<Integer> categoryIds,
+            @Param("fromDate") LocalDate fromDate,
+            @Param("toDate") LocalDate toDate
+    );
+
+    @Modifying
+    @Query("delete from DailyCategoryRollupEntity r where r.walletId = :walletId")
+    int deleteByWalletId(@Param("walletId") UUID walletId);
+}
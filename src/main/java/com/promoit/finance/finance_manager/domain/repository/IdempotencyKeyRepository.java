@@ -0,0 +1,19 @@
+package com.promoit.finance.finance_manager.domain.repository;
+
+import com.promoit.finance.finance_manager.domain.entity.IdempotencyKeyEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, String> {
+
+    /**
+     * Очередная порция ключей, созданных раньше указанного момента
+     */
+    @Query("select k.idempotencyKey from IdempotencyKeyEntity k where k.createdAt < :cutoff order by k.createdAt")
+    List<String> findExpiredKeys(@Param("cutoff") LocalDateTime cutoff, Pageable limit);
+}
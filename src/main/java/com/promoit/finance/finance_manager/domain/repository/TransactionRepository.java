@@ -1,9 +1,216 @@
 package com.promoit.finance.finance_manager.domain.repository;
 
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.WalletTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionColumnDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
 import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<TransactionEntity, UUID> {
+
+    /**
+     * Суммы и количество транзакций всех кошельков, сгруппированные по кошельку и типу
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.WalletTotalDto(
+                t.wallet.id, t.type, sum(t.amount), count(t))
+            from TransactionEntity t
+            group by t.wallet.id, t.type
+            """)
+    List<WalletTotalDto> sumByWalletAndType();
+
+    /**
+     * Суммы и количество транзакций кошелька, сгруппированные по типу и категории.
+     * Границы периода включительные, null означает отсутствие ограничения.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto(
+                t.type, t.categoryId, sum(t.amount), count(t))
+            from TransactionEntity t
+            where t.wallet.id = :walletId
+              and (:startDate is null or t.date >= :startDate)
+              and (:endDate is null or t.date <= :endDate)
+            group by t.type, t.categoryId
+            """)
+    List<CategoryTotalDto> sumByTypeAndCategory(
+            @Param("walletId") UUID walletId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * То же, что {@link #sumByTypeAndCategory}, но только по указанным категориям.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto(
+                t.type, t.categoryId, sum(t.amount), count(t))
+            from TransactionEntity t
+            where t.wallet.id = :walletId
+              and t.categoryId in :categoryIds
+              and (:startDate is null or t.date >= :startDate)
+              and (:endDate is null or t.date <= :endDate)
+            group by t.type, t.categoryId
+            """)
+    List<CategoryTotalDto> sumByTypeAndCategoryIn(
+            @Param("walletId") UUID walletId,
+            @Param("categoryIds") Collection<Integer> categoryIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * Суммы и количество транзакций кошелька по календарным дням, типу и категории.
+     * Используется для перестроения дневных агрегатов.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto(
+                cast(t.date as LocalDate), t.type, t.categoryId, sum(t.amount), count(t))
+            from TransactionEntity t
+            where t.wallet.id = :walletId
+            group by cast(t.date as LocalDate), t.type, t.categoryId
+            """)
+    List<DailyCategoryTotalDto> sumByDayTypeAndCategory(@Param("walletId") UUID walletId);
+
+    /**
+     * Суммы и количество транзакций кошелька за период по календарным дням, типу и категории.
+     * Используется для неполных дней на границах периода при построении серии статистики.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto(
+                cast(t.date as LocalDate), t.type, t.categoryId, sum(t.amount), count(t))
+            from TransactionEntity t
+            where t.wallet.id = :walletId
+              and t.date >= :startDate and t.date <= :endDate
+            group by cast(t.date as LocalDate), t.type, t.categoryId
+            """)
+    List<DailyCategoryTotalDto> sumByDayTypeAndCategoryBetween(
+            @Param("walletId") UUID walletId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * То же, что {@link #sumByDayTypeAndCategoryBetween}, но только по указанным категориям.
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto(
+                cast(t.date as LocalDate), t.type, t.categoryId, sum(t.amount), count(t))
+            from TransactionEntity t
+            where t.wallet.id = :walletId
+              and t.categoryId in :categoryIds
+              and t.date >= :startDate and t.date <= :endDate
+            group by cast(t.date as LocalDate), t.type, t.categoryId
+            """)
+    List<DailyCategoryTotalDto> sumByDayTypeAndCategoryBetweenIn(
+            @Param("walletId") UUID walletId,
+            @Param("categoryIds") Collection<Integer> categoryIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * Первая страница истории транзакций (от новых к старым).
+     * Условия по кошельку и дате используют индекс (wallet_id, date, id, type, category_id).
+     */
+    @Query("""
+            select t from TransactionEntity t
+            where t.wallet.id = :walletId
+              and t.date >= :startDate and t.date <= :endDate
+              and (:type is null or t.type = :type)
+              and (:categoryId is null or t.categoryId = :categoryId)
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionEntity> findFirstPage(
+            @Param("walletId") UUID walletId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("type") TransactionType type,
+            @Param("categoryId") Integer categoryId,
+            Pageable pageable
+    );
+
+    /**
+     * Следующая страница истории после курсора (date, id): без OFFSET, поиск начинается
+     * сразу с позиции курсора в индексе, поэтому стоимость не зависит от номера страницы.
+     */
+    @Query("""
+            select t from TransactionEntity t
+            where t.wallet.id = :walletId
+              and t.date >= :startDate and t.date <= :cursorDate
+              and (t.date < :cursorDate or t.id < :cursorId)
+              and (:type is null or t.type = :type)
+              and (:categoryId is null or t.categoryId = :categoryId)
+            order by t.date desc, t.id desc
+            """)
+    List<TransactionEntity> findPageAfter(
+            @Param("walletId") UUID walletId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("cursorDate") LocalDateTime cursorDate,
+            @Param("cursorId") UUID cursorId,
+            @Param("type") TransactionType type,
+            @Param("categoryId") Integer categoryId,
+            Pageable pageable
+    );
+
+    /**
+     * Все транзакции кошелька от старых к новым в виде потока для построчной выгрузки.
+     * Строки читаются из курсора БД порциями по fetch size, Stream нужно закрыть
+     * внутри открытой транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from TransactionEntity t
+            where t.wallet.id = :walletId
+            order by t.date, t.id
+            """)
+    Stream<TransactionEntity> streamByWalletId(@Param("walletId") UUID walletId);
+
+    /**
+     * Транзакции кошелька за период (границы включительно) от старых к новым в виде потока.
+     * Как и {@link #streamByWalletId(UUID)}, читается курсором порциями по fetch size.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select t from TransactionEntity t
+            where t.wallet.id = :walletId
+              and t.date between :startDate and :endDate
+            order by t.date, t.id
+            """)
+    Stream<TransactionEntity> streamByWalletIdAndPeriod(
+            @Param("walletId") UUID walletId,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    /**
+     * Поля транзакций кошелька, нужные для колоночного хранилища, в виде потока без создания сущностей.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.transaction.TransactionColumnDto(
+                t.date, t.type, t.categoryId, t.amount)
+            from TransactionEntity t
+            where t.wallet.id = :walletId
+            """)
+    Stream<TransactionColumnDto> streamColumnsByWalletId(@Param("walletId") UUID walletId);
 }
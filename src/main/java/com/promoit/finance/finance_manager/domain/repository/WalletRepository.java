@@ -1,9 +1,56 @@
 package com.promoit.finance.finance_manager.domain.repository;
 
+import com.promoit.finance.finance_manager.domain.dto.user.UserWalletDto;
 import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface WalletRepository extends JpaRepository<WalletEntity, UUID> {
+
+    @Query("select w.id from WalletEntity w order by w.id")
+    List<UUID> findAllIds();
+
+    /**
+     * Атомарно изменяет баланс кошелька, если после изменения он не станет отрицательным, и возвращает новый баланс.
+     * Проверка, запись и чтение результата - один запрос (выборка из FINAL TABLE над UPDATE в H2),
+     * поэтому параллельные операции не теряют изменения друг друга, а новый баланс не требует отдельного SELECT.
+     * Версия кошелька увеличивается, чтобы загруженные ранее копии кошелька не записали устаревший баланс.
+     * Баланс хранится в копейках, поэтому изменение и результат тоже в копейках.
+     * @param walletId идентификатор кошелька
+     * @param deltaMinor изменение баланса в копейках (положительное для дохода, отрицательное для расхода)
+     * @return баланс в копейках после изменения или пусто, если кошелька нет или средств недостаточно
+     */
+    @Query(nativeQuery = true, value = """
+            select w.balance
+            from final table (
+                update wallet_entity
+                set balance = balance + :deltaMinor,
+                    version = version + 1
+                where id = :walletId
+                  and balance + :deltaMinor >= 0
+            ) w
+            """)
+    Optional<Long> applyDelta(@Param("walletId") UUID walletId, @Param("deltaMinor") long deltaMinor);
+
+    /**
+     * Кошельки пользователей по именам одним запросом
+     */
+    @Query("""
+            select new com.promoit.finance.finance_manager.domain.dto.user.UserWalletDto(u.username, w.id)
+            from WalletEntity w join w.user u
+            where u.username in :usernames
+            """)
+    List<UserWalletDto> findByUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Текущий баланс кошелька в копейках без загрузки сущности (null, если кошелька нет)
+     */
+    @Query(nativeQuery = true, value = "select balance from wallet_entity where id = :walletId")
+    Long findBalanceById(@Param("walletId") UUID walletId);
 }
@@ -0,0 +1,213 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetLimitDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.BudgetIndexStatsDto;
+import com.promoit.finance.finance_manager.domain.event.BudgetChangedEvent;
+import com.promoit.finance.finance_manager.domain.event.BudgetRolloverEvent;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+
+/**
+ * Ограниченный по размеру индекс бюджетов кошельков в памяти: id категории -> настройки бюджета.
+ * Бюджеты кошелька загружаются одним запросом при первом обращении, после коммита установки
+ * или удаления бюджета индекс обновляется из события, поэтому расход в категории без бюджета
+ * не обращается к БД. Траты бюджета в индексе не хранятся: они меняются каждым расходом
+ * и обновляются атомарным запросом.
+ * Пока транзакция с изменением бюджета не завершена, кошелек в индексе не хранится: операции
+ * той же транзакции (групповой коммит полосы записи) читают бюджеты из БД и видят изменение,
+ * но прочитанные незафиксированные бюджеты не сохраняются в индекс до коммита или отката.
+ * Как и в {@link StatisticsCache}, загрузка сохраняется по поколению ({@link WalletGenerations}):
+ * загрузка, начатая до коммита изменения, не сохраняет в индекс устаревшие бюджеты.
+ * Поколения, как и сам индекс, ограничены {@code maxWallets} кошельками.
+ */
+@Component
+@Slf4j
+public class BudgetIndex {
+    private final BudgetRepository budgetRepository;
+    private final int maxWallets;
+
+    private final LinkedHashMap<UUID, Map<Integer, BudgetLimitDto>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final WalletGenerations generations;
+    /**
+     * Количество незавершенных изменений бюджетов кошелька: пока оно не ноль, загрузки не сохраняются
+     */
+    private final Map<UUID, Integer> pendingChanges = new HashMap<>();
+
+    private long hits;
+    private long loads;
+    private long evictions;
+    private long updates;
+    private long invalidations;
+    private long mismatches;
+
+    public BudgetIndex(
+            BudgetRepository budgetRepository,
+            @Value("${finance.budget-index.max-wallets:10000}") int maxWallets
+    ) {
+        this.budgetRepository = budgetRepository;
+        this.maxWallets = maxWallets;
+        this.generations = new WalletGenerations(maxWallets);
+    }
+
+    /**
+     * Бюджеты кошелька по id категории (неизменяемая карта)
+     */
+    public Map<Integer, BudgetLimitDto> budgets(UUID walletId) {
+        long generation;
+        synchronized (this) {
+            Map<Integer, BudgetLimitDto> cached = entries.get(walletId);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            loads++;
+            // Поколение фиксируется до чтения, чтобы не сохранить бюджеты, устаревшие из-за параллельного изменения
+            generation = generations.current();
+        }
+        Map<Integer, BudgetLimitDto> loaded = load(walletId);
+        store(walletId, loaded, generation);
+        return loaded;
+    }
+
+    /**
+     * Удаляет кошелек из индекса в момент изменения бюджета, до коммита, и запрещает сохранять
+     * загрузки кошелька, пока изменение не зафиксировано или не откачено
+     */
+    @EventListener
+    public synchronized void onBudgetChanging(BudgetChangedEvent event) {
+        pendingChanges.merge(event.walletId(), 1, Integer::sum);
+        invalidate(event.walletId());
+    }
+
+    /**
+     * Откат изменения бюджета: загруженные внутри транзакции бюджеты могли включать изменение
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public synchronized void onBudgetChangeRolledBack(BudgetChangedEvent event) {
+        completeChange(event.walletId());
+        invalidate(event.walletId());
+    }
+
+    /**
+     * Применяет установку или удаление бюджета после коммита
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onBudgetChanged(BudgetChangedEvent event) {
+        completeChange(event.walletId());
+        generations.advance(event.walletId());
+        Map<Integer, BudgetLimitDto> cached = entries.get(event.walletId());
+        if (cached == null) {
+            return;
+        }
+        Map<Integer, BudgetLimitDto> updated = new HashMap<>(cached);
+        if (event.limitAmount() == null) {
+            updated.remove(event.categoryId());
+        } else {
+            updated.put(event.categoryId(), new BudgetLimitDto(
+                    event.categoryId(), event.limitAmount(), event.period(),
+                    event.periodDays(), event.periodStart(), event.periodEnd()
+            ));
+        }
+        entries.put(event.walletId(), Map.copyOf(updated));
+        updates++;
+    }
+
+    /**
+     * Удаляет из индекса кошельки, бюджеты которых перешли на следующий период
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBudgetRollover(BudgetRolloverEvent event) {
+        event.budgets().stream()
+                .map(ExpiredBudgetDto::getWalletId)
+                .distinct()
+                .forEach(this::invalidate);
+    }
+
+    /**
+     * Удаляет бюджеты кошелька из индекса и отмечает изменение кошелька в поколениях.
+     * Вызывается после коммита изменений бюджетов в обход событий установки и удаления.
+     */
+    public synchronized void invalidate(UUID walletId) {
+        generations.advance(walletId);
+        if (entries.remove(walletId) != null) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Сверяет бюджеты кошелька в индексе с БД. При расхождении кошелек удаляется из индекса
+     * и загружается заново при следующем обращении.
+     * @return true, если кошелька нет в индексе или его бюджеты совпадают с БД
+     */
+    public boolean verify(UUID walletId) {
+        Map<Integer, BudgetLimitDto> cached;
+        long generation;
+        synchronized (this) {
+            cached = entries.get(walletId);
+            generation = generations.current();
+        }
+        if (cached == null) {
+            return true;
+        }
+        Map<Integer, BudgetLimitDto> actual = load(walletId);
+        synchronized (this) {
+            // Изменение во время сверки: индекс уже обновлен событием, сравнивать не с чем
+            if (!generations.unchangedSince(walletId, generation) || cached.equals(actual)) {
+                return true;
+            }
+            mismatches++;
+        }
+        log.warn("Индекс бюджетов кошелька {} расходится с БД: в индексе {}, в БД {}", walletId, cached, actual);
+        invalidate(walletId);
+        return false;
+    }
+
+    public synchronized BudgetIndexStatsDto getStats() {
+        return BudgetIndexStatsDto.builder()
+                .wallets(entries.size())
+                .maxWallets(maxWallets)
+                .hits(hits)
+                .loads(loads)
+                .evictions(evictions)
+                .updates(updates)
+                .invalidations(invalidations)
+                .mismatches(mismatches)
+                .build();
+    }
+
+    /**
+     * Отмечает завершение одного изменения бюджетов кошелька
+     */
+    private void completeChange(UUID walletId) {
+        pendingChanges.computeIfPresent(walletId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Map<Integer, BudgetLimitDto> load(UUID walletId) {
+        Map<Integer, BudgetLimitDto> budgets = new HashMap<>();
+        for (BudgetLimitDto budget : budgetRepository.findLimitsByWalletId(walletId)) {
+            budgets.put(budget.getCategoryId(), budget);
+        }
+        return Map.copyOf(budgets);
+    }
+
+    private synchronized void store(UUID walletId, Map<Integer, BudgetLimitDto> budgets, long generation) {
+        if (maxWallets <= 0 || !generations.unchangedSince(walletId, generation) || pendingChanges.containsKey(walletId)) {
+            return;
+        }
+        entries.put(walletId, budgets);
+        Iterator<UUID> eldest = entries.keySet().iterator();
+        while (entries.size() > maxWallets && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.BudgetRolloverResponseDto;
+import com.promoit.finance.finance_manager.domain.event.BudgetRolloverEvent;
+import com.promoit.finance.finance_manager.domain.repository.BudgetHistoryRepository;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Переход периодических бюджетов на следующий период.
+ * Бюджеты с наступившим концом периода обрабатываются порциями, каждая порция - в отдельной
+ * транзакции и тремя запросами независимо от размера: блокировка порции, архивирование трат
+ * в budget_history одним INSERT ... SELECT и обнуление трат со сдвигом периода одним UPDATE.
+ * Сущности бюджетов не загружаются. Запуск ограничен по времени finance.budget-rollover.max-duration,
+ * оставшиеся бюджеты обрабатываются следующим запуском.
+ * Расход в бюджет, период которого закончился до запуска, переводит этот бюджет сам
+ * ({@link #rolloverBudget}), чтобы расход не попал в траты прошедшего периода.
+ */
+@Service
+@Slf4j
+public class BudgetRolloverService {
+    private final BudgetRepository budgetRepository;
+    private final BudgetHistoryRepository budgetHistoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration maxDuration;
+
+    public BudgetRolloverService(
+            BudgetRepository budgetRepository,
+            BudgetHistoryRepository budgetHistoryRepository,
+            ApplicationEventPublisher eventPublisher,
+            TransactionTemplate transactionTemplate,
+            @Value("${finance.budget-rollover.batch-size:1000}") int batchSize,
+            @Value("${finance.budget-rollover.max-duration:30s}") Duration maxDuration
+    ) {
+        this.budgetRepository = budgetRepository;
+        this.budgetHistoryRepository = budgetHistoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxDuration = maxDuration;
+    }
+
+    @Scheduled(
+            initialDelayString = "${finance.budget-rollover.interval:10m}",
+            fixedDelayString = "${finance.budget-rollover.interval:10m}"
+    )
+    public void scheduledRollover() {
+        rollover(LocalDate.now());
+    }
+
+    /**
+     * Переводит на следующий период все бюджеты, период которых закончился к указанной дате.
+     * Бюджет, пропустивший несколько периодов, переходит по одному периоду за порцию,
+     * за каждый пропущенный период в истории остается отдельная запись.
+     * @param today текущая дата
+     * @return BudgetRolloverResponseDto с количеством переведенных бюджетов и порций
+     */
+    public synchronized BudgetRolloverResponseDto rollover(LocalDate today) {
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        long budgets = 0;
+        int batches = 0;
+        boolean completed = false;
+        while (System.nanoTime() < deadline) {
+            int rolled = transactionTemplate.execute(status -> rolloverBatch(today));
+            if (rolled == 0) {
+                completed = true;
+                break;
+            }
+            budgets += rolled;
+            batches++;
+        }
+
+        long elapsedMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        if (budgets > 0 || !completed) {
+            log.info("Переход бюджетов на следующий период: бюджетов {}, порций {}, за {} мс{}",
+                    budgets, batches, elapsedMs, completed ? "" : ", остановлен по времени");
+        }
+        return BudgetRolloverResponseDto.builder()
+                .budgets(budgets)
+                .batches(batches)
+                .completed(completed)
+                .elapsedMs(elapsedMs)
+                .build();
+    }
+
+    /**
+     * Переводит на следующий период один бюджет в текущей транзакции, если его период закончился.
+     * Бюджет, пропустивший несколько периодов, переходит на текущий период, за каждый пропущенный
+     * период в истории остается отдельная запись, как и при переходе по расписанию.
+     * @param walletId идентификатор кошелька
+     * @param categoryId id категории бюджета в словаре категорий
+     * @param today текущая дата
+     * @return количество пройденных периодов (0 - период бюджета не закончился)
+     */
+    public int rolloverBudget(UUID walletId, int categoryId, LocalDate today) {
+        int periods = 0;
+        Optional<ExpiredBudgetDto> expired;
+        while ((expired = budgetRepository.lockExpired(walletId, categoryId, today)).isPresent()) {
+            rollOver(List.of(expired.get()));
+            periods++;
+        }
+        if (periods > 0) {
+            log.info("Бюджет категории {} кошелька {} переведен на следующий период перед расходом (периодов: {})",
+                    categoryId, walletId, periods);
+        }
+        return periods;
+    }
+
+    /**
+     * Переводит одну порцию в текущей транзакции
+     * @return количество переведенных бюджетов (0 - бюджетов с закончившимся периодом не осталось)
+     */
+    private int rolloverBatch(LocalDate today) {
+        List<ExpiredBudgetDto> expired = budgetRepository.lockExpired(today, PageRequest.of(0, batchSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        rollOver(expired);
+        return expired.size();
+    }
+
+    /**
+     * Архивирует траты заблокированных бюджетов и переводит их на следующий период
+     */
+    private void rollOver(List<ExpiredBudgetDto> expired) {
+        List<UUID> ids = expired.stream().map(ExpiredBudgetDto::getId).toList();
+        budgetHistoryRepository.archiveCurrentPeriod(ids);
+        budgetRepository.rollOver(ids);
+        eventPublisher.publishEvent(new BudgetRolloverEvent(expired));
+    }
+}
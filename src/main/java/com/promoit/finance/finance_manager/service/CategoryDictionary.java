@@ -0,0 +1,117 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.entity.CategoryEntity;
+import com.promoit.finance.finance_manager.domain.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словарь категорий: перевод названий категорий в целочисленные id и обратно.
+ * Записи словаря никогда не меняются и не удаляются, поэтому кэшируются в памяти без инвалидации.
+ * Новая категория сохраняется в отдельной транзакции: id остается действительным,
+ * даже если транзакция, впервые использовавшая категорию, откатится.
+ */
+@Component
+@Slf4j
+public class CategoryDictionary {
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    public CategoryDictionary(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager) {
+        this.categoryRepository = categoryRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Возвращает id категории, добавляя ее в словарь при первом использовании.
+     * @param name название категории
+     * @return id категории
+     */
+    public int idOf(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        CategoryEntity category;
+        try {
+            category = newTransaction.execute(status -> categoryRepository.findByName(name)
+                    .orElseGet(() -> categoryRepository.saveAndFlush(CategoryEntity.builder().name(name).build())));
+        } catch (DataIntegrityViolationException e) {
+            // Ту же категорию параллельно добавил другой поток
+            category = newTransaction.execute(status -> categoryRepository.findByName(name).orElseThrow());
+        }
+        log.debug("Категория '{}' получила id {}", name, category.getId());
+        return remember(category);
+    }
+
+    /**
+     * Возвращает id существующей категории без добавления новой.
+     * @param name название категории
+     * @return id категории или null, если категории нет в словаре
+     */
+    public Integer findId(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        return categoryRepository.findByName(name).map(this::remember).orElse(null);
+    }
+
+    /**
+     * Переводит фильтр по названиям категорий в фильтр по id.
+     * Категории, которых нет в словаре, ни с чем не совпадают и пропускаются.
+     * @param names названия категорий (null или пустой = без фильтра)
+     * @return множество id или null, если фильтр не задан
+     */
+    public Set<Integer> findIds(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return null;
+        }
+        Set<Integer> ids = new HashSet<>();
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            Integer id = idsByName.get(name);
+            if (id != null) {
+                ids.add(id);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            categoryRepository.findByNameIn(missing).forEach(category -> ids.add(remember(category)));
+        }
+        return ids;
+    }
+
+    /**
+     * Возвращает название категории по id.
+     * @param id id категории
+     * @return название категории
+     */
+    public String nameOf(int id) {
+        String name = namesById.get(id);
+        if (name != null) {
+            return name;
+        }
+        CategoryEntity category = categoryRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Категория с id " + id + " отсутствует в словаре"));
+        remember(category);
+        return category.getName();
+    }
+
+    private int remember(CategoryEntity category) {
+        idsByName.put(category.getName(), category.getId());
+        namesById.put(category.getId(), category.getName());
+        return category.getId();
+    }
+}
@@ -0,0 +1,201 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.ColumnarStoreStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionColumnDto;
+import com.promoit.finance.finance_manager.domain.event.TransactionAddedEvent;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Колоночное представление транзакций кошельков в памяти для расчета статистики.
+ * Кошелек загружается из БД при первом запросе статистики и дальше дополняется
+ * после коммита каждой новой транзакции. Общий объем ограничен лимитом памяти,
+ * при превышении вытесняются давно не использованные кошельки.
+ * Чтобы загрузка, начатая до коммита транзакции, не потеряла ее, у каждого кошелька есть номер версии:
+ * загруженные колонки сохраняются, только если версия не изменилась за время загрузки.
+ */
+@Component
+@Slf4j
+public class ColumnarTransactionStore {
+    private final TransactionRepository transactionRepository;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    private final LinkedHashMap<UUID, CachedWallet> wallets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    private long usedBytes;
+    private long loads;
+    private long evictions;
+
+    public ColumnarTransactionStore(
+            TransactionRepository transactionRepository,
+            @Value("${finance.columnar-store.enabled:false}") boolean enabled,
+            @Value("${finance.columnar-store.max-memory:64MB}") DataSize maxMemory
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.enabled = enabled;
+        this.maxBytes = maxMemory.toBytes();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Считает суммы транзакций кошелька по типу и категории за период.
+     * Если кошелек еще не загружен, загружает его из БД (вызывать внутри транзакции).
+     * @param walletId идентификатор кошелька
+     * @param categoryIds id категорий для фильтрации (null = все категории)
+     * @param startDate начало периода включительно (null = без ограничения)
+     * @param endDate конец периода включительно (null = без ограничения)
+     * @return StatisticsAggregator с суммами
+     */
+    public StatisticsAggregator aggregate(
+            UUID walletId, Collection<Integer> categoryIds, LocalDateTime startDate, LocalDateTime endDate
+    ) {
+        TransactionColumns columns = columns(walletId);
+        long fromMicros = startDate != null ? TransactionColumns.toEpochMicros(startDate) : Long.MIN_VALUE;
+        long toMicros = endDate != null ? TransactionColumns.toEpochMicros(endDate) : Long.MAX_VALUE;
+        boolean[] allowed = allowedCategories(categoryIds);
+        synchronized (columns) {
+            return columns.aggregate(fromMicros, toMicros, allowed);
+        }
+    }
+
+    /**
+     * Дописывает транзакцию в колонки кошелька после коммита. Незагруженные кошельки не трогаются:
+     * транзакция попадет в них при загрузке из БД.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionAdded(TransactionAddedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        versions.merge(event.walletId(), 1L, Long::sum);
+        CachedWallet cached;
+        synchronized (this) {
+            cached = wallets.get(event.walletId());
+        }
+        if (cached == null) {
+            return;
+        }
+        long bytes;
+        synchronized (cached.columns) {
+            cached.columns.append(TransactionColumns.toEpochMicros(event.date()), event.type(), event.categoryId(), event.amount());
+            bytes = cached.columns.estimatedBytes();
+        }
+        synchronized (this) {
+            // Кошелек могли вытеснить, пока дописывалась транзакция - тогда он уже не учитывается в объеме
+            if (wallets.get(event.walletId()) == cached && bytes > cached.accountedBytes) {
+                usedBytes += bytes - cached.accountedBytes;
+                cached.accountedBytes = bytes;
+                evictOverBudget(event.walletId());
+            }
+        }
+    }
+
+    public synchronized ColumnarStoreStatsDto getStats() {
+        long transactions = 0;
+        for (CachedWallet cached : wallets.values()) {
+            synchronized (cached.columns) {
+                transactions += cached.columns.size();
+            }
+        }
+        return ColumnarStoreStatsDto.builder()
+                .enabled(enabled)
+                .wallets(wallets.size())
+                .transactions(transactions)
+                .usedBytes(usedBytes)
+                .maxBytes(maxBytes)
+                .loads(loads)
+                .evictions(evictions)
+                .build();
+    }
+
+    private TransactionColumns columns(UUID walletId) {
+        synchronized (this) {
+            CachedWallet cached = wallets.get(walletId);
+            if (cached != null) {
+                return cached.columns;
+            }
+        }
+        long version = versions.getOrDefault(walletId, 0L);
+        TransactionColumns loaded = load(walletId);
+        synchronized (this) {
+            loads++;
+            CachedWallet cached = wallets.get(walletId);
+            if (cached != null) {
+                return cached.columns;
+            }
+            long bytes = loaded.estimatedBytes();
+            // Кошелек, который сам больше лимита, используется для этого расчета, но не сохраняется
+            if (version == versions.getOrDefault(walletId, 0L) && bytes <= maxBytes) {
+                wallets.put(walletId, new CachedWallet(loaded, bytes));
+                usedBytes += bytes;
+                evictOverBudget(walletId);
+            }
+        }
+        return loaded;
+    }
+
+    private TransactionColumns load(UUID walletId) {
+        TransactionColumns columns = new TransactionColumns();
+        try (Stream<TransactionColumnDto> rows = transactionRepository.streamColumnsByWalletId(walletId)) {
+            rows.forEach(row -> columns.append(
+                    TransactionColumns.toEpochMicros(row.getDate()), row.getType(), row.getCategoryId(), row.getAmount()
+            ));
+        }
+        log.debug("Кошелек {} загружен в колоночное хранилище: {} транзакций", walletId, columns.size());
+        return columns;
+    }
+
+    /**
+     * Вытесняет давно не использованные кошельки, пока объем превышает лимит. Текущий кошелек не вытесняется.
+     */
+    private void evictOverBudget(UUID keep) {
+        Iterator<Map.Entry<UUID, CachedWallet>> eldest = wallets.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<UUID, CachedWallet> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            usedBytes -= entry.getValue().accountedBytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    private boolean[] allowedCategories(Collection<Integer> categoryIds) {
+        if (categoryIds == null) {
+            return null;
+        }
+        int size = categoryIds.stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        boolean[] allowed = new boolean[size];
+        categoryIds.forEach(id -> allowed[id] = true);
+        return allowed;
+    }
+
+    /**
+     * Загруженный кошелек и учтенный в общем объеме размер его колонок
+     */
+    private static final class CachedWallet {
+        private final TransactionColumns columns;
+        private long accountedBytes;
+
+        private CachedWallet(TransactionColumns columns, long accountedBytes) {
+            this.columns = columns;
+            this.accountedBytes = accountedBytes;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.exception.transaction.InvalidImportFileException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение CSV (RFC 4180) по одной записи: поля в кавычках могут содержать разделитель,
+ * перевод строки и удвоенные кавычки. В памяти держится только буфер чтения и текущая запись,
+ * длина поля ограничена {@link #MAX_FIELD_LENGTH}, поэтому расход памяти не зависит от размера файла.
+ * Класс не потокобезопасен.
+ */
+final class CsvReader implements Closeable {
+    static final int MAX_FIELD_LENGTH = 4096;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char QUOTE = '"';
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean started;
+
+    CsvReader(Reader reader, char delimiter) {
+        if (delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+            throw new InvalidImportFileException("Недопустимый разделитель CSV: '" + delimiter + "'");
+        }
+        this.reader = reader;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Читает следующую запись. Пустые строки пропускаются.
+     * @return поля записи или null, если файл закончился
+     */
+    List<String> next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+        } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+        return fields;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (c == -1) {
+                fields.add(field.toString());
+                return fields;
+            }
+            if (quoted) {
+                if (c == QUOTE) {
+                    int following = read();
+                    if (following != QUOTE) {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                }
+                append((char) c);
+            } else if (c == QUOTE && field.isEmpty()) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private void append(char c) {
+        if (field.length() == MAX_FIELD_LENGTH) {
+            throw new InvalidImportFileException("Поле CSV длиннее " + MAX_FIELD_LENGTH + " символов");
+        }
+        field.append(c);
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+            if (!started) {
+                started = true;
+                if (buffer[0] == BOM) {
+                    position = 1;
+                    return read();
+                }
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
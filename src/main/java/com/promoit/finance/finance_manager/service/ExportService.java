@@ -1,17 +1,36 @@
 package com.promoit.finance.finance_manager.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.domain.exception.wallet.WalletNotFoundException;
+import com.promoit.finance.finance_manager.domain.mapper.TransactionMapper;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Сервис для экспорта финансовых отчетов в JSON формате.
@@ -20,14 +39,42 @@ import java.util.UUID;
 @Service
 @Slf4j
 public class ExportService {
+    /**
+     * Через сколько строк ленты транзакций сбрасывать буфер клиенту
+     */
+    private static final int FEED_FLUSH_ROWS = 500;
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
     private final FinanceService financeService;
     private final ObjectMapper objectMapper;
+    private final WalletRepository walletRepository;
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter feedRowWriter;
     private final String exportDirectory = "exports/";
 
-    public ExportService(FinanceService financeService) {
+    public ExportService(
+            FinanceService financeService,
+            ObjectMapper objectMapper,
+            WalletRepository walletRepository,
+            TransactionRepository transactionRepository,
+            EntityManager entityManager,
+            CategoryDictionary categoryDictionary,
+            PlatformTransactionManager transactionManager
+    ) {
         this.financeService = financeService;
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper = objectMapper;
+        this.walletRepository = walletRepository;
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.categoryDictionary = categoryDictionary;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Буфер сбрасывается пачками, а не после каждой строки
+        this.feedRowWriter = objectMapper.writerFor(TransactionResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
         createExportDirectory();
     }
 
@@ -71,6 +118,146 @@ public class ExportService {
         }
     }
 
+    /**
+     * Возвращает ленту всех транзакций кошелька (от старых к новым) в формате NDJSON:
+     * по одному TransactionResponseDto на строку.
+     * Строки читаются из БД потоком и сразу пишутся в ответ через JsonGenerator, каждая прочитанная
+     * сущность отсоединяется от контекста, поэтому расход памяти не зависит от числа транзакций.
+     * Существование кошелька проверяется до начала ответа, чтобы ошибка вернулась обычным статусом.
+     * @param walletId идентификатор кошелька
+     * @return тело ответа, которое пишет ленту в выходной поток
+     */
+    public StreamingResponseBody streamTransactions(UUID walletId) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден");
+        }
+        return outputStream -> {
+            try {
+                Long written = readOnlyTransaction.execute(status -> writeTransactions(walletId, outputStream));
+                log.info("Лента транзакций кошелька {} выгружена: {} строк", walletId, written);
+            } catch (UncheckedIOException e) {
+                // Клиент закрыл соединение: поток из БД и транзакция уже закрыты, дальше писать некуда
+                log.info("Выгрузка ленты транзакций кошелька {} прервана клиентом: {}", walletId, e.getCause().getMessage());
+            }
+        };
+    }
+
+    /**
+     * Отчет за период, который пишется JsonGenerator прямо в выходной поток ответа, без файла на диске
+     * и без сборки документа в памяти: {"metadata": ..., "statistics": ..., "transactions": [...]}.
+     * Статистика считается до начала ответа, поэтому ошибки (например, несуществующий кошелек)
+     * возвращаются обычным статусом. Транзакции периода (если запрошены) читаются курсором БД
+     * и пишутся в массив по одной, как в {@link #streamTransactions(UUID)}.
+     * @param walletId идентификатор кошелька
+     * @param startDate начальная дата периода (включительно)
+     * @param endDate конечная дата периода (включительно)
+     * @param includeTransactions добавить в отчет список транзакций периода
+     * @param gzip сжимать отчет gzip
+     * @return тело ответа, которое пишет отчет в выходной поток
+     */
+    public StreamingResponseBody streamReport(
+            UUID walletId, LocalDate startDate, LocalDate endDate, boolean includeTransactions, boolean gzip
+    ) {
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.atTime(23, 59, 59);
+        StatisticsResponseDto stats = financeService.getStatistics(walletId, null, from, to);
+        Map<String, Object> metadata = createMetadata(startDate, endDate);
+        return outputStream -> {
+            try {
+                if (gzip) {
+                    // syncFlush: сброс генератора отправляет клиенту уже сжатые данные, а не копит их в Deflater
+                    GZIPOutputStream compressed = new GZIPOutputStream(outputStream, GZIP_BUFFER_SIZE, true);
+                    writeReport(walletId, from, to, metadata, stats, includeTransactions, compressed);
+                    compressed.finish();
+                } else {
+                    writeReport(walletId, from, to, metadata, stats, includeTransactions, outputStream);
+                }
+                log.info("Отчет кошелька {} за период {}-{} выгружен", walletId, startDate, endDate);
+            } catch (UncheckedIOException e) {
+                log.info("Выгрузка отчета кошелька {} прервана клиентом: {}", walletId, e.getCause().getMessage());
+            }
+        };
+    }
+
+    private void writeReport(
+            UUID walletId,
+            LocalDateTime from,
+            LocalDateTime to,
+            Map<String, Object> metadata,
+            StatisticsResponseDto stats,
+            boolean includeTransactions,
+            OutputStream outputStream
+    ) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeFieldName("metadata");
+            objectMapper.writeValue(generator, metadata);
+            generator.writeFieldName("statistics");
+            objectMapper.writeValue(generator, stats);
+            if (includeTransactions) {
+                generator.writeArrayFieldStart("transactions");
+                readOnlyTransaction.execute(status -> {
+                    try (Stream<TransactionEntity> transactions = transactionRepository.streamByWalletIdAndPeriod(walletId, from, to)) {
+                        return writeRows(transactions, generator, false);
+                    }
+                });
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Пишет транзакции кошелька в поток построчно. Должен вызываться внутри транзакции:
+     * курсор БД живет, пока открыт Stream.
+     * @return количество записанных строк
+     */
+    private long writeTransactions(UUID walletId, OutputStream outputStream) {
+        try (Stream<TransactionEntity> transactions = transactionRepository.streamByWalletId(walletId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Между JSON-объектами только перевод строки, без разделителя по умолчанию
+            generator.setRootValueSeparator(null);
+            long written = writeRows(transactions, generator, true);
+            generator.flush();
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Пишет транзакции из потока БД по одной, отсоединяя прочитанные сущности от контекста.
+     * Буфер сбрасывается клиенту каждые {@value #FEED_FLUSH_ROWS} строк.
+     * @param lineSeparated писать перевод строки после каждой транзакции (NDJSON)
+     * @return количество записанных транзакций
+     */
+    private long writeRows(Stream<TransactionEntity> transactions, JsonGenerator generator, boolean lineSeparated) {
+        try {
+            long written = 0;
+            Iterator<TransactionEntity> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                TransactionEntity transaction = iterator.next();
+                String category = categoryDictionary.nameOf(transaction.getCategoryId());
+                feedRowWriter.writeValue(generator, TransactionMapper.toHistoryDto(transaction, category));
+                if (lineSeparated) {
+                    generator.writeRaw('\n');
+                }
+                entityManager.detach(transaction);
+                if (++written % FEED_FLUSH_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+            return written;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
      * Создает метаданные для отчета за период
      */
@@ -1,15 +1,33 @@
 package com.promoit.finance.finance_manager.service;
 
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetCurrentSpentDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetLimitDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.Granularity;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsCacheKey;
 import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsSeriesResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.BulkTransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionCursor;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionPageResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
-import com.promoit.finance.finance_manager.domain.dto.user.UserAuthDto;
 import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
 import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
 import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.event.BudgetChangedEvent;
+import com.promoit.finance.finance_manager.domain.event.NotificationEvent;
+import com.promoit.finance.finance_manager.domain.event.TransactionAddedEvent;
+import com.promoit.finance.finance_manager.domain.event.WalletChangedEvent;
+import com.promoit.finance.finance_manager.domain.exception.budget.InvalidBudgetPeriodException;
+import com.promoit.finance.finance_manager.domain.exception.statistics.InvalidPeriodException;
+import com.promoit.finance.finance_manager.domain.exception.transaction.BulkSizeExceededException;
 import com.promoit.finance.finance_manager.domain.exception.user.UserNotFoundException;
 import com.promoit.finance.finance_manager.domain.exception.wallet.InsufficientFundsException;
 import com.promoit.finance.finance_manager.domain.exception.wallet.InvalidAmountException;
@@ -20,11 +38,17 @@ import com.promoit.finance.finance_manager.domain.mapper.TransactionMapper;
 import com.promoit.finance.finance_manager.domain.mapper.TransferMapper;
 import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
 import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
-import com.promoit.finance.finance_manager.domain.repository.UserRepository;
 import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -33,89 +57,358 @@ import java.util.stream.Collectors;
 @Transactional
 @Slf4j
 public class FinanceService {
+    /**
+     * Максимальный размер страницы истории транзакций
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+    /**
+     * Границы истории по умолчанию, если период не задан
+     */
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    /**
+     * Максимальное количество интервалов в серии статистики
+     */
+    private static final int MAX_SERIES_BUCKETS = 5000;
+    /**
+     * Агрегатор интервала без транзакций (только для чтения)
+     */
+    private static final StatisticsAggregator EMPTY_BUCKET = new StatisticsAggregator();
+    /**
+     * Максимальное количество транзакций в одном пакете
+     */
+    static final int MAX_BULK_SIZE = 10_000;
+    /**
+     * Процент лимита, начиная с которого отправляется предупреждение о бюджете
+     */
+    private static final long BUDGET_WARNING_PERCENT = 80;
+    /**
+     * Максимальное количество цифр целой части суммы (как в {@link TransactionRequestDto#getAmount()})
+     */
+    private static final int MAX_AMOUNT_INTEGER_DIGITS = 15;
+
     private final BudgetRepository budgetRepository;
     private final WalletRepository walletRepository;
-    private final NotificationService notificationService;
-    private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
+    private final RollupService rollupService;
+    private final StatisticsCache statisticsCache;
+    private final ColumnarTransactionStore columnarStore;
+    private final CategoryDictionary categoryDictionary;
+    private final BudgetIndex budgetIndex;
+    private final BudgetRolloverService budgetRolloverService;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FinanceService(
-            UserRepository userRepository,
             BudgetRepository budgetRepository,
             WalletRepository walletRepository,
-            NotificationService notificationService,
-            TransactionRepository transactionRepository
+            TransactionRepository transactionRepository,
+            RollupService rollupService,
+            StatisticsCache statisticsCache,
+            ColumnarTransactionStore columnarStore,
+            CategoryDictionary categoryDictionary,
+            BudgetIndex budgetIndex,
+            BudgetRolloverService budgetRolloverService,
+            Validator validator,
+            ApplicationEventPublisher eventPublisher
     ) {
-        this.userRepository = userRepository;
         this.budgetRepository = budgetRepository;
         this.walletRepository = walletRepository;
-        this.notificationService = notificationService;
         this.transactionRepository = transactionRepository;
+        this.rollupService = rollupService;
+        this.statisticsCache = statisticsCache;
+        this.columnarStore = columnarStore;
+        this.categoryDictionary = categoryDictionary;
+        this.budgetIndex = budgetIndex;
+        this.budgetRolloverService = budgetRolloverService;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Добавляет новую финансовую операцию (доход или расход).
+     * Баланс меняется одним условным UPDATE: число измененных строк показывает, хватило ли средств.
+     * Сущность кошелька и его коллекция транзакций не загружаются, поэтому стоимость операции
+     * не растет с историей кошелька, а параллельные операции не теряют изменения баланса.
      * @param walletId уникальный идентификатор кошелька для операции
      * @param request  DTO с данными для создания транзакции
      * @return созданная сущность транзакции
      */
     public TransactionResponseDto addTransaction(UUID walletId, TransactionRequestDto request) {
+        requireAmount(request.getAmount());
+        Money amount = Money.of(request.getAmount());
+        Money newBalance = applyBalanceDelta(walletId, request.getType() == TransactionType.INCOME ? amount : amount.negate());
+        WalletEntity wallet = walletRepository.getReferenceById(walletId);
+        int categoryId = categoryDictionary.idOf(request.getCategory());
+        TransactionEntity transaction = TransactionMapper.toEntity(wallet, request, categoryId);
+        if (request.getType() == TransactionType.EXPENSE) {
+            updateBudgetAndCheckLimit(wallet, categoryId, request.getCategory(),
+                    Map.of(transaction.getDate().toLocalDate(), amount));
+        }
+
+        TransactionEntity savedTransaction = transactionRepository.save(transaction);
+        rollupService.record(savedTransaction);
+        eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+        eventPublisher.publishEvent(new TransactionAddedEvent(
+                walletId, savedTransaction.getId(), savedTransaction.getDate(), savedTransaction.getType(),
+                categoryId, savedTransaction.getAmount()
+        ));
+        return TransactionMapper.toDto(transaction, request.getCategory(), newBalance);
+    }
+
+    /**
+     * Проверяет сумму операции или лимит бюджета: положительная и в целых копейках, как требуют ограничения
+     * {@link TransactionRequestDto#getAmount()}, поэтому перевод суммы в {@link Money} точный.
+     * @throws InvalidAmountException если сумма не положительная или содержит доли копейки
+     */
+    private static void requireAmount(Double amount) {
+        if (amount == null || amount <= 0) {
+            throw new InvalidAmountException("Сумма должна быть положительной");
+        }
+        BigDecimal decimal = BigDecimal.valueOf(amount).stripTrailingZeros();
+        if (decimal.scale() > Money.SCALE || decimal.precision() - decimal.scale() > MAX_AMOUNT_INTEGER_DIGITS) {
+            throw new InvalidAmountException("Сумма должна содержать не больше 15 цифр до точки и 2 после");
+        }
+    }
+
+    /**
+     * Атомарно изменяет баланс кошелька и возвращает новый баланс.
+     * @param walletId идентификатор кошелька
+     * @param delta изменение баланса (отрицательное для расхода)
+     * @return баланс после изменения
+     * @throws WalletNotFoundException если кошелька нет
+     * @throws InsufficientFundsException если после изменения баланс стал бы отрицательным
+     */
+    private Money applyBalanceDelta(UUID walletId, Money delta) {
+        Optional<Long> newBalance = walletRepository.applyDelta(walletId, delta.minorUnits());
+        if (newBalance.isPresent()) {
+            return Money.ofMinor(newBalance.get());
+        }
+        // Изменение не выполнено: баланс читается только для сообщения об ошибке
+        Long balanceMinor = walletRepository.findBalanceById(walletId);
+        if (balanceMinor == null) {
+            throw new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден");
+        }
+        Money balance = Money.ofMinor(balanceMinor);
+        throw new InsufficientFundsException(
+                "Недостаточно средств. Баланс: " + balance + "₽, требуется: " + delta.negate().minus(balance) + "₽"
+        );
+    }
+
+    /**
+     * Добавляет пакет финансовых операций кошелька в одной транзакции БД.
+     * Кошелек и его бюджеты читаются один раз, проверки суммы, баланса и бюджетов выполняются
+     * в памяти по порядку операций, затем транзакции, бюджеты и дневные агрегаты записываются
+     * пакетами (JDBC batching). Операция, не прошедшая проверку, отклоняется и не влияет
+     * на остальные: например, расход, на который не хватает средств, будет отклонен,
+     * а следующий за ним доход - добавлен.
+     * @param walletId уникальный идентификатор кошелька для операций
+     * @param requests DTO с данными транзакций в порядке применения
+     * @return BulkTransactionResponseDto с результатом по каждой транзакции
+     */
+    public BulkTransactionResponseDto addTransactions(UUID walletId, List<TransactionRequestDto> requests) {
+        if (requests.size() > MAX_BULK_SIZE) {
+            throw new BulkSizeExceededException(
+                    "В одном пакете можно передать не больше " + MAX_BULK_SIZE + " транзакций"
+            );
+        }
         WalletEntity wallet = walletRepository.findById(walletId).orElseThrow(
                 () -> new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден")
         );
-        if (request.getAmount() <= 0) {
-            throw new InvalidAmountException("Сумма должна быть положительной");
+        // Расходы пакета по категориям и дням: траты бюджетов увеличиваются одним запросом на категорию
+        Map<Integer, Map<LocalDate, Money>> expenseByCategory = new LinkedHashMap<>();
+        Map<Integer, String> categoryNames = new HashMap<>();
+
+        LocalDateTime now = LocalDateTime.now();
+        Money balance = wallet.getBalance();
+        List<TransactionEntity> transactions = new ArrayList<>();
+        List<Money> balances = new ArrayList<>();
+        List<BulkTransactionResponseDto.Item> items = new ArrayList<>(requests.size());
+        for (int index = 0; index < requests.size(); index++) {
+            TransactionRequestDto request = requests.get(index);
+            String error = validate(request, balance);
+            if (error != null) {
+                items.add(BulkTransactionResponseDto.Item.builder().index(index).accepted(false).error(error).build());
+                continue;
+            }
+            int categoryId = categoryDictionary.idOf(request.getCategory());
+            TransactionEntity transaction = TransactionMapper.toEntity(wallet, request, categoryId);
+            if (request.getDate() == null) {
+                transaction.setDate(now); // у всего пакета одна дата, если она не задана явно
+            }
+            if (request.getType() == TransactionType.INCOME) {
+                balance = balance.plus(transaction.getAmount());
+            } else {
+                balance = balance.minus(transaction.getAmount());
+                expenseByCategory.computeIfAbsent(categoryId, id -> new HashMap<>())
+                        .merge(transaction.getDate().toLocalDate(), transaction.getAmount(), Money::plus);
+                categoryNames.putIfAbsent(categoryId, request.getCategory());
+            }
+            transactions.add(transaction);
+            balances.add(balance);
+            items.add(null); // заполняется после сохранения, когда у транзакции появится id
         }
-        switch (request.getType()) {
-            case INCOME -> wallet.setBalance(wallet.getBalance() + request.getAmount());
-            case EXPENSE -> {
-                double balance = wallet.getBalance();
-                if (balance < request.getAmount()) {
-                    double required = request.getAmount() - balance;
-                    throw new InsufficientFundsException(
-                            "Недостаточно средств. Баланс: " + balance + "₽, требуется: " + required + "₽"
-                    );
-                }
-                wallet.setBalance(balance - request.getAmount());
-                updateBudgetAndCheckLimit(wallet, request.getCategory(), request.getAmount());
+
+        Money finalBalance = wallet.getBalance();
+        if (!transactions.isEmpty()) {
+            // Итог пакета применяется одним условным UPDATE: если баланс успели уменьшить параллельно
+            // и итог стал бы отрицательным, пакет откатывается целиком
+            finalBalance = applyBalanceDelta(walletId, balance.minus(wallet.getBalance()));
+            transactionRepository.saveAll(transactions);
+            rollupService.recordAll(walletId, transactions);
+            eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+            for (TransactionEntity transaction : transactions) {
+                eventPublisher.publishEvent(new TransactionAddedEvent(
+                        walletId, transaction.getId(), transaction.getDate(), transaction.getType(),
+                        transaction.getCategoryId(), transaction.getAmount()
+                ));
             }
+            expenseByCategory.forEach((categoryId, amountsByDay) ->
+                    updateBudgetAndCheckLimit(wallet, categoryId, categoryNames.get(categoryId), amountsByDay));
         }
 
-        TransactionEntity transaction = TransactionMapper.toEntity(wallet, request);
-        TransactionEntity savedTransaction = transactionRepository.save(transaction);
-        wallet.getTransactions().add(savedTransaction);
-        walletRepository.save(wallet);
+        int next = 0;
+        for (int index = 0; index < items.size(); index++) {
+            if (items.get(index) == null) {
+                TransactionEntity transaction = transactions.get(next);
+                items.set(index, BulkTransactionResponseDto.Item.builder()
+                        .index(index)
+                        .accepted(true)
+                        .transaction(TransactionMapper.toDto(
+                                transaction, requests.get(index).getCategory(), balances.get(next)
+                        ))
+                        .build());
+                next++;
+            }
+        }
+        log.info("Пакет транзакций кошелька {}: добавлено {}, отклонено {}",
+                walletId, transactions.size(), requests.size() - transactions.size());
+        return BulkTransactionResponseDto.builder()
+                .accepted(transactions.size())
+                .rejected(requests.size() - transactions.size())
+                .balance(finalBalance)
+                .items(items)
+                .build();
+    }
 
-        if (wallet.getBalance() < 0) {
-            notificationService.notifyNegativeBalance(wallet.getUser().getUsername());
+    /**
+     * Проверяет транзакцию пакета по ограничениям {@link TransactionRequestDto}, как и одиночное
+     * добавление, и по балансу кошелька.
+     * @param request DTO транзакции
+     * @param balance баланс кошелька с учетом предыдущих транзакций пакета
+     * @return причина отклонения или null, если транзакцию можно добавить
+     */
+    private String validate(TransactionRequestDto request, Money balance) {
+        if (request == null) {
+            return "Транзакция не задана";
+        }
+        List<String> violations = validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        if (!violations.isEmpty()) {
+            return String.join("; ", violations);
+        }
+        Money amount = Money.of(request.getAmount());
+        if (request.getType() == TransactionType.EXPENSE && balance.compareTo(amount) < 0) {
+            return "Недостаточно средств. Баланс: " + balance + "₽, требуется: " + amount.minus(balance) + "₽";
         }
-        return TransactionMapper.toDto(transaction);
+        return null;
     }
 
     /**
-     * Обновляет сумму потраченных средств в бюджете категории и проверяет лимиты.
-     * @param wallet   кошелек в котором произошла расходная операция
-     * @param category категория расходов для обновления бюджета
-     * @param amount   сумма расхода для добавления к текущим тратам бюджета
+     * Увеличивает траты бюджета категории одним атомарным запросом и проверяет пороги.
+     * Запрос возвращает лимит и траты до изменения, поэтому пересечение порога определяется
+     * без отдельного чтения бюджета, а параллельные расходы не теряют изменения трат.
+     * Если по индексу бюджетов у категории нет бюджета, к БД не обращается.
+     * В траты идут только расходы, дата которых попадает в текущий период бюджета: расходы задним
+     * числом (импорт выписки за прошлый месяц) не меняют траты и не создают уведомлений.
+     * Если период бюджета закончился, а переход на следующий период еще не выполнен, бюджет
+     * сначала переводится на следующий период: расход и пороги уведомлений относятся к новому периоду.
+     * @param wallet       кошелек в котором произошла расходная операция
+     * @param categoryId   id категории расходов для обновления бюджета
+     * @param category     название категории для уведомлений
+     * @param amountsByDay суммы расходов по дням транзакций
      */
-    private void updateBudgetAndCheckLimit(WalletEntity wallet, String category, Double amount) {
-        Optional<BudgetEntity> budgetOption = budgetRepository.findByWalletAndCategory(wallet, category);
+    private void updateBudgetAndCheckLimit(
+            WalletEntity wallet, int categoryId, String category, Map<LocalDate, Money> amountsByDay
+    ) {
+        BudgetLimitDto budget = budgetIndex.budgets(wallet.getId()).get(categoryId);
+        if (budget == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate periodStart = currentPeriodStart(budget, today);
+        long amount = amountsByDay.entrySet().stream()
+                .filter(entry -> periodStart == null || !entry.getKey().isBefore(periodStart))
+                .mapToLong(entry -> entry.getValue().minorUnits())
+                .reduce(0, Math::addExact);
+        if (amount == 0) {
+            return;
+        }
+        if (budget.getPeriodEnd() != null && !budget.getPeriodEnd().isAfter(today)) {
+            budgetRolloverService.rolloverBudget(wallet.getId(), categoryId, today);
+        }
+        budgetRepository.addSpent(wallet.getId(), categoryId, amount, today).ifPresent(spend -> checkBudgetLimit(
+                wallet, category, Money.ofMinor(spend.getLimitAmount()),
+                Money.ofMinor(spend.getSpentBefore()), Money.ofMinor(Math.addExact(spend.getSpentBefore(), amount))
+        ));
+    }
 
-        if (budgetOption.isPresent()) {
-            BudgetEntity budget = budgetOption.get();
-            budget.setCurrentSpent(budget.getCurrentSpent() + amount);
-            budgetRepository.save(budget);
+    /**
+     * Начало текущего периода бюджета с учетом переходов на следующий период, которые еще не выполнены
+     * (сдвиг такой же, как в {@code BudgetRepository#rollOver})
+     * @return начало периода или null для бессрочного бюджета
+     */
+    private static LocalDate currentPeriodStart(BudgetLimitDto budget, LocalDate today) {
+        LocalDate start = budget.getPeriodStart();
+        LocalDate end = budget.getPeriodEnd();
+        while (end != null && !end.isAfter(today)) {
+            start = end;
+            end = budget.getPeriod().endOf(end, budget.getPeriodDays());
+        }
+        return start;
+    }
 
-            if (budget.getCurrentSpent() > budget.getLimitAmount()) {
-                notificationService.notifyBudgetExceeded(wallet.getUser().getUsername(), category, budget.getCurrentSpent());
-            }
+    /**
+     * Публикует уведомление, если траты бюджета пересекли порог: 80% лимита или сам лимит.
+     * Расходы, после которых бюджет остался на том же уровне, уведомлений не создают.
+     * Уведомление ставится в очередь {@link NotificationService} после коммита.
+     * @param wallet      кошелек бюджета
+     * @param category    название категории для уведомлений
+     * @param limitAmount лимит бюджета
+     * @param spentBefore траты бюджета до операции
+     * @param spentAfter  траты бюджета после операции
+     */
+    private void checkBudgetLimit(
+            WalletEntity wallet, String category, Money limitAmount, Money spentBefore, Money spentAfter
+    ) {
+        int levelBefore = budgetLevel(spentBefore, limitAmount);
+        int levelAfter = budgetLevel(spentAfter, limitAmount);
+        if (levelAfter <= levelBefore) {
+            return;
+        }
+        String username = wallet.getUser().getUsername();
+        if (levelAfter == 2) {
+            eventPublisher.publishEvent(new NotificationEvent(
+                    NotificationEvent.Type.BUDGET_EXCEEDED, username, category, spentAfter.toDecimal()
+            ));
+        } else {
+            eventPublisher.publishEvent(new NotificationEvent(
+                    NotificationEvent.Type.BUDGET_WARNING, username, category, spentAfter.percentOf(limitAmount)
+            ));
+        }
+    }
 
-            // Уведомление при 80% лимита
-            double usagePercentage = (budget.getCurrentSpent() / budget.getLimitAmount()) * 100;
-            if (usagePercentage >= 80 && usagePercentage < 100) {
-                notificationService.notifyBudgetWarning(wallet.getUser().getUsername(), category, usagePercentage);
-            }
+    /**
+     * Уровень бюджета: 0 - меньше 80% лимита, 1 - от 80% до лимита, 2 - лимит превышен
+     */
+    private static int budgetLevel(Money spent, Money limitAmount) {
+        if (spent.compareTo(limitAmount) > 0) {
+            return 2;
         }
+        long spentPercentMinor = Math.multiplyExact(spent.minorUnits(), 100);
+        return spentPercentMinor >= Math.multiplyExact(limitAmount.minorUnits(), BUDGET_WARNING_PERCENT) ? 1 : 0;
     }
 
     /**
@@ -126,21 +419,79 @@ public class FinanceService {
      * @return BudgetResponseDto с данными созданного или обновленного бюджета
      */
     public BudgetResponseDto setBudget(UUID walletId, String category, Double limitAmount) {
-        BudgetEntity savedBudget = setSingleBudget(walletId, category, limitAmount);
-        return BudgetMapper.toDto(savedBudget);
+        return setBudget(walletId, category, limitAmount, null, null);
+    }
+
+    /**
+     * Устанавливает или обновляет бюджетное ограничение с периодом.
+     * При смене периода текущий период начинается с периода, в который попадает сегодняшняя дата,
+     * накопленные траты сохраняются до ближайшего перехода на следующий период.
+     * @param walletId уникальный идентификатор кошелька для установки бюджета
+     * @param category категория расходов для которой устанавливается бюджет
+     * @param limitAmount максимально допустимая сумма расходов в категории
+     * @param period период бюджета (null - не менять период, для нового бюджета - бессрочный)
+     * @param periodDays длина произвольного периода в днях
+     * @return BudgetResponseDto с данными созданного или обновленного бюджета
+     */
+    public BudgetResponseDto setBudget(
+            UUID walletId, String category, Double limitAmount, BudgetPeriod period, Integer periodDays
+    ) {
+        BudgetEntity savedBudget = setSingleBudget(walletId, category, limitAmount, period, periodDays);
+        eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+        return BudgetMapper.toDto(savedBudget, category);
     }
 
     /**
      * Устанавливает или обновляет бюджетные ограничения для нескольких категорий расходов.
+     * Кошелек читается один раз, существующие бюджеты запрошенных категорий - одним запросом,
+     * изменения объединяются в памяти и сохраняются одним вызовом saveAll (JDBC-пакетами),
+     * поэтому количество запросов не зависит от количества бюджетов.
+     * Если категория повторяется, действует последний запрос.
      * @param walletId уникальный идентификатор кошелька для установки бюджетов
      * @param requests список DTO с данными бюджетов для установки
      * @return List<BudgetResponseDto> список DTO с данными всех созданных или обновленных бюджетов
      */
     public List<BudgetResponseDto> setBudgets(UUID walletId, List<BudgetRequestDto> requests) {
-        return requests.stream()
-                .map(request -> setSingleBudget(walletId, request.getCategory(), request.getLimitAmount()))
-                .map(BudgetMapper::toDto)
-                .collect(Collectors.toList());
+        requests.forEach(request -> {
+            requireAmount(request.getLimitAmount());
+            validatePeriod(request.getPeriod(), request.getPeriodDays());
+        });
+        WalletEntity wallet = walletRepository.findById(walletId).orElseThrow(
+                () -> new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден")
+        );
+        List<Integer> categoryIds = requests.stream()
+                .map(request -> categoryDictionary.idOf(request.getCategory()))
+                .toList();
+
+        Map<Integer, BudgetEntity> budgets = new LinkedHashMap<>();
+        if (!categoryIds.isEmpty()) {
+            for (BudgetEntity budget : budgetRepository.findByWalletAndCategoryIdIn(wallet, new HashSet<>(categoryIds))) {
+                budgets.put(budget.getCategoryId(), budget);
+            }
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            BudgetRequestDto request = requests.get(i);
+            Money limit = Money.of(request.getLimitAmount());
+            BudgetEntity budget = budgets.computeIfAbsent(
+                    categoryIds.get(i), categoryId -> BudgetMapper.toEntity(categoryId, limit, wallet)
+            );
+            budget.setLimitAmount(limit);
+            if (request.getPeriod() != null) {
+                applyPeriod(budget, request.getPeriod(), request.getPeriodDays());
+            }
+        }
+        // Новые бюджеты сохраняются через persist, поэтому экземпляры в budgets получают id
+        budgetRepository.saveAll(budgets.values());
+
+        for (BudgetEntity budget : budgets.values()) {
+            eventPublisher.publishEvent(budgetChanged(walletId, budget));
+        }
+        eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+        List<BudgetResponseDto> responses = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            responses.add(BudgetMapper.toDto(budgets.get(categoryIds.get(i)), requests.get(i).getCategory()));
+        }
+        return responses;
     }
 
     /**
@@ -148,20 +499,61 @@ public class FinanceService {
      * @param walletId уникальный идентификатор кошелька
      * @param category категория расходов для бюджета
      * @param limitAmount максимальный лимит расходов для категории
+     * @param period период бюджета (null - не менять период)
+     * @param periodDays длина произвольного периода в днях
      * @return BudgetEntity сохраненная сущность бюджета с установленным лимитом
      */
-    private BudgetEntity setSingleBudget(UUID walletId, String category, Double limitAmount) {
+    private BudgetEntity setSingleBudget(
+            UUID walletId, String category, Double limitAmount, BudgetPeriod period, Integer periodDays
+    ) {
+        requireAmount(limitAmount);
+        validatePeriod(period, periodDays);
+        Money limit = Money.of(limitAmount);
         WalletEntity wallet = walletRepository.findById(walletId).orElseThrow(
                 () -> new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден")
         );
-        Optional<BudgetEntity> existingBudget = budgetRepository.findByWalletAndCategory(wallet, category);
+        int categoryId = categoryDictionary.idOf(category);
+        Optional<BudgetEntity> existingBudget = budgetRepository.findByWalletAndCategoryId(wallet, categoryId);
 
         BudgetEntity budget = existingBudget.isPresent()
                 ? existingBudget.get()      // Если существует бюджет, то обновляем
-                : BudgetMapper.toEntity(category, limitAmount, wallet); // Если не существует, то создаем
+                : BudgetMapper.toEntity(categoryId, limit, wallet); // Если не существует, то создаем
 
-        budget.setLimitAmount(limitAmount);
-        return budgetRepository.save(budget);
+        budget.setLimitAmount(limit);
+        if (period != null) {
+            applyPeriod(budget, period, periodDays);
+        }
+        BudgetEntity savedBudget = budgetRepository.save(budget);
+        eventPublisher.publishEvent(budgetChanged(walletId, savedBudget));
+        return savedBudget;
+    }
+
+    private static BudgetChangedEvent budgetChanged(UUID walletId, BudgetEntity budget) {
+        return new BudgetChangedEvent(
+                walletId, budget.getCategoryId(), budget.getLimitAmount(), budget.getPeriod(),
+                budget.getPeriodDays(), budget.getPeriodStart(), budget.getPeriodEnd()
+        );
+    }
+
+    private static void validatePeriod(BudgetPeriod period, Integer periodDays) {
+        if (period == BudgetPeriod.CUSTOM && (periodDays == null || periodDays <= 0)) {
+            throw new InvalidBudgetPeriodException("Для произвольного периода нужна положительная длина в днях");
+        }
+    }
+
+    /**
+     * Устанавливает период бюджета. Если период и длина не изменились, текущий период сохраняется.
+     */
+    private static void applyPeriod(BudgetEntity budget, BudgetPeriod period, Integer periodDays) {
+        Integer days = period == BudgetPeriod.CUSTOM ? periodDays : null;
+        if (period == budget.getPeriod() && Objects.equals(days, budget.getPeriodDays())) {
+            return;
+        }
+        LocalDate start = period.startOf(LocalDate.now());
+        budget.setPeriod(period);
+        budget.setPeriodDays(days);
+        budget.setPeriodStart(start);
+        budget.setPeriodEnd(start == null ? null : period.endOf(start, days));
     }
 
     /**
@@ -174,12 +566,16 @@ public class FinanceService {
                 () -> new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден")
         );
 
-        BudgetEntity budget = budgetRepository.findByWalletAndCategory(wallet, category)
+        Integer categoryId = categoryDictionary.findId(category);
+        BudgetEntity budget = Optional.ofNullable(categoryId)
+                .flatMap(id -> budgetRepository.findByWalletAndCategoryId(wallet, id))
                 .orElseThrow(() -> new RuntimeException(
                         "Бюджет для категории '" + category + "' не найден"
                 ));
 
         budgetRepository.delete(budget);
+        eventPublisher.publishEvent(new BudgetChangedEvent(walletId, categoryId, null, null, null, null, null));
+        eventPublisher.publishEvent(new WalletChangedEvent(walletId));
         log.info("Бюджет для категории '{}' удален из кошелька {}", category, walletId);
     }
 
@@ -194,80 +590,182 @@ public class FinanceService {
     public StatisticsResponseDto getStatistics(
             UUID walletId, List<String> categories, LocalDateTime startDate, LocalDateTime endDate
     ) {
-        WalletEntity wallet = walletRepository.findById(walletId).orElseThrow(
+        StatisticsCacheKey cacheKey = StatisticsCacheKey.of(walletId, categories, startDate, endDate);
+        StatisticsResponseDto cached = statisticsCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        // Поколение фиксируется до чтения данных, чтобы не закэшировать результат, устаревший из-за параллельной записи
+        long cacheGeneration = statisticsCache.generation();
+
+        walletRepository.findById(walletId).orElseThrow(
                 () -> new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден")
         );
-        List<TransactionEntity> transactions = wallet.getTransactions();
-
-        // Фильтрация транзакций по дате для общей статистики и расчета сумм
-        if (startDate != null && endDate != null) {
-            transactions = transactions.stream()
-                    .filter(t -> !t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate))
-                    .collect(Collectors.toList());
-        }
-        // Фильтрация транзакций по категориям для общей статистики и расчета сумм
-        if (categories != null && !categories.isEmpty()) {
-            transactions = transactions.stream()
-                    .filter(t -> categories.contains(t.getCategory()))
-                    .collect(Collectors.toList());
-        }
-        // Расчет общей статистики на основе отфильтрованных транзакций
-        double totalIncome = calculateTotalIncome(transactions);
-        double totalExpense = calculateTotalExpense(transactions);
-        double balance = totalIncome - totalExpense;
-        // Статистика по категориям на основе отфильтрованных транзакций
-        Map<String, Double> incomeByCategory = calculateIncomeByCategory(transactions);
-        Map<String, Double> expenseByCategory = calculateExpenseByCategory(transactions);
+        // Фильтр по датам применяется только при заданных обеих границах периода
+        boolean filterByPeriod = startDate != null && endDate != null;
+        LocalDateTime periodStart = filterByPeriod ? startDate : null;
+        LocalDateTime periodEnd = filterByPeriod ? endDate : null;
+        // Дальше категории сравниваются только по id
+        Set<Integer> categoryIds = categoryDictionary.findIds(categories);
+
+        StatisticsAggregator aggregator;
+        if (columnarStore.isEnabled()) {
+            // Один проход по примитивным колонкам кошелька в памяти
+            aggregator = columnarStore.aggregate(walletId, categoryIds, periodStart, periodEnd);
+        } else {
+            // Суммы по (тип, категория) из дневных агрегатов, сырые транзакции читаются только для неполных дней
+            List<CategoryTotalDto> totals = rollupService.sumByTypeAndCategory(walletId, categoryIds, periodStart, periodEnd);
+
+            // Общие суммы, суммы по категориям и признаки расходов по категориям - за один проход
+            aggregator = new StatisticsAggregator();
+            for (CategoryTotalDto total : totals) {
+                aggregator.add(total);
+            }
+        }
         // Расчет статуса бюджетов с дополнительной фильтрацией для отображения
         Map<String, StatisticsResponseDto.BudgetStatus> budgetStatus = calculateBudgetStatus(
-                wallet, expenseByCategory, categories,startDate,endDate
+                walletId, aggregator, categoryIds, startDate, endDate
         );
 
-        return StatisticsMapper.toDto(totalIncome,totalExpense,balance,incomeByCategory,expenseByCategory,budgetStatus);
+        StatisticsResponseDto statistics = StatisticsMapper.toDto(
+                aggregator.getTotalIncome(),
+                aggregator.getTotalExpense(),
+                aggregator.getBalance(),
+                aggregator.getIncomeByCategory(categoryDictionary::nameOf),
+                aggregator.getExpenseByCategory(categoryDictionary::nameOf),
+                budgetStatus
+        );
+        statisticsCache.put(cacheKey, statistics, cacheGeneration);
+        return statistics;
     }
 
     /**
-     * Вычисляет общую сумму доходов из списка транзакций
+     * Получает финансовую статистику кошелька, разбитую на интервалы (дни, недели или месяцы).
+     * Все интервалы считаются за один проход по дневным суммам периода, а не отдельным
+     * запросом статистики на каждый интервал.
+     * @param walletId идентификатор кошелька для анализа
+     * @param categories список категорий для фильтрации (опционально)
+     * @param startDate начальная дата периода (опционально)
+     * @param endDate конечная дата периода (опционально)
+     * @param granularity размер интервала
+     * @return StatisticsSeriesResponseDto с интервалами по возрастанию даты
      */
-    private double calculateTotalIncome(List<TransactionEntity> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .mapToDouble(TransactionEntity::getAmount)
-                .sum();
-    }
+    @Transactional(readOnly = true)
+    public StatisticsSeriesResponseDto getStatisticsSeries(
+            UUID walletId,
+            List<String> categories,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            Granularity granularity
+    ) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден");
+        }
+        // Как и в getStatistics, фильтр по датам применяется только при заданных обеих границах
+        boolean filterByPeriod = startDate != null && endDate != null;
+        if (filterByPeriod && startDate.isAfter(endDate)) {
+            throw new InvalidPeriodException("Начало периода позже его окончания");
+        }
+        List<DailyCategoryTotalDto> days = rollupService.sumByDayTypeAndCategory(
+                walletId, categoryDictionary.findIds(categories),
+                filterByPeriod ? startDate : null, filterByPeriod ? endDate : null
+        );
 
-    /**
-     * Вычисляет общую сумму расходов из списка транзакций
-     */
-    private double calculateTotalExpense(List<TransactionEntity> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .mapToDouble(TransactionEntity::getAmount)
-                .sum();
-    }
+        TreeMap<LocalDate, StatisticsAggregator> aggregators = new TreeMap<>();
+        for (DailyCategoryTotalDto day : days) {
+            aggregators.computeIfAbsent(granularity.bucketStart(day.getDate()), start -> new StatisticsAggregator())
+                    .add(day.getType(), day.getCategoryId(), day.getTotal(), day.getCount());
+        }
 
-    /**
-     * Группирует доходы по категориям
-     */
-    private Map<String, Double> calculateIncomeByCategory(List<TransactionEntity> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.INCOME)
-                .collect(Collectors.groupingBy(
-                        TransactionEntity::getCategory,
-                        Collectors.summingDouble(TransactionEntity::getAmount)
-                ));
+        List<StatisticsSeriesResponseDto.Bucket> buckets = new ArrayList<>();
+        if (filterByPeriod || !aggregators.isEmpty()) {
+            LocalDate first = granularity.bucketStart(filterByPeriod ? startDate.toLocalDate() : aggregators.firstKey());
+            LocalDate last = granularity.bucketStart(filterByPeriod ? endDate.toLocalDate() : aggregators.lastKey());
+            // Пустые интервалы тоже возвращаются, чтобы серия была непрерывной
+            for (LocalDate start = first; !start.isAfter(last); start = granularity.nextBucketStart(start)) {
+                if (buckets.size() == MAX_SERIES_BUCKETS) {
+                    throw new InvalidPeriodException(
+                            "Период содержит больше " + MAX_SERIES_BUCKETS + " интервалов, выберите интервал крупнее"
+                    );
+                }
+                StatisticsAggregator aggregator = aggregators.getOrDefault(start, EMPTY_BUCKET);
+                buckets.add(StatisticsSeriesResponseDto.Bucket.builder()
+                        .periodStart(start)
+                        .periodEnd(granularity.nextBucketStart(start).minusDays(1))
+                        .totalIncome(aggregator.getTotalIncome())
+                        .totalExpense(aggregator.getTotalExpense())
+                        .balance(aggregator.getBalance())
+                        .incomeByCategory(aggregator.getIncomeByCategory(categoryDictionary::nameOf))
+                        .expenseByCategory(aggregator.getExpenseByCategory(categoryDictionary::nameOf))
+                        .build());
+            }
+        }
+        return StatisticsSeriesResponseDto.builder()
+                .granularity(granularity)
+                .buckets(buckets)
+                .build();
     }
 
     /**
-     * Группирует расходы по категориям
+     * Возвращает страницу истории транзакций кошелька от новых к старым.
+     * Пагинация по курсору (дата, id): следующая страница начинается сразу после последней
+     * выданной транзакции, поэтому время ответа не зависит от номера страницы.
+     * @param walletId идентификатор кошелька
+     * @param startDate начало периода включительно (опционально)
+     * @param endDate конец периода включительно (опционально)
+     * @param type фильтр по типу транзакции (опционально)
+     * @param category фильтр по категории (опционально)
+     * @param cursor курсор из предыдущей страницы (null = первая страница)
+     * @param size размер страницы (ограничивается диапазоном 1..MAX_PAGE_SIZE)
+     * @return TransactionPageResponseDto с транзакциями страницы и курсором следующей страницы
      */
-    private Map<String, Double> calculateExpenseByCategory(List<TransactionEntity> transactions) {
-        return transactions.stream()
-                .filter(t -> t.getType() == TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        TransactionEntity::getCategory,
-                        Collectors.summingDouble(TransactionEntity::getAmount)
-                ));
+    @Transactional(readOnly = true)
+    public TransactionPageResponseDto getTransactions(
+            UUID walletId,
+            LocalDateTime startDate,
+            LocalDateTime endDate,
+            TransactionType type,
+            String category,
+            String cursor,
+            int size
+    ) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Запрашиваем на одну запись больше, чтобы узнать, есть ли следующая страница
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        LocalDateTime from = startDate != null ? startDate : HISTORY_START;
+        LocalDateTime to = endDate != null ? endDate : HISTORY_END;
+
+        TransactionCursor position = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+        Integer categoryId = null;
+        if (category != null) {
+            categoryId = categoryDictionary.findId(category);
+            if (categoryId == null) {
+                // Категории нет в словаре - транзакций с ней тоже нет
+                return TransactionPageResponseDto.builder().items(List.of()).hasMore(false).build();
+            }
+        }
+        // Курсор позже конца периода (период сузили между запросами) равносилен первой странице
+        List<TransactionEntity> page = position == null || position.date().isAfter(to)
+                ? transactionRepository.findFirstPage(walletId, from, to, type, categoryId, limit)
+                : transactionRepository.findPageAfter(walletId, from, position.date(), position.id(), type, categoryId, limit);
+
+        boolean hasMore = page.size() > pageSize;
+        List<TransactionEntity> items = hasMore ? page.subList(0, pageSize) : page;
+        String nextCursor = null;
+        if (hasMore) {
+            TransactionEntity last = items.get(items.size() - 1);
+            nextCursor = new TransactionCursor(last.getDate(), last.getId()).encode();
+        }
+        return TransactionPageResponseDto.builder()
+                .items(items.stream()
+                        .map(item -> TransactionMapper.toHistoryDto(item, categoryDictionary.nameOf(item.getCategoryId())))
+                        .collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
@@ -276,86 +774,139 @@ public class FinanceService {
      * - Если указаны категории: показываем только бюджеты запрошенных категорий
      * - Если указан период: показываем только бюджеты, у которых были транзакции в указанный период
      * - Расчёт потраченной суммы (currentSpent) всегда учитывает применённые фильтры (даты/категории)
+     * - Если период не указан, для периодического бюджета учитываются только траты его текущего периода
+     *
+     * Бюджеты берутся из индекса бюджетов, траты текущего периода периодических бюджетов
+     * читаются одним запросом, только если такие бюджеты есть.
      *
-     * @param wallet кошелек для анализа бюджетов
-     * @param expenseByCategory мапа расходов по категориям (уже отфильтрованная по периоду и категориям)
-     * @param categories список категорий для фильтрации бюджетов (null = все категории)
+     * @param walletId идентификатор кошелька для анализа бюджетов
+     * @param aggregator агрегированная статистика (уже отфильтрованная по периоду и категориям)
+     * @param categoryIds id категорий для фильтрации бюджетов (null = все категории)
      * @param startDate начальная дата периода для фильтрации бюджетов (null = без фильтра по дате)
      * @param endDate конечная дата периода для фильтрации бюджетов (null = без фильтра по дате)
      * @return Map<String, StatisticsResponseDto.BudgetStatus> статусов бюджетов, отфильтрованная по указанным категориям и периоду
      */
     private Map<String, StatisticsResponseDto.BudgetStatus> calculateBudgetStatus(
-            WalletEntity wallet,
-            Map<String, Double> expenseByCategory,
-            List<String> categories,
+            UUID walletId,
+            StatisticsAggregator aggregator,
+            Set<Integer> categoryIds,
             LocalDateTime startDate,
             LocalDateTime endDate
     ) {
         Map<String, StatisticsResponseDto.BudgetStatus> budgetStatus = new HashMap<>();
+        boolean filterByPeriod = startDate != null && endDate != null;
+        Map<Integer, Money> currentSpent = null;
 
-        for (BudgetEntity budget : wallet.getBudgets()) {
-            String category = budget.getCategory();
+        for (BudgetLimitDto budget : budgetIndex.budgets(walletId).values()) {
+            int categoryId = budget.getCategoryId();
             // фильтруем БЮДЖЕТЫ по запрошенным категориям
-            if (categories != null && !categories.isEmpty() && !categories.contains(category)) {
+            if (categoryIds != null && !categoryIds.contains(categoryId)) {
                 continue;
             }
             // фильтруем БЮДЖЕТЫ по запрошенным периодам
-            if (startDate != null && endDate != null) {
-                boolean hasTransactionsInPeriod = wallet.getTransactions().stream()
-                        .filter(t -> t.getType() == TransactionType.EXPENSE)
-                        .filter(t -> category.equals(t.getCategory()))
-                        .anyMatch(t -> !t.getDate().isBefore(startDate) && !t.getDate().isAfter(endDate));
+            if (filterByPeriod) {
+                // агрегатор уже ограничен периодом, поэтому достаточно признака расходов в категории
+                boolean hasTransactionsInPeriod = aggregator.hasExpense(categoryId);
                 if (!hasTransactionsInPeriod) {
                     continue;
                 }
             }
-            double spent = expenseByCategory.getOrDefault(category, 0.0);
-            double remaining = budget.getLimitAmount() - spent;
-            double usagePercentage = budget.getLimitAmount() > 0 ? (spent / budget.getLimitAmount()) * 100 : 0;
-            boolean exceeded = remaining < 0;
+            Money spent;
+            if (!filterByPeriod && budget.getPeriodEnd() != null) {
+                // без периода запроса траты периодического бюджета считаются только за его текущий период
+                if (currentSpent == null) {
+                    currentSpent = loadCurrentSpent(walletId);
+                }
+                spent = currentSpent.getOrDefault(categoryId, Money.ZERO);
+            } else {
+                spent = aggregator.getExpense(categoryId);
+            }
+            Money limit = budget.getLimitAmount();
+            Money remaining = limit.minus(spent);
+            BigDecimal usagePercentage = limit.minorUnits() > 0 ? spent.percentOf(limit) : BigDecimal.ZERO;
 
             StatisticsResponseDto.BudgetStatus status = StatisticsResponseDto.BudgetStatus.builder()
-                    .limitAmount(budget.getLimitAmount())
+                    .limitAmount(limit)
                     .currentSpent(spent)
                     .remaining(remaining)
-                    .exceeded(exceeded)
-                    .usagePercentage(Math.round(usagePercentage * 100.0) / 100.0)
+                    .exceeded(remaining.isNegative())
+                    .usagePercentage(usagePercentage)
                     .build();
 
-            budgetStatus.put(category, status);
+            budgetStatus.put(categoryDictionary.nameOf(categoryId), status);
         }
         return budgetStatus;
     }
 
     /**
-     * Создает транзакции: EXPENSE у отправителя и INCOME у получателя
+     * Траты текущего периода периодических бюджетов кошелька по id категории.
+     * Бюджеты с закончившимся, но еще не обнуленным периодом не возвращаются (траты равны нулю).
+     */
+    private Map<Integer, Money> loadCurrentSpent(UUID walletId) {
+        Map<Integer, Money> spent = new HashMap<>();
+        for (BudgetCurrentSpentDto budget : budgetRepository.findCurrentSpentByWalletId(walletId, LocalDate.now())) {
+            spent.put(budget.getCategoryId(), budget.getCurrentSpent());
+        }
+        return spent;
+    }
+
+    /**
+     * Создает транзакции: EXPENSE у отправителя и INCOME у получателя.
+     * Оба кошелька находятся одним запросом, балансы меняются условными UPDATE в порядке возрастания
+     * id кошелька. Блокировки строк кошельков всегда берутся в одном порядке, поэтому встречные
+     * переводы (A→B и B→A) не могут взаимно заблокироваться. Обе транзакции записываются одним пакетом.
      * @param fromUsername логин пользователя-отправителя
      * @param toUsername логин пользователя-получателя
      * @param amount сумма перевода
      * @param description описание операции
      */
     public void transfer(String fromUsername, String toUsername, Double amount, String description) {
-        UserAuthDto fromUser = userRepository.findByUsername(fromUsername).orElseThrow(
-                () -> new UserNotFoundException("Sender with name " + fromUsername + " not found")
-        );
-        UserAuthDto toUser = userRepository.findByUsername(toUsername).orElseThrow(
-                () -> new UserNotFoundException("Recipient with name " + toUsername + " not found")
-        );
+        requireAmount(amount);
+        Money money = Money.of(amount);
+        Map<String, UUID> walletIds = new HashMap<>();
+        walletRepository.findByUsernames(List.of(fromUsername, toUsername))
+                .forEach(user -> walletIds.put(user.getUsername(), user.getWalletId()));
+        UUID fromWalletId = walletIds.get(fromUsername);
+        if (fromWalletId == null) {
+            throw new UserNotFoundException("Sender with name " + fromUsername + " not found");
+        }
+        UUID toWalletId = walletIds.get(toUsername);
+        if (toWalletId == null) {
+            throw new UserNotFoundException("Recipient with name " + toUsername + " not found");
+        }
 
-        if (fromUser.getWallet().getBalance() < amount) {
-            throw new InsufficientFundsException("Недостаточно средств");
+        // Канонический порядок блокировок: по id кошелька, для одного кошелька сначала списание
+        if (fromWalletId.compareTo(toWalletId) <= 0) {
+            applyBalanceDelta(fromWalletId, money.negate());
+            applyBalanceDelta(toWalletId, money);
+        } else {
+            applyBalanceDelta(toWalletId, money);
+            applyBalanceDelta(fromWalletId, money.negate());
         }
 
-        // Списание у отправителя
-        addTransaction(
-                fromUser.getWallet().getId(),
-                TransferMapper.toDto(TransactionType.EXPENSE, amount, "Transfer", description + " to " + toUsername)
-        );
-        // Зачисление получателю
-        addTransaction(
-                toUser.getWallet().getId(),
-                TransferMapper.toDto(TransactionType.INCOME, amount, "Transfer", description + " from " + fromUsername)
+        TransactionRequestDto expenseRequest =
+                TransferMapper.toDto(TransactionType.EXPENSE, amount, "Transfer", description + " to " + toUsername);
+        TransactionRequestDto incomeRequest =
+                TransferMapper.toDto(TransactionType.INCOME, amount, "Transfer", description + " from " + fromUsername);
+        int categoryId = categoryDictionary.idOf("Transfer");
+        WalletEntity fromWallet = walletRepository.getReferenceById(fromWalletId);
+        updateBudgetAndCheckLimit(fromWallet, categoryId, "Transfer", Map.of(LocalDate.now(), money));
+
+        List<TransactionEntity> transactions = List.of(
+                TransactionMapper.toEntity(fromWallet, expenseRequest, categoryId),
+                TransactionMapper.toEntity(walletRepository.getReferenceById(toWalletId), incomeRequest, categoryId)
         );
+        transactionRepository.saveAll(transactions);
+        for (TransactionEntity transaction : transactions) {
+            UUID walletId = transaction.getWallet().getId();
+            rollupService.record(transaction);
+            eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+            eventPublisher.publishEvent(new TransactionAddedEvent(
+                    walletId, transaction.getId(), transaction.getDate(), transaction.getType(),
+                    categoryId, transaction.getAmount()
+            ));
+        }
+        log.info("Перевод {} -> {} на сумму {}", fromUsername, toUsername, money);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.promoit.finance.finance_manager.domain.entity.IdempotencyKeyEntity;
+import com.promoit.finance.finance_manager.domain.exception.idempotency.IdempotencyKeyMismatchException;
+import com.promoit.finance.finance_manager.domain.exception.idempotency.InvalidIdempotencyKeyException;
+import com.promoit.finance.finance_manager.domain.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Идемпотентное выполнение операций по ключу из заголовка Idempotency-Key.
+ * Операция и сохранение ключа с ответом выполняются в одной транзакции БД, поэтому
+ * ответ сохраняется тогда и только тогда, когда операция применена. Повтор запроса с тем же
+ * ключом возвращает сохраненный ответ, не обращаясь к кошельку. Недавние ключи дополнительно
+ * хранятся в ограниченном LRU-кэше в памяти, а параллельные запросы с одним ключом объединяются:
+ * операцию выполняет первый, остальные дожидаются его результата. Если первый запрос не применен
+ * (ошибка или откат транзакции), ожидающие выполняют операцию заново.
+ * Вместе с ключом сохраняется хэш содержимого запроса: повтор ключа для другой операции
+ * или с другим содержимым отклоняется ошибкой, а не возвращает чужой ответ.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    /**
+     * Максимальная длина ключа (размер колонки)
+     */
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    /**
+     * Сериализация запроса для хэша: ключи карт упорядочены, чтобы одинаковые запросы давали один хэш
+     */
+    private final ObjectWriter requestWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCacheSize;
+    private final Duration ttl;
+    private final int purgeBatchSize;
+
+    private final LinkedHashMap<String, IdempotencyKeyEntity> recent = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(
+            IdempotencyKeyRepository idempotencyKeyRepository,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            @Value("${finance.idempotency.cache-size:10000}") int maxCacheSize,
+            @Value("${finance.idempotency.ttl:24h}") Duration ttl,
+            @Value("${finance.idempotency.purge-batch-size:1000}") int purgeBatchSize
+    ) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.requestWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.transactionTemplate = transactionTemplate;
+        this.maxCacheSize = maxCacheSize;
+        this.ttl = ttl;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Выполняет операцию не более одного раза для ключа.
+     * @param key значение Idempotency-Key (null или пустое - операция выполняется без идемпотентности)
+     * @param operation операция, к которой привязан ключ; тот же ключ для другой операции отклоняется
+     * @param request содержимое запроса; тот же ключ с другим содержимым отклоняется
+     * @param responseType тип ответа операции (Void.class для операций без ответа)
+     * @param action операция; должна присоединяться к текущей транзакции
+     * @return ответ операции: новый или сохраненный при первом выполнении
+     */
+    public <T> T execute(String key, String operation, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("Длина Idempotency-Key не должна превышать " + MAX_KEY_LENGTH + " символов");
+        }
+        Call call = new Call(operation, hash(request));
+        while (true) {
+            IdempotencyKeyEntity cached = cached(key);
+            if (cached != null) {
+                return replay(cached, call, responseType);
+            }
+            InFlight own = new InFlight(Thread.currentThread(), new CompletableFuture<>());
+            InFlight running = inFlight.putIfAbsent(key, own);
+            if (running == null) {
+                return executeOnce(key, own, call, responseType, action);
+            }
+            if (running.owner() == Thread.currentThread()) {
+                // Ключ выполняется в той же (групповой) транзакции этого потока - ее запись видна через БД
+                return executeOnce(key, null, call, responseType, action);
+            }
+            // Запрос с этим ключом уже выполняется - ждем его результат вместо повторного выполнения
+            IdempotencyKeyEntity completed = await(running.result());
+            if (completed != null) {
+                return replay(completed, call, responseType);
+            }
+            // Первый запрос не был применен - пробуем выполнить операцию заново
+        }
+    }
+
+    private <T> T executeOnce(String key, InFlight own, Call call, Class<T> responseType, Supplier<T> action) {
+        try {
+            IdempotencyKeyEntity stored = idempotencyKeyRepository.findById(key)
+                    .filter(saved -> !isExpired(saved))
+                    .orElse(null);
+            if (stored != null) {
+                publish(key, own, stored);
+                return replay(stored, call, responseType);
+            }
+            Execution<T> execution = transactionTemplate.execute(status -> {
+                T response = action.get();
+                IdempotencyKeyEntity saved = IdempotencyKeyEntity.builder()
+                        .idempotencyKey(key)
+                        .operation(call.operation())
+                        .requestHash(call.requestHash())
+                        .response(toJson(response))
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                // save, а не persist: просроченный, но еще не удаленный ключ перезаписывается
+                idempotencyKeyRepository.save(saved);
+                return new Execution<>(response, saved);
+            });
+            publish(key, own, execution.saved());
+            return execution.response();
+        } catch (RuntimeException e) {
+            release(key, own, null);
+            throw e;
+        }
+    }
+
+    /**
+     * Удаляет просроченные ключи порциями, каждая порция - в отдельной транзакции.
+     * @return количество удаленных ключей
+     */
+    @Scheduled(
+            initialDelayString = "${finance.idempotency.purge-interval:10m}",
+            fixedDelayString = "${finance.idempotency.purge-interval:10m}"
+    )
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(ttl);
+        int purged = 0;
+        List<String> batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<String> keys = idempotencyKeyRepository.findExpiredKeys(cutoff, PageRequest.of(0, purgeBatchSize));
+                idempotencyKeyRepository.deleteAllByIdInBatch(keys);
+                return keys;
+            });
+            purged += batch.size();
+        } while (batch.size() == purgeBatchSize);
+
+        synchronized (this) {
+            recent.values().removeIf(this::isExpired);
+        }
+        if (purged > 0) {
+            log.info("Удалено просроченных ключей идемпотентности: {}", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Делает ключ видимым для повторов. Если операция выполнялась внутри внешней транзакции
+     * (групповой коммит полосы записи), ключ публикуется только после ее фиксации:
+     * при откате операция не применена и не должна отвечать повторам из кэша.
+     */
+    private void publish(String key, InFlight own, IdempotencyKeyEntity saved) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(key, own, saved);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release(key, own, status == STATUS_COMMITTED ? saved : null);
+            }
+        });
+    }
+
+    /**
+     * Завершает выполнение ключа: ожидающие запросы получают сохраненный ключ
+     * или null, если операция не применена и ее нужно выполнить заново
+     */
+    private void release(String key, InFlight own, IdempotencyKeyEntity saved) {
+        if (saved != null) {
+            remember(saved);
+        }
+        if (own != null) {
+            inFlight.remove(key, own);
+            own.result().complete(saved);
+        }
+    }
+
+    private synchronized IdempotencyKeyEntity cached(String key) {
+        IdempotencyKeyEntity saved = recent.get(key);
+        if (saved != null && isExpired(saved)) {
+            recent.remove(key);
+            return null;
+        }
+        return saved;
+    }
+
+    private synchronized void remember(IdempotencyKeyEntity saved) {
+        if (maxCacheSize <= 0) {
+            return;
+        }
+        recent.put(saved.getIdempotencyKey(), saved);
+        Iterator<IdempotencyKeyEntity> eldest = recent.values().iterator();
+        while (recent.size() > maxCacheSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private boolean isExpired(IdempotencyKeyEntity saved) {
+        return saved.getCreatedAt().isBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private IdempotencyKeyEntity await(CompletableFuture<IdempotencyKeyEntity> running) {
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание запроса с тем же Idempotency-Key прервано", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private <T> T replay(IdempotencyKeyEntity saved, Call call, Class<T> responseType) {
+        if (!saved.getOperation().equals(call.operation())) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key '" + saved.getIdempotencyKey() + "' уже использован для другой операции"
+            );
+        }
+        if (!Objects.equals(saved.getRequestHash(), call.requestHash())) {
+            throw new IdempotencyKeyMismatchException(
+                    "Idempotency-Key '" + saved.getIdempotencyKey() + "' уже использован для запроса с другими параметрами"
+            );
+        }
+        if (saved.getResponse() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(saved.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось прочитать сохраненный ответ ключа " + saved.getIdempotencyKey(), e);
+        }
+    }
+
+    /**
+     * SHA-256 JSON-представления запроса в hex
+     */
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(requestWriter.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать запрос для ключа идемпотентности", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object response) {
+        if (response == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сохранить ответ операции", e);
+        }
+    }
+
+    private record Execution<T>(T response, IdempotencyKeyEntity saved) {
+    }
+
+    /**
+     * Операция и хэш содержимого запроса, с которыми пришел ключ
+     */
+    private record Call(String operation, String requestHash) {
+    }
+
+    /**
+     * Выполняющийся запрос с ключом: поток-владелец и будущий сохраненный ключ
+     */
+    private record InFlight(Thread owner, CompletableFuture<IdempotencyKeyEntity> result) {
+    }
+}
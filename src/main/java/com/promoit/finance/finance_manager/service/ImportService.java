@@ -0,0 +1,333 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.promoit.finance.finance_manager.domain.dto.transaction.BulkTransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.ImportEventDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.exception.transaction.InvalidImportFileException;
+import com.promoit.finance.finance_manager.domain.exception.wallet.WalletNotFoundException;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Сервис импорта банковских выписок в формате CSV.
+ * Файл читается потоком по одной строке, строки проверяются ограничениями {@link TransactionRequestDto}
+ * и добавляются пакетами фиксированного размера (finance.csv-import.chunk-size), каждый пакет -
+ * отдельная транзакция БД через {@link FinanceService#addTransactions}. В памяти держится только
+ * текущий пакет, поэтому расход памяти не зависит от размера файла.
+ */
+@Service
+@Slf4j
+public class ImportService {
+    private final FinanceService financeService;
+    private final WalletLaneExecutor walletLanes;
+    private final WalletRepository walletRepository;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter eventWriter;
+    private final int chunkSize;
+
+    public ImportService(
+            FinanceService financeService,
+            WalletLaneExecutor walletLanes,
+            WalletRepository walletRepository,
+            EntityManager entityManager,
+            Validator validator,
+            ObjectMapper objectMapper,
+            @Value("${finance.csv-import.chunk-size:1000}") int chunkSize
+    ) {
+        if (chunkSize < 1 || chunkSize > FinanceService.MAX_BULK_SIZE) {
+            throw new IllegalArgumentException(
+                    "finance.csv-import.chunk-size должен быть от 1 до " + FinanceService.MAX_BULK_SIZE
+            );
+        }
+        this.financeService = financeService;
+        this.walletLanes = walletLanes;
+        this.walletRepository = walletRepository;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        // Буфер сбрасывается после каждого пакета, а не после каждой строки
+        this.eventWriter = objectMapper.writerFor(ImportEventDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Импортирует выписку в кошелек и возвращает ленту хода импорта в формате NDJSON:
+     * ошибка по каждой отклоненной строке, прогресс после каждого пакета и итог со скоростью импорта.
+     * Заголовок файла обязателен: колонки amount и category, необязательные date, type и description
+     * (порядок любой, лишние колонки пропускаются). Без колонки type тип определяется знаком суммы.
+     * Кошелек и заголовок проверяются до начала ответа, чтобы ошибка вернулась обычным статусом.
+     * Пакеты, записанные до обрыва соединения или ошибки файла, остаются в БД.
+     * @param walletId  идентификатор кошелька
+     * @param input     содержимое файла в кодировке UTF-8
+     * @param delimiter разделитель полей
+     * @return тело ответа, которое выполняет импорт и пишет ленту в выходной поток
+     */
+    public StreamingResponseBody importCsv(UUID walletId, InputStream input, char delimiter) throws IOException {
+        if (!walletRepository.existsById(walletId)) {
+            throw new WalletNotFoundException("Кошелек с ID '" + walletId + "' не найден");
+        }
+        CsvReader reader = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8), delimiter);
+        Columns columns;
+        try {
+            columns = Columns.of(reader.next());
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return outputStream -> {
+            try (reader; JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                // Между JSON-объектами только перевод строки, без разделителя по умолчанию
+                generator.setRootValueSeparator(null);
+                new ImportRun(walletId, columns, reader, generator).run();
+            } catch (IOException e) {
+                // Клиент закрыл соединение или загрузка файла оборвалась: записанные пакеты сохранены
+                log.info("Импорт выписки в кошелек {} прерван: {}", walletId, e.getMessage());
+            }
+        };
+    }
+
+    /**
+     * Преобразует строку файла в запрос на добавление транзакции
+     * @throws IllegalArgumentException если значение не разбирается
+     */
+    private static TransactionRequestDto toRequest(List<String> fields, Columns columns) {
+        String rawAmount = value(fields, columns.amount());
+        Double amount = null;
+        if (rawAmount != null) {
+            try {
+                amount = Double.parseDouble(rawAmount.replace(" ", "").replace("\u00A0", "").replace(',', '.'));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректная сумма: " + rawAmount);
+            }
+            if (!Double.isFinite(amount)) {
+                throw new IllegalArgumentException("Некорректная сумма: " + rawAmount);
+            }
+        }
+
+        String rawType = value(fields, columns.type());
+        TransactionType type;
+        if (rawType != null) {
+            try {
+                type = TransactionType.valueOf(rawType.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Неизвестный тип транзакции: " + rawType);
+            }
+        } else if (amount != null) {
+            // Выписка без колонки типа: списания идут с минусом
+            type = amount < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+            amount = Math.abs(amount);
+        } else {
+            type = null;
+        }
+
+        return TransactionRequestDto.builder()
+                .type(type)
+                .amount(amount)
+                .category(value(fields, columns.category()))
+                .description(value(fields, columns.description()))
+                .date(parseDate(value(fields, columns.date())))
+                .build();
+    }
+
+    /**
+     * Разбирает дату в формате ISO: дата (начало дня) или дата и время
+     */
+    private static LocalDateTime parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректная дата: " + value);
+        }
+    }
+
+    private static String value(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Один запуск импорта: текущий пакет и счетчики
+     */
+    private class ImportRun {
+        private final UUID walletId;
+        private final Columns columns;
+        private final CsvReader reader;
+        private final JsonGenerator generator;
+        private final List<TransactionRequestDto> chunk = new ArrayList<>(chunkSize);
+        private final long[] chunkRows = new long[chunkSize];
+        private final long startedAt = System.nanoTime();
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        ImportRun(UUID walletId, Columns columns, CsvReader reader, JsonGenerator generator) {
+            this.walletId = walletId;
+            this.columns = columns;
+            this.reader = reader;
+            this.generator = generator;
+        }
+
+        void run() throws IOException {
+            try {
+                List<String> fields;
+                while ((fields = reader.next()) != null) {
+                    rows++;
+                    String error = addRow(fields);
+                    if (error != null) {
+                        reject(rows, error);
+                    } else if (chunk.size() == chunkSize) {
+                        commitChunk();
+                    }
+                }
+                commitChunk();
+            } catch (InvalidImportFileException e) {
+                // Остаток файла не читается: записанные пакеты сохранены, текущий не записывается
+                rejected += chunk.size();
+                write(summary(ImportEventDto.Event.FAILED).error(e.getMessage() + " (строка " + rows + ")").build());
+                generator.flush();
+                log.warn("Импорт выписки в кошелек {} остановлен на строке {}: {}", walletId, rows, e.getMessage());
+                return;
+            }
+            ImportEventDto done = summary(ImportEventDto.Event.DONE).build();
+            write(done);
+            generator.flush();
+            log.info("Импорт выписки в кошелек {}: строк {}, добавлено {}, отклонено {}, {} строк/с",
+                    walletId, rows, imported, rejected, done.getRowsPerSecond());
+        }
+
+        /**
+         * Добавляет строку в текущий пакет
+         * @return причина отклонения или null
+         */
+        private String addRow(List<String> fields) {
+            TransactionRequestDto request;
+            try {
+                request = toRequest(fields, columns);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+            List<String> violations = validator.validate(request).stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.toList());
+            if (!violations.isEmpty()) {
+                return String.join("; ", violations);
+            }
+            chunkRows[chunk.size()] = rows;
+            chunk.add(request);
+            return null;
+        }
+
+        /**
+         * Записывает текущий пакет одной транзакцией БД и пишет прогресс
+         */
+        private void commitChunk() throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            // Копия: при включенных полосах пакет выполняется в потоке полосы
+            List<TransactionRequestDto> requests = List.copyOf(chunk);
+            try {
+                BulkTransactionResponseDto result = walletLanes.execute(
+                        walletId, () -> financeService.addTransactions(walletId, requests)
+                );
+                imported += result.getAccepted();
+                for (BulkTransactionResponseDto.Item item : result.getItems()) {
+                    if (!item.getAccepted()) {
+                        reject(chunkRows[item.getIndex()], item.getError());
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Пакет откатился целиком (например, баланс успели уменьшить параллельно)
+                for (int i = 0; i < requests.size(); i++) {
+                    reject(chunkRows[i], e.getMessage());
+                }
+            } finally {
+                chunk.clear();
+                // При открытом контексте персистентности на запрос сущности пакетов копились бы до конца импорта
+                entityManager.clear();
+            }
+            write(summary(ImportEventDto.Event.PROGRESS).build());
+            generator.flush();
+        }
+
+        private void reject(long row, String error) throws IOException {
+            rejected++;
+            write(ImportEventDto.builder().event(ImportEventDto.Event.ERROR).row(row).error(error).build());
+        }
+
+        private ImportEventDto.ImportEventDtoBuilder summary(ImportEventDto.Event event) {
+            long elapsedNanos = Math.max(System.nanoTime() - startedAt, 1);
+            double rowsPerSecond = rows * 1_000_000_000.0 / elapsedNanos;
+            return ImportEventDto.builder()
+                    .event(event)
+                    .rows(rows)
+                    .imported(imported)
+                    .rejected(rejected)
+                    .elapsedMs(elapsedNanos / 1_000_000)
+                    .rowsPerSecond(Math.round(rowsPerSecond * 10) / 10.0);
+        }
+
+        private void write(ImportEventDto event) throws IOException {
+            eventWriter.writeValue(generator, event);
+            generator.writeRaw('\n');
+        }
+    }
+
+    /**
+     * Позиции колонок в файле (-1 - колонки нет)
+     */
+    private record Columns(int date, int type, int amount, int category, int description) {
+
+        static Columns of(List<String> header) {
+            if (header == null) {
+                throw new InvalidImportFileException("Файл пуст: нет строки заголовка");
+            }
+            List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            Columns columns = new Columns(
+                    names.indexOf("date"), names.indexOf("type"), names.indexOf("amount"),
+                    names.indexOf("category"), names.indexOf("description")
+            );
+            if (columns.amount() < 0 || columns.category() < 0) {
+                throw new InvalidImportFileException(
+                        "В заголовке файла нет обязательных колонок amount и category: " + header
+                );
+            }
+            return columns;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.promoit.finance.finance_manager.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Журнал операций только на дозапись: записи фиксированной длины ({@link LedgerRecord#SIZE} байт)
+ * в сегментах-файлах, отображенных в память. Сегмент называется по номеру своей первой записи,
+ * поэтому положение записи вычисляется из ее номера без индекса.
+ * Запись попадает в страничный кэш ОС сразу и переживает падение процесса; на диск сегмент
+ * сбрасывается в {@link #force()} (при снимке состояния и закрытии журнала).
+ * Дозапись не потокобезопасна - вызывающий код пишет в журнал из одного потока или под блокировкой.
+ */
+public final class LedgerJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentFirstSequence;
+    private long nextSequence;
+    private int segments;
+
+    /**
+     * Открывает журнал в каталоге, создавая его при необходимости, и находит конец записанных данных
+     * @param directory каталог сегментов
+     * @param segmentBytes размер одного сегмента в байтах
+     */
+    public LedgerJournal(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.recordsPerSegment = (int) Math.max(1, Math.min(segmentBytes, Integer.MAX_VALUE) / LedgerRecord.SIZE);
+        try {
+            Files.createDirectories(directory);
+            List<Long> firstSequences = segmentFirstSequences();
+            if (firstSequences.isEmpty()) {
+                openSegment(1);
+                segments = 1;
+                nextSequence = 1;
+            } else {
+                segments = firstSequences.size();
+                openSegment(firstSequences.get(firstSequences.size() - 1));
+                nextSequence = segmentFirstSequence + countWritten(segment, segmentFirstSequence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал операций " + directory, e);
+        }
+    }
+
+    /**
+     * Дописывает запись в конец журнала
+     * @param record запись (ее номер игнорируется)
+     * @return присвоенный записи номер
+     */
+    public long append(LedgerRecord record) {
+        int slot = (int) (nextSequence - segmentFirstSequence);
+        if (slot == recordsPerSegment) {
+            openSegment(nextSequence);
+            segments++;
+            slot = 0;
+        }
+        record.write(segment, slot * LedgerRecord.SIZE, nextSequence);
+        return nextSequence++;
+    }
+
+    /**
+     * Последовательно читает записи с номерами больше afterSequence
+     * @param afterSequence номер последней уже примененной записи (0 - читать журнал целиком)
+     * @param consumer обработчик записей
+     * @return количество прочитанных записей
+     */
+    public long replay(long afterSequence, Consumer<LedgerRecord> consumer) {
+        long replayed = 0;
+        try {
+            List<Long> firstSequences = segmentFirstSequences();
+            for (int i = 0; i < firstSequences.size(); i++) {
+                long first = firstSequences.get(i);
+                boolean last = i == firstSequences.size() - 1;
+                if (!last && firstSequences.get(i + 1) <= afterSequence + 1) {
+                    continue; // сегмент целиком входит в уже примененную часть
+                }
+                try (FileChannel readChannel = FileChannel.open(segmentPath(first), StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+                    int slots = (int) (readChannel.size() / LedgerRecord.SIZE);
+                    int slot = (int) Math.max(0, afterSequence + 1 - first);
+                    for (; slot < slots; slot++) {
+                        int offset = slot * LedgerRecord.SIZE;
+                        if (LedgerRecord.sequenceAt(buffer, offset) != first + slot) {
+                            break;
+                        }
+                        consumer.accept(LedgerRecord.read(buffer, offset));
+                        replayed++;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать журнал операций " + directory, e);
+        }
+        return replayed;
+    }
+
+    /**
+     * Номер последней записанной записи (0 - журнал пуст)
+     */
+    public long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public int segmentCount() {
+        return segments;
+    }
+
+    /**
+     * Сбрасывает текущий сегмент на диск
+     */
+    public void force() {
+        segment.force();
+    }
+
+    @Override
+    public void close() {
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось закрыть журнал операций " + directory, e);
+        }
+    }
+
+    private void openSegment(long firstSequence) {
+        try {
+            if (channel != null) {
+                segment.force();
+                channel.close();
+            }
+            channel = FileChannel.open(segmentPath(firstSequence),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * LedgerRecord.SIZE);
+            segmentFirstSequence = firstSequence;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть сегмент журнала " + firstSequence, e);
+        }
+    }
+
+    /**
+     * Количество подряд записанных слотов сегмента: первый слот с неожиданным номером - конец данных
+     */
+    private int countWritten(MappedByteBuffer buffer, long firstSequence) {
+        int slot = 0;
+        while (slot < recordsPerSegment && LedgerRecord.sequenceAt(buffer, slot * LedgerRecord.SIZE) == firstSequence + slot) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private List<Long> segmentFirstSequences() throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(sequences::add);
+        }
+        return sequences;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+}
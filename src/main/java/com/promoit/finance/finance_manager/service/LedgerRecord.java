@@ -0,0 +1,236 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Запись журнала операций фиксированной длины {@link #SIZE} байт.
+ * Общая часть раскладки (смещение: поле): 0: номер записи, 8: вид записи, 12: id категории.
+ * Транзакция: 9: тип транзакции, 16: UUID кошелька, 32: UUID транзакции,
+ * 48: время в микросекундах от эпохи (UTC), 56: сумма в копейках.
+ * Бюджет: 9: период бюджета, 16: UUID кошелька, 32: длина произвольного периода в днях,
+ * 48: начало текущего периода (день от эпохи), 56: лимит в копейках.
+ * Категория: 10: длина части названия в байтах, 16: часть названия в UTF-8 (до {@link #CATEGORY_CHUNK_BYTES} байт),
+ * 48: смещение части в названии (в символах), 56: длина названия (в символах).
+ * Номер записи пишется последним: слот с нулевым или неожиданным номером считается незаписанным.
+ * @param sequence номер записи в журнале (с 1)
+ * @param kind вид записи: {@link #TRANSACTION}, {@link #BUDGET_SET}, {@link #BUDGET_DELETED},
+ *             {@link #BUDGET_RESET} (обнуление трат при переходе бюджета на следующий период)
+ *             или {@link #CATEGORY} (часть определения категории: id в словаре и название)
+ * @param walletId идентификатор кошелька (null для записей категории)
+ * @param transactionId идентификатор транзакции (null для записей бюджета и категории)
+ * @param epochMicros время транзакции в микросекундах от эпохи; для записи категории - смещение части названия
+ * @param type тип транзакции (null для записей бюджета и категории)
+ * @param categoryId id категории в словаре категорий
+ * @param amount сумма транзакции или лимит бюджета в копейках; для записи категории - длина названия
+ * @param period период бюджета (null, если запись не задает период)
+ * @param periodDays длина произвольного периода в днях (0, если не задана)
+ * @param periodStart начало текущего периода бюджета (null для бессрочного бюджета)
+ * @param text часть названия категории (null для остальных записей)
+ */
+public record LedgerRecord(
+        long sequence,
+        byte kind,
+        UUID walletId,
+        UUID transactionId,
+        long epochMicros,
+        TransactionType type,
+        int categoryId,
+        long amount,
+        BudgetPeriod period,
+        int periodDays,
+        LocalDate periodStart,
+        String text
+) {
+    public static final int SIZE = 64;
+
+    public static final byte TRANSACTION = 1;
+    public static final byte BUDGET_SET = 2;
+    public static final byte BUDGET_DELETED = 3;
+    public static final byte BUDGET_RESET = 4;
+    public static final byte CATEGORY = 5;
+
+    static final int CATEGORY_CHUNK_BYTES = 32;
+
+    private static final long MICROS_PER_DAY = 86_400_000_000L;
+
+    private static final byte NO_TYPE = 0;
+    private static final byte INCOME = 1;
+    private static final byte EXPENSE = 2;
+    private static final byte NO_PERIOD = 0;
+
+    public LedgerRecord(
+            long sequence, byte kind, UUID walletId, UUID transactionId,
+            long epochMicros, TransactionType type, int categoryId, long amount
+    ) {
+        this(sequence, kind, walletId, transactionId, epochMicros, type, categoryId, amount, null, 0, null, null);
+    }
+
+    public static LedgerRecord transaction(
+            UUID walletId, UUID transactionId, long epochMicros, TransactionType type, int categoryId, Money amount
+    ) {
+        return new LedgerRecord(0, TRANSACTION, walletId, transactionId, epochMicros, type, categoryId, amount.minorUnits());
+    }
+
+    /**
+     * Установка бюджета
+     * @param period период бюджета (null - период не известен, например, в записях старого формата)
+     * @param periodDays длина произвольного периода в днях (null, если не задана)
+     * @param periodStart начало текущего периода (null для бессрочного бюджета)
+     */
+    public static LedgerRecord budgetSet(
+            UUID walletId, int categoryId, Money limitAmount, BudgetPeriod period, Integer periodDays, LocalDate periodStart
+    ) {
+        return new LedgerRecord(0, BUDGET_SET, walletId, null, 0, null, categoryId, limitAmount.minorUnits(),
+                period, periodDays == null ? 0 : periodDays, periodStart, null);
+    }
+
+    public static LedgerRecord budgetDeleted(UUID walletId, int categoryId) {
+        return new LedgerRecord(0, BUDGET_DELETED, walletId, null, 0, null, categoryId, 0);
+    }
+
+    public static LedgerRecord budgetReset(UUID walletId, int categoryId) {
+        return new LedgerRecord(0, BUDGET_RESET, walletId, null, 0, null, categoryId, 0);
+    }
+
+    /**
+     * Определение категории: название делится на части, каждая из которых помещается в одну запись.
+     * Части дописываются подряд; определение действует после применения последней части.
+     * @param categoryId id категории в словаре категорий
+     * @param name название категории
+     * @return записи определения категории в порядке дозаписи
+     */
+    public static List<LedgerRecord> category(int categoryId, String name) {
+        List<LedgerRecord> records = new ArrayList<>();
+        int start = 0;
+        do {
+            int end = start;
+            int bytes = 0;
+            while (end < name.length()) {
+                int codePoint = name.codePointAt(end);
+                int codePointBytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8).length;
+                if (bytes + codePointBytes > CATEGORY_CHUNK_BYTES) {
+                    break;
+                }
+                bytes += codePointBytes;
+                end += Character.charCount(codePoint);
+            }
+            records.add(new LedgerRecord(0, CATEGORY, null, null, start, null, categoryId, name.length(),
+                    null, 0, null, name.substring(start, end)));
+            start = end;
+        } while (start < name.length());
+        return records;
+    }
+
+    /**
+     * Та же запись с присвоенным журналом номером
+     */
+    public LedgerRecord withSequence(long sequence) {
+        return new LedgerRecord(sequence, kind, walletId, transactionId, epochMicros, type, categoryId, amount,
+                period, periodDays, periodStart, text);
+    }
+
+    /**
+     * Дата транзакции (время записано в UTC, как {@link TransactionColumns#toEpochMicros})
+     */
+    public LocalDate transactionDate() {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMicros, MICROS_PER_DAY));
+    }
+
+    /**
+     * Изменение баланса кошелька этой записью в копейках
+     */
+    public long balanceDelta() {
+        if (kind != TRANSACTION) {
+            return 0;
+        }
+        return type == TransactionType.INCOME ? amount : -amount;
+    }
+
+    /**
+     * Записывает запись в буфер с указанным номером, начиная с позиции offset
+     */
+    void write(ByteBuffer buffer, int offset, long sequence) {
+        buffer.put(offset + 8, kind);
+        buffer.putInt(offset + 12, categoryId);
+        switch (kind) {
+            case TRANSACTION -> {
+                buffer.put(offset + 9, type == null ? NO_TYPE : type == TransactionType.INCOME ? INCOME : EXPENSE);
+                putUuid(buffer, offset + 16, walletId);
+                putUuid(buffer, offset + 32, transactionId);
+                buffer.putLong(offset + 48, epochMicros);
+            }
+            case CATEGORY -> {
+                byte[] chunk = text.getBytes(StandardCharsets.UTF_8);
+                buffer.putShort(offset + 10, (short) chunk.length);
+                buffer.put(offset + 16, chunk);
+                buffer.putLong(offset + 48, epochMicros);
+            }
+            default -> {
+                buffer.put(offset + 9, period == null ? NO_PERIOD : (byte) (period.ordinal() + 1));
+                putUuid(buffer, offset + 16, walletId);
+                buffer.putInt(offset + 32, periodDays);
+                buffer.putLong(offset + 48, periodStart == null ? 0 : periodStart.toEpochDay());
+            }
+        }
+        buffer.putLong(offset + 56, amount);
+        buffer.putLong(offset, sequence);
+    }
+
+    /**
+     * Номер записи в слоте (0 - слот не записан)
+     */
+    static long sequenceAt(ByteBuffer buffer, int offset) {
+        return buffer.getLong(offset);
+    }
+
+    static LedgerRecord read(ByteBuffer buffer, int offset) {
+        long sequence = buffer.getLong(offset);
+        byte kind = buffer.get(offset + 8);
+        int categoryId = buffer.getInt(offset + 12);
+        long amount = buffer.getLong(offset + 56);
+        switch (kind) {
+            case TRANSACTION -> {
+                byte storedType = buffer.get(offset + 9);
+                return new LedgerRecord(
+                        sequence, kind, getUuid(buffer, offset + 16), getUuid(buffer, offset + 32), buffer.getLong(offset + 48),
+                        storedType == INCOME ? TransactionType.INCOME : storedType == EXPENSE ? TransactionType.EXPENSE : null,
+                        categoryId, amount
+                );
+            }
+            case CATEGORY -> {
+                byte[] chunk = new byte[buffer.getShort(offset + 10)];
+                buffer.get(offset + 16, chunk);
+                return new LedgerRecord(sequence, kind, null, null, buffer.getLong(offset + 48), null, categoryId, amount,
+                        null, 0, null, new String(chunk, StandardCharsets.UTF_8));
+            }
+            default -> {
+                byte storedPeriod = buffer.get(offset + 9);
+                BudgetPeriod period = storedPeriod == NO_PERIOD ? null : BudgetPeriod.values()[storedPeriod - 1];
+                boolean hasStart = period != null && period != BudgetPeriod.NONE;
+                return new LedgerRecord(sequence, kind, getUuid(buffer, offset + 16), null, 0, null, categoryId, amount,
+                        period, buffer.getInt(offset + 32),
+                        hasStart ? LocalDate.ofEpochDay(buffer.getLong(offset + 48)) : null, null);
+            }
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, int offset, UUID id) {
+        buffer.putLong(offset, id == null ? 0 : id.getMostSignificantBits());
+        buffer.putLong(offset + 8, id == null ? 0 : id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer, int offset) {
+        long mostSignificant = buffer.getLong(offset);
+        long leastSignificant = buffer.getLong(offset + 8);
+        return mostSignificant == 0 && leastSignificant == 0 ? null : new UUID(mostSignificant, leastSignificant);
+    }
+}
@@ -0,0 +1,381 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerRestoreResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerVerifyResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.WalletTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
+import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
+import com.promoit.finance.finance_manager.domain.event.BudgetChangedEvent;
+import com.promoit.finance.finance_manager.domain.event.BudgetRolloverEvent;
+import com.promoit.finance.finance_manager.domain.event.TransactionAddedEvent;
+import com.promoit.finance.finance_manager.domain.event.WalletChangedEvent;
+import com.promoit.finance.finance_manager.domain.mapper.BudgetMapper;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Журнал операций (режим finance.ledger.enabled): каждая зафиксированная транзакция и каждое
+ * изменение бюджета дописываются в журнал {@link LedgerJournal}, по журналу ведется состояние
+ * {@link LedgerState} - балансы кошельков и траты бюджетов. Состояние периодически сохраняется
+ * в снимок; при запуске загружается последний снимок и применяется только хвост журнала после него.
+ * Восстановленное состояние записывается в БД по запросу {@link #restore()} (например, после потери
+ * БД в памяти и повторного создания кошельков), {@link #verify()} сверяет журнал с транзакциями в БД.
+ * Записи журнала дописываются после коммита, поэтому откаченные операции в журнал не попадают.
+ * Перед первой записью с новым id категории в журнал дописывается определение категории (id и название):
+ * при восстановлении бюджеты сопоставляются с категориями по названию, а не по id прежней БД.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final BudgetRepository budgetRepository;
+    private final BudgetIndex budgetIndex;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+
+    private LedgerJournal journal;
+    private LedgerState state = new LedgerState();
+    private volatile long snapshotSequence;
+    private long recoveredRecords;
+    private long recoveryMs;
+
+    public LedgerService(
+            TransactionRepository transactionRepository,
+            WalletRepository walletRepository,
+            BudgetRepository budgetRepository,
+            BudgetIndex budgetIndex,
+            CategoryDictionary categoryDictionary,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${finance.ledger.enabled:false}") boolean enabled,
+            @Value("${finance.ledger.directory:ledger}") String directory,
+            @Value("${finance.ledger.segment-size:64MB}") DataSize segmentSize
+    ) {
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.budgetRepository = budgetRepository;
+        this.budgetIndex = budgetIndex;
+        this.categoryDictionary = categoryDictionary;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentSize.toBytes();
+    }
+
+    /**
+     * Восстанавливает состояние при запуске: последний снимок и хвост журнала после него
+     */
+    @PostConstruct
+    public synchronized void recover() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        journal = new LedgerJournal(directory, segmentBytes);
+        state = loadLatestSnapshot();
+        snapshotSequence = state.getSequence();
+        recoveredRecords = journal.replay(state.getSequence(), state::apply);
+        recoveryMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Журнал операций восстановлен: снимок до записи {}, применено записей {}, кошельков {}, за {} мс",
+                snapshotSequence, recoveredRecords, state.getWallets().size(), recoveryMs);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTransactionAdded(TransactionAddedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        append(LedgerRecord.transaction(
+                event.walletId(), event.transactionId(), TransactionColumns.toEpochMicros(event.date()),
+                event.type(), event.categoryId(), event.amount()
+        ), categoryDictionary.nameOf(event.categoryId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBudgetChanged(BudgetChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        append(event.limitAmount() == null
+                ? LedgerRecord.budgetDeleted(event.walletId(), event.categoryId())
+                : LedgerRecord.budgetSet(event.walletId(), event.categoryId(), event.limitAmount(),
+                        event.period(), event.periodDays(), event.periodStart()),
+                categoryDictionary.nameOf(event.categoryId()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBudgetRollover(BudgetRolloverEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (ExpiredBudgetDto budget : event.budgets()) {
+            append(LedgerRecord.budgetReset(budget.getWalletId(), budget.getCategoryId()),
+                    categoryDictionary.nameOf(budget.getCategoryId()));
+        }
+    }
+
+    /**
+     * Сохраняет снимок состояния, если с прошлого снимка появились новые записи.
+     * Перед снимком журнал сбрасывается на диск, чтобы снимок не опережал журнал.
+     * Остаются два последних снимка.
+     */
+    @Scheduled(
+            initialDelayString = "${finance.ledger.snapshot-interval:5m}",
+            fixedDelayString = "${finance.ledger.snapshot-interval:5m}"
+    )
+    public void snapshot() {
+        if (!enabled) {
+            return;
+        }
+        LedgerState copy;
+        synchronized (this) {
+            if (state.getSequence() == snapshotSequence) {
+                return;
+            }
+            journal.force();
+            copy = state.copy();
+        }
+        try {
+            copy.writeSnapshot(snapshotPath(copy.getSequence()));
+            List<Path> snapshots = snapshotFiles();
+            for (int i = 0; i < snapshots.size() - 2; i++) {
+                Files.deleteIfExists(snapshots.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить снимок журнала операций", e);
+        }
+        snapshotSequence = copy.getSequence();
+        log.info("Снимок журнала операций сохранен: запись {}, кошельков {}", copy.getSequence(), copy.getWallets().size());
+    }
+
+    /**
+     * Сверяет журнал, прочитанный целиком, с транзакциями в БД: количество транзакций и их сумму
+     * (доходы минус расходы) по каждому кошельку. На нагруженной системе возможны временные расхождения
+     * по транзакциям, зафиксированным, но еще не дописанным в журнал.
+     * @return LedgerVerifyResponseDto с кошельками, по которым журнал расходится с БД
+     */
+    public LedgerVerifyResponseDto verify() {
+        requireEnabled();
+        long started = System.currentTimeMillis();
+        LedgerState full = new LedgerState();
+        long records = journal.replay(0, full::apply);
+
+        Map<UUID, DatabaseTotals> database = new HashMap<>();
+        for (WalletTotalDto total : transactionRepository.sumByWalletAndType()) {
+            DatabaseTotals totals = database.computeIfAbsent(total.getWalletId(), id -> new DatabaseTotals());
+            totals.transactions += total.getCount();
+            totals.balance = total.getType() == TransactionType.INCOME
+                    ? totals.balance.plus(total.getTotal())
+                    : totals.balance.minus(total.getTotal());
+        }
+        Set<UUID> walletIds = new HashSet<>(database.keySet());
+        walletIds.addAll(full.getWallets().keySet());
+
+        List<LedgerVerifyResponseDto.Mismatch> mismatches = new ArrayList<>();
+        for (UUID walletId : walletIds) {
+            LedgerState.WalletTotals journalTotals = full.getWallets().get(walletId);
+            DatabaseTotals databaseTotals = database.getOrDefault(walletId, new DatabaseTotals());
+            long journalTransactions = journalTotals == null ? 0 : journalTotals.getTransactions();
+            Money journalBalance = journalTotals == null ? Money.ZERO : journalTotals.getBalance();
+            if (journalTransactions != databaseTotals.transactions || !journalBalance.equals(databaseTotals.balance)) {
+                mismatches.add(LedgerVerifyResponseDto.Mismatch.builder()
+                        .walletId(walletId)
+                        .journalTransactions(journalTransactions)
+                        .databaseTransactions(databaseTotals.transactions)
+                        .journalBalance(journalBalance)
+                        .databaseBalance(databaseTotals.balance)
+                        .build());
+            }
+        }
+        if (!mismatches.isEmpty()) {
+            log.warn("Журнал операций расходится с БД по {} кошелькам", mismatches.size());
+        }
+        return LedgerVerifyResponseDto.builder()
+                .records(records)
+                .wallets(walletIds.size())
+                .mismatches(mismatches)
+                .elapsedMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    /**
+     * Записывает в БД балансы кошельков и бюджеты из состояния журнала.
+     * Кошельки, которых нет в БД, пропускаются; отсутствующие бюджеты существующих кошельков создаются.
+     * Категории бюджетов заново добавляются в словарь по названию, период бюджета восстанавливается вместе с тратами.
+     * @return LedgerRestoreResponseDto с количеством восстановленных кошельков и бюджетов
+     */
+    public LedgerRestoreResponseDto restore() {
+        requireEnabled();
+        long started = System.currentTimeMillis();
+        LedgerState copy;
+        synchronized (this) {
+            copy = state.copy();
+        }
+        Map<UUID, List<Map.Entry<LedgerState.BudgetKey, LedgerState.BudgetTotals>>> budgetsByWallet = new HashMap<>();
+        for (Map.Entry<LedgerState.BudgetKey, LedgerState.BudgetTotals> entry : copy.getBudgets().entrySet()) {
+            budgetsByWallet.computeIfAbsent(entry.getKey().walletId(), id -> new ArrayList<>()).add(entry);
+        }
+        Set<UUID> walletIds = new HashSet<>(copy.getWallets().keySet());
+        walletIds.addAll(budgetsByWallet.keySet());
+        // Словарь пишет новые категории в отдельных транзакциях, поэтому id получаются до основной транзакции
+        Map<String, Integer> categoryIds = new HashMap<>();
+        copy.getBudgets().keySet().forEach(key -> categoryIds.computeIfAbsent(key.category(), categoryDictionary::idOf));
+
+        int[] counters = new int[3]; // кошельки, бюджеты, отсутствующие кошельки
+        transactionTemplate.executeWithoutResult(status -> {
+            for (UUID walletId : walletIds) {
+                Optional<WalletEntity> walletOption = walletRepository.findById(walletId);
+                if (walletOption.isEmpty()) {
+                    counters[2]++;
+                    continue;
+                }
+                WalletEntity wallet = walletOption.get();
+                LedgerState.WalletTotals totals = copy.getWallets().get(walletId);
+                wallet.setBalance(totals == null ? Money.ZERO : totals.getBalance());
+                counters[0]++;
+                for (Map.Entry<LedgerState.BudgetKey, LedgerState.BudgetTotals> entry
+                        : budgetsByWallet.getOrDefault(walletId, List.of())) {
+                    int categoryId = categoryIds.get(entry.getKey().category());
+                    LedgerState.BudgetTotals budgetTotals = entry.getValue();
+                    BudgetEntity budget = budgetRepository.findByWalletAndCategoryId(wallet, categoryId)
+                            .orElseGet(() -> BudgetMapper.toEntity(categoryId, budgetTotals.getLimit(), wallet));
+                    budget.setLimitAmount(budgetTotals.getLimit());
+                    budget.setCurrentSpent(budgetTotals.getSpent());
+                    budget.setPeriod(budgetTotals.getPeriod());
+                    budget.setPeriodDays(budgetTotals.getPeriodDays());
+                    budget.setPeriodStart(budgetTotals.getPeriodStart());
+                    budget.setPeriodEnd(budgetTotals.getPeriodEnd());
+                    budgetRepository.save(budget);
+                    counters[1]++;
+                }
+                eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+            }
+        });
+        // Бюджеты восстанавливаются без событий изменения бюджета, поэтому индекс бюджетов сбрасывается явно
+        budgetsByWallet.keySet().forEach(budgetIndex::invalidate);
+        log.info("Из журнала операций восстановлено кошельков {}, бюджетов {}, отсутствует в БД кошельков {}",
+                counters[0], counters[1], counters[2]);
+        return LedgerRestoreResponseDto.builder()
+                .wallets(counters[0])
+                .budgets(counters[1])
+                .missingWallets(counters[2])
+                .elapsedMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    public synchronized LedgerStatsDto getStats() {
+        return LedgerStatsDto.builder()
+                .enabled(enabled)
+                .records(journal == null ? 0 : journal.lastSequence())
+                .segments(journal == null ? 0 : journal.segmentCount())
+                .snapshotSequence(snapshotSequence)
+                .wallets(state.getWallets().size())
+                .budgets(state.getBudgets().size())
+                .recoveredRecords(recoveredRecords)
+                .recoveryMs(recoveryMs)
+                .build();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Дописывает запись, предваряя ее определением категории, если в журнале id категории
+     * еще не определен или определен с другим названием (id выдан заново после потери БД)
+     * @param categoryName название категории записи в текущем словаре категорий
+     */
+    private synchronized void append(LedgerRecord record, String categoryName) {
+        if (!categoryName.equals(state.categoryName(record.categoryId()))) {
+            LedgerRecord.category(record.categoryId(), categoryName).forEach(this::appendRecord);
+        }
+        appendRecord(record);
+    }
+
+    private void appendRecord(LedgerRecord record) {
+        long sequence = journal.append(record);
+        state.apply(record.withSequence(sequence));
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new IllegalStateException("Журнал операций выключен (finance.ledger.enabled)");
+        }
+    }
+
+    private LedgerState loadLatestSnapshot() {
+        try {
+            List<Path> snapshots = snapshotFiles();
+            // Начиная с последнего: поврежденный снимок пропускается в пользу предыдущего
+            for (int i = snapshots.size() - 1; i >= 0; i--) {
+                try {
+                    return LedgerState.readSnapshot(snapshots.get(i));
+                } catch (IOException e) {
+                    log.warn("Снимок журнала {} не прочитан: {}", snapshots.get(i), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать каталог журнала операций " + directory, e);
+        }
+        return new LedgerState();
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path snapshotPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+    }
+
+    /**
+     * Количество и сумма транзакций кошелька в БД
+     */
+    private static class DatabaseTotals {
+        private long transactions;
+        private Money balance = Money.ZERO;
+    }
+}
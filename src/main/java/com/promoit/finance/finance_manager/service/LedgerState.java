@@ -0,0 +1,299 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Состояние, восстанавливаемое из журнала операций: баланс и количество транзакций кошельков,
+ * лимиты и траты бюджетов. Траты бюджета растут только от расходов, записанных после установки бюджета
+ * и датированных не раньше начала его текущего периода: расходы задним числом (импорт выписки
+ * за прошлый месяц) меняют баланс, но не траты, как и в {@link FinanceService}. Бюджеты хранятся по названию категории: id категорий действуют
+ * только в пределах БД в памяти и после ее потери выдаются заново, поэтому журнал определяет
+ * названия записями {@link LedgerRecord#CATEGORY}, а записи с неопределенным id не меняют бюджеты.
+ * Суммы накапливаются в копейках, как и в записях журнала.
+ * Состояние сохраняется в снимок вместе с номером последней примененной записи,
+ * после загрузки снимка достаточно применить хвост журнала.
+ * Класс не потокобезопасен.
+ */
+public final class LedgerState {
+    private static final int SNAPSHOT_MAGIC = 0x4C444753; // "LDGS"
+    private static final int SNAPSHOT_VERSION = 3;
+
+    private final Map<UUID, WalletTotals> wallets = new HashMap<>();
+    private final Map<BudgetKey, BudgetTotals> budgets = new HashMap<>();
+    private final Map<Integer, String> categories = new HashMap<>();
+    private final Map<Integer, StringBuilder> pendingCategories = new HashMap<>();
+    private long sequence;
+
+    /**
+     * Применяет запись журнала
+     */
+    public void apply(LedgerRecord record) {
+        switch (record.kind()) {
+            case LedgerRecord.TRANSACTION -> {
+                WalletTotals totals = wallets.computeIfAbsent(record.walletId(), id -> new WalletTotals());
+                totals.balance = Math.addExact(totals.balance, record.balanceDelta());
+                totals.transactions++;
+                BudgetTotals budget = record.type() == TransactionType.EXPENSE ? budgets.get(budgetKey(record)) : null;
+                if (budget != null && (budget.periodStart == null || !record.transactionDate().isBefore(budget.periodStart))) {
+                    budget.spent = Math.addExact(budget.spent, record.amount());
+                }
+            }
+            case LedgerRecord.BUDGET_SET -> {
+                BudgetKey key = budgetKey(record);
+                if (key != null) {
+                    BudgetTotals budget = budgets.computeIfAbsent(key, k -> new BudgetTotals());
+                    budget.limit = record.amount();
+                    if (record.period() != null) {
+                        budget.period = record.period();
+                        budget.periodDays = record.periodDays() == 0 ? null : record.periodDays();
+                        budget.periodStart = record.periodStart();
+                    }
+                }
+            }
+            case LedgerRecord.BUDGET_DELETED -> {
+                BudgetKey key = budgetKey(record);
+                if (key != null) {
+                    budgets.remove(key);
+                }
+            }
+            case LedgerRecord.BUDGET_RESET -> {
+                BudgetTotals budget = budgets.get(budgetKey(record));
+                if (budget != null) {
+                    budget.spent = 0;
+                    // Как и BudgetRepository#rollOver: началом периода становится прежний конец
+                    if (budget.periodStart != null) {
+                        budget.periodStart = budget.period.endOf(budget.periodStart, budget.periodDays);
+                    }
+                }
+            }
+            case LedgerRecord.CATEGORY -> defineCategory(record);
+            default -> throw new IllegalStateException("Неизвестный вид записи журнала " + record.kind());
+        }
+        sequence = record.sequence();
+    }
+
+    /**
+     * Собирает название категории из частей. Часть с нулевым смещением начинает определение заново,
+     * поэтому недописанное перед сбоем определение не смешивается со следующим.
+     */
+    private void defineCategory(LedgerRecord record) {
+        StringBuilder name = record.epochMicros() == 0
+                ? new StringBuilder()
+                : pendingCategories.get(record.categoryId());
+        if (name == null || name.length() != record.epochMicros()) {
+            return; // часть без начала определения
+        }
+        name.append(record.text());
+        if (name.length() == (int) record.amount()) {
+            pendingCategories.remove(record.categoryId());
+            categories.put(record.categoryId(), name.toString());
+        } else {
+            pendingCategories.put(record.categoryId(), name);
+        }
+    }
+
+    /**
+     * Ключ бюджета записи (null, если категория записи не определена в журнале)
+     */
+    private BudgetKey budgetKey(LedgerRecord record) {
+        String category = categories.get(record.categoryId());
+        return category == null ? null : new BudgetKey(record.walletId(), category);
+    }
+
+    /**
+     * Название категории по id, действующему в журнале на момент последней примененной записи
+     * @return название или null, если категория не определена
+     */
+    public String categoryName(int categoryId) {
+        return categories.get(categoryId);
+    }
+
+    /**
+     * Номер последней примененной записи
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Map<UUID, WalletTotals> getWallets() {
+        return Collections.unmodifiableMap(wallets);
+    }
+
+    public Map<BudgetKey, BudgetTotals> getBudgets() {
+        return Collections.unmodifiableMap(budgets);
+    }
+
+    /**
+     * Независимая копия состояния (для записи снимка вне блокировки журнала)
+     */
+    public LedgerState copy() {
+        LedgerState copy = new LedgerState();
+        wallets.forEach((walletId, totals) -> copy.wallets.put(walletId, new WalletTotals(totals.balance, totals.transactions)));
+        budgets.forEach((key, totals) -> copy.budgets.put(key, new BudgetTotals(
+                totals.limit, totals.spent, totals.period, totals.periodDays, totals.periodStart)));
+        copy.categories.putAll(categories);
+        pendingCategories.forEach((id, name) -> copy.pendingCategories.put(id, new StringBuilder(name)));
+        copy.sequence = sequence;
+        return copy;
+    }
+
+    /**
+     * Записывает снимок состояния. Файл пишется во временный и переименовывается,
+     * поэтому после сбоя остается либо старый, либо новый снимок целиком.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(sequence);
+            out.writeInt(wallets.size());
+            for (Map.Entry<UUID, WalletTotals> entry : wallets.entrySet()) {
+                writeUuid(out, entry.getKey());
+                out.writeLong(entry.getValue().balance);
+                out.writeLong(entry.getValue().transactions);
+            }
+            out.writeInt(budgets.size());
+            for (Map.Entry<BudgetKey, BudgetTotals> entry : budgets.entrySet()) {
+                BudgetTotals budget = entry.getValue();
+                writeUuid(out, entry.getKey().walletId());
+                out.writeUTF(entry.getKey().category());
+                out.writeLong(budget.limit);
+                out.writeLong(budget.spent);
+                out.writeUTF(budget.period.name());
+                out.writeInt(budget.periodDays == null ? 0 : budget.periodDays);
+                out.writeLong(budget.periodStart == null ? Long.MIN_VALUE : budget.periodStart.toEpochDay());
+            }
+            out.writeInt(categories.size());
+            for (Map.Entry<Integer, String> entry : categories.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static LedgerState readSnapshot(Path file) throws IOException {
+        LedgerState state = new LedgerState();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Файл " + file + " не является снимком журнала операций");
+            }
+            state.sequence = in.readLong();
+            int walletCount = in.readInt();
+            for (int i = 0; i < walletCount; i++) {
+                state.wallets.put(readUuid(in), new WalletTotals(in.readLong(), in.readLong()));
+            }
+            int budgetCount = in.readInt();
+            for (int i = 0; i < budgetCount; i++) {
+                BudgetKey key = new BudgetKey(readUuid(in), in.readUTF());
+                long limit = in.readLong();
+                long spent = in.readLong();
+                BudgetPeriod period = BudgetPeriod.valueOf(in.readUTF());
+                int periodDays = in.readInt();
+                long periodStart = in.readLong();
+                state.budgets.put(key, new BudgetTotals(limit, spent, period, periodDays == 0 ? null : periodDays,
+                        periodStart == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(periodStart)));
+            }
+            int categoryCount = in.readInt();
+            for (int i = 0; i < categoryCount; i++) {
+                state.categories.put(in.readInt(), in.readUTF());
+            }
+        }
+        return state;
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    /**
+     * Бюджет кошелька по названию категории
+     */
+    public record BudgetKey(UUID walletId, String category) {
+    }
+
+    public static final class WalletTotals {
+        private long balance;
+        private long transactions;
+
+        WalletTotals() {
+        }
+
+        WalletTotals(long balance, long transactions) {
+            this.balance = balance;
+            this.transactions = transactions;
+        }
+
+        public Money getBalance() {
+            return Money.ofMinor(balance);
+        }
+
+        public long getTransactions() {
+            return transactions;
+        }
+    }
+
+    public static final class BudgetTotals {
+        private long limit;
+        private long spent;
+        private BudgetPeriod period = BudgetPeriod.NONE;
+        private Integer periodDays;
+        private LocalDate periodStart;
+
+        BudgetTotals() {
+        }
+
+        BudgetTotals(long limit, long spent, BudgetPeriod period, Integer periodDays, LocalDate periodStart) {
+            this.limit = limit;
+            this.spent = spent;
+            this.period = period;
+            this.periodDays = periodDays;
+            this.periodStart = periodStart;
+        }
+
+        public Money getLimit() {
+            return Money.ofMinor(limit);
+        }
+
+        public Money getSpent() {
+            return Money.ofMinor(spent);
+        }
+
+        public BudgetPeriod getPeriod() {
+            return period;
+        }
+
+        public Integer getPeriodDays() {
+            return periodDays;
+        }
+
+        /**
+         * Начало текущего периода (null для бессрочного бюджета)
+         */
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+
+        /**
+         * Конец текущего периода, как в BudgetEntity (null для бессрочного бюджета)
+         */
+        public LocalDate getPeriodEnd() {
+            return periodStart == null ? null : period.endOf(periodStart, periodDays);
+        }
+    }
+}
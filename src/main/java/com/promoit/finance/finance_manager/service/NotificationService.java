@@ -1,18 +1,87 @@
 package com.promoit.finance.finance_manager.service;
 
+import com.promoit.finance.finance_manager.domain.dto.statistics.NotificationStatsDto;
+import com.promoit.finance.finance_manager.domain.event.NotificationEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Уведомления пользователей. События {@link NotificationEvent} после коммита ставятся в ограниченную
+ * очередь, поэтому запрос не ждет отправки уведомлений. Фоновый поток собирает события в пакет
+ * в течение окна finance.notifications.window и отправляет по одному уведомлению на пользователя
+ * и категорию: повторы в окне объединяются, превышение бюджета заменяет предупреждение.
+ * При заполненной очереди новые события отбрасываются с подсчетом, запись не блокируется.
+ */
 @Service
 @Slf4j
 public class NotificationService {
+    private final BlockingQueue<NotificationEvent> queue;
+    private final int queueCapacity;
+    private final long windowNanos;
+    private final int batchSize;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public NotificationService(
+            @Value("${finance.notifications.queue-capacity:10000}") int queueCapacity,
+            @Value("${finance.notifications.window:1s}") Duration window,
+            @Value("${finance.notifications.batch-size:500}") int batchSize
+    ) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.queue = new ArrayBlockingQueue<>(this.queueCapacity);
+        this.windowNanos = window.toNanos();
+        this.batchSize = Math.max(1, batchSize);
+        this.worker = new Thread(this::runWorker, "notification-worker");
+        this.worker.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker.start();
+    }
+
+    /**
+     * Ставит уведомление в очередь после коммита операции, которая его вызвала
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onNotification(NotificationEvent event) {
+        if (queue.offer(event)) {
+            enqueued.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+            log.debug("Очередь уведомлений заполнена, уведомление {} для {} отброшено", event.type(), event.username());
+        }
+    }
+
     /**
      * Уведомляет о превышении установленного бюджета в категории.
      * @param username имя пользователя для персонализации уведомления
      * @param category категория расходов где превышен бюджет
      * @param spent фактическая сумма потраченная в категории
      */
-    public void notifyBudgetExceeded(String username, String category, Double spent) {
+    public void notifyBudgetExceeded(String username, String category, BigDecimal spent) {
         log.warn("Предупреждение для {}: Превышен бюджет в категории '{}'. Потрачено: {} руб.", username, category, spent);
     }
 
@@ -22,7 +91,7 @@ public class NotificationService {
      * @param category категория расходов с высоким процентом использования
      * @param percentage процент использования бюджета (0-100)
      */
-    public void notifyBudgetWarning(String username, String category, Double percentage) {
+    public void notifyBudgetWarning(String username, String category, BigDecimal percentage) {
         log.info("Внимание для {}: Категория '{}' использовано {}% бюджета", username, category, percentage);
     }
 
@@ -33,4 +102,95 @@ public class NotificationService {
     public void notifyNegativeBalance(String username) {
         log.error("Внимание для {}: Обнаружен отрицательный баланс!", username);
     }
-}
\ No newline at end of file
+
+    public NotificationStatsDto getStats() {
+        return NotificationStatsDto.builder()
+                .queueDepth(queue.size())
+                .queueCapacity(queueCapacity)
+                .enqueued(enqueued.get())
+                .dropped(dropped.get())
+                .coalesced(coalesced.get())
+                .delivered(delivered.get())
+                .batches(batches.get())
+                .build();
+    }
+
+    /**
+     * Объединяет пакет событий и отправляет уведомления: по одному на пользователя и категорию
+     * (отрицательный баланс - по одному на пользователя), в порядке первого события.
+     * При объединении остается более важный вид уведомления, при равных - последнее значение.
+     */
+    void deliver(List<NotificationEvent> batch) {
+        Map<NotificationKey, NotificationEvent> latest = new LinkedHashMap<>();
+        for (NotificationEvent event : batch) {
+            latest.merge(NotificationKey.of(event), event,
+                    (current, next) -> next.type().compareTo(current.type()) >= 0 ? next : current);
+        }
+        for (NotificationEvent event : latest.values()) {
+            try {
+                switch (event.type()) {
+                    case BUDGET_WARNING -> notifyBudgetWarning(event.username(), event.category(), event.value());
+                    case BUDGET_EXCEEDED -> notifyBudgetExceeded(event.username(), event.category(), event.value());
+                    case NEGATIVE_BALANCE -> notifyNegativeBalance(event.username());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Не удалось отправить уведомление {} для {}: {}", event.type(), event.username(), e.getMessage());
+            }
+        }
+        delivered.addAndGet(latest.size());
+        coalesced.addAndGet(batch.size() - latest.size());
+        batches.incrementAndGet();
+    }
+
+    /**
+     * Цикл фонового потока: первое событие открывает окно, события окна (не больше batch-size)
+     * отправляются одним пакетом
+     */
+    private void runWorker() {
+        List<NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    NotificationEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Остановка: отправляем то, что уже накоплено и осталось в очереди
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ключ объединения уведомлений: пользователь и категория бюджета
+     * или пользователь для отрицательного баланса
+     */
+    private record NotificationKey(String username, String category, boolean balance) {
+
+        static NotificationKey of(NotificationEvent event) {
+            boolean balance = event.type() == NotificationEvent.Type.NEGATIVE_BALANCE;
+            return new NotificationKey(event.username(), balance ? null : event.category(), balance);
+        }
+    }
+}
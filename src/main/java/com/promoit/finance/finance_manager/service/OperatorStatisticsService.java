@@ -0,0 +1,147 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.OperatorStatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import com.promoit.finance.finance_manager.domain.repository.DailyCategoryRollupRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Сервис сводной статистики по всем кошелькам для операторов.
+ * Список идентификаторов кошельков делится на группы, группы считаются параллельно
+ * в отдельном ForkJoinPool, частичные результаты складываются.
+ * Каждая группа читается в своей короткой транзакции только для чтения и только
+ * из дневных агрегатов, поэтому расчет не держит одну большую транзакцию
+ * и не загружает сущности транзакций в память.
+ */
+@Service
+@Slf4j
+public class OperatorStatisticsService {
+    private final WalletRepository walletRepository;
+    private final DailyCategoryRollupRepository rollupRepository;
+    private final BudgetRepository budgetRepository;
+    private final CategoryDictionary categoryDictionary;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+    private final int partitionSize;
+
+    public OperatorStatisticsService(
+            WalletRepository walletRepository,
+            DailyCategoryRollupRepository rollupRepository,
+            BudgetRepository budgetRepository,
+            CategoryDictionary categoryDictionary,
+            PlatformTransactionManager transactionManager,
+            @Value("${finance.operator-statistics.parallelism:4}") int parallelism,
+            @Value("${finance.operator-statistics.partition-size:500}") int partitionSize
+    ) {
+        this.walletRepository = walletRepository;
+        this.rollupRepository = rollupRepository;
+        this.budgetRepository = budgetRepository;
+        this.categoryDictionary = categoryDictionary;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism);
+        this.partitionSize = Math.max(1, partitionSize);
+    }
+
+    /**
+     * Считает суммы доходов и расходов по категориям и количество превышенных бюджетов по всем кошелькам.
+     * @return OperatorStatisticsResponseDto со сводной статистикой
+     */
+    public OperatorStatisticsResponseDto getStatistics() {
+        long started = System.currentTimeMillis();
+        List<UUID> walletIds = walletRepository.findAllIds();
+        Partial total = walletIds.isEmpty() ? new Partial() : pool.invoke(new PartitionTask(walletIds));
+
+        log.info("Сводная статистика посчитана: кошельков {}, групп {}, за {} мс",
+                walletIds.size(), total.partitions, System.currentTimeMillis() - started);
+        return OperatorStatisticsResponseDto.builder()
+                .wallets(walletIds.size())
+                .totalIncome(total.aggregator.getTotalIncome())
+                .totalExpense(total.aggregator.getTotalExpense())
+                .balance(total.aggregator.getBalance())
+                .incomeByCategory(total.aggregator.getIncomeByCategory(categoryDictionary::nameOf))
+                .expenseByCategory(total.aggregator.getExpenseByCategory(categoryDictionary::nameOf))
+                .budgets(total.budgets)
+                .exceededBudgets(total.exceededBudgets)
+                .partitions(total.partitions)
+                .parallelism(pool.getParallelism())
+                .elapsedMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Считает одну группу кошельков в отдельной транзакции
+     */
+    private Partial aggregate(List<UUID> walletIds) {
+        return readOnlyTransaction.execute(status -> {
+            Partial partial = new Partial();
+            for (CategoryTotalDto total : rollupRepository.sumByTypeAndCategoryForWallets(walletIds)) {
+                partial.aggregator.add(total);
+            }
+            partial.budgets = budgetRepository.countByWalletIds(walletIds);
+            partial.exceededBudgets = budgetRepository.countExceededByWalletIds(walletIds, LocalDate.now());
+            partial.partitions = 1;
+            return partial;
+        });
+    }
+
+    /**
+     * Делит диапазон кошельков пополам, пока он больше размера группы
+     */
+    private class PartitionTask extends RecursiveTask<Partial> {
+        private final List<UUID> walletIds;
+
+        private PartitionTask(List<UUID> walletIds) {
+            this.walletIds = walletIds;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (walletIds.size() <= partitionSize) {
+                return aggregate(walletIds);
+            }
+            int middle = walletIds.size() / 2;
+            PartitionTask left = new PartitionTask(walletIds.subList(0, middle));
+            PartitionTask right = new PartitionTask(walletIds.subList(middle, walletIds.size()));
+            left.fork();
+            Partial result = right.compute();
+            return result.merge(left.join());
+        }
+    }
+
+    /**
+     * Частичный результат по группе кошельков
+     */
+    private static final class Partial {
+        private final StatisticsAggregator aggregator = new StatisticsAggregator();
+        private long budgets;
+        private long exceededBudgets;
+        private int partitions;
+
+        private Partial merge(Partial other) {
+            aggregator.merge(other.aggregator);
+            budgets += other.budgets;
+            exceededBudgets += other.exceededBudgets;
+            partitions += other.partitions;
+            return this;
+        }
+    }
+}
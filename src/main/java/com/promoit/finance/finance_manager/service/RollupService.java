@@ -0,0 +1,338 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.RollupRebuildResponseDto;
+import com.promoit.finance.finance_manager.domain.entity.DailyCategoryRollupEntity;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.domain.repository.DailyCategoryRollupRepository;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Сервис дневных агрегатов транзакций (сумма и количество по кошельку, дню, категории и типу).
+ * Агрегаты обновляются при каждой транзакции, поэтому статистика за любой период считается
+ * по числу дней и категорий, а не по числу транзакций. Сырые транзакции читаются только
+ * для неполных дней на границах периода.
+ */
+@Service
+@Transactional
+@Slf4j
+public class RollupService {
+    /**
+     * Последний момент дня с точностью хранения TIMESTAMP в БД (микросекунды)
+     */
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59, 999_999_000);
+
+    private final DailyCategoryRollupRepository rollupRepository;
+    private final TransactionRepository transactionRepository;
+    private final WalletRepository walletRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public RollupService(
+            DailyCategoryRollupRepository rollupRepository,
+            TransactionRepository transactionRepository,
+            WalletRepository walletRepository,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.rollupRepository = rollupRepository;
+        this.transactionRepository = transactionRepository;
+        this.walletRepository = walletRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Учитывает сохраненную транзакцию в дневном агрегате (создает агрегат, если его еще нет).
+     * @param transaction сохраненная транзакция
+     */
+    public void record(TransactionEntity transaction) {
+        UUID walletId = transaction.getWallet().getId();
+        LocalDate day = transaction.getDate().toLocalDate();
+        int updated = rollupRepository.increment(
+                walletId, day, transaction.getCategoryId(), transaction.getType(), transaction.getAmount(), 1L
+        );
+        if (updated == 0) {
+            rollupRepository.save(DailyCategoryRollupEntity.builder()
+                    .walletId(walletId)
+                    .rollupDate(day)
+                    .categoryId(transaction.getCategoryId())
+                    .type(transaction.getType())
+                    .totalAmount(transaction.getAmount())
+                    .transactionCount(1L)
+                    .build());
+        }
+    }
+
+    /**
+     * Учитывает пакет сохраненных транзакций одного кошелька: транзакции сначала складываются
+     * в памяти по (день, тип, категория), затем каждый агрегат обновляется одним запросом,
+     * а недостающие агрегаты сохраняются одним пакетом.
+     * @param walletId идентификатор кошелька
+     * @param transactions сохраненные транзакции кошелька
+     */
+    public void recordAll(UUID walletId, List<TransactionEntity> transactions) {
+        Map<String, DailyCategoryTotalDto> days = new LinkedHashMap<>();
+        for (TransactionEntity transaction : transactions) {
+            LocalDate day = transaction.getDate().toLocalDate();
+            DailyCategoryTotalDto total = days.computeIfAbsent(
+                    day + ":" + transaction.getType() + ":" + transaction.getCategoryId(),
+                    key -> new DailyCategoryTotalDto(day, transaction.getType(), transaction.getCategoryId(), Money.ZERO, 0L)
+            );
+            total.setTotal(total.getTotal().plus(transaction.getAmount()));
+            total.setCount(total.getCount() + 1);
+        }
+        List<DailyCategoryRollupEntity> created = new ArrayList<>();
+        for (DailyCategoryTotalDto day : days.values()) {
+            int updated = rollupRepository.increment(
+                    walletId, day.getDate(), day.getCategoryId(), day.getType(), day.getTotal(), day.getCount()
+            );
+            if (updated == 0) {
+                created.add(toEntity(walletId, day));
+            }
+        }
+        rollupRepository.saveAll(created);
+    }
+
+    /**
+     * Возвращает суммы транзакций по типу и категории за период.
+     * Полные дни берутся из агрегатов, неполные дни на границах периода - из транзакций.
+     * @param walletId идентификатор кошелька
+     * @param categoryIds id категорий для фильтрации (null = все категории, пустой = ни одной)
+     * @param startDate начало периода включительно (null = без ограничения по дате)
+     * @param endDate конец периода включительно (null = без ограничения по дате)
+     * @return List<CategoryTotalDto> по одной строке на пару (тип, категория)
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryTotalDto> sumByTypeAndCategory(
+            UUID walletId, Collection<Integer> categoryIds, LocalDateTime startDate, LocalDateTime endDate
+    ) {
+        if (categoryIds != null && categoryIds.isEmpty()) {
+            return List.of();
+        }
+        if (startDate == null || endDate == null) {
+            return sumRollups(walletId, categoryIds, null, null);
+        }
+        LocalDate firstFullDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate()
+                : startDate.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = endDate.toLocalTime().isBefore(END_OF_DAY)
+                ? endDate.toLocalDate().minusDays(1)
+                : endDate.toLocalDate();
+
+        // Период короче суток - агрегаты не помогают, считаем по транзакциям
+        if (firstFullDay.isAfter(lastFullDay)) {
+            return sumTransactions(walletId, categoryIds, startDate, endDate);
+        }
+
+        List<CategoryTotalDto> parts = new ArrayList<>(sumRollups(walletId, categoryIds, firstFullDay, lastFullDay));
+        if (startDate.toLocalDate().isBefore(firstFullDay)) {
+            parts.addAll(sumTransactions(walletId, categoryIds, startDate, startDate.toLocalDate().atTime(END_OF_DAY)));
+        }
+        if (endDate.toLocalDate().isAfter(lastFullDay)) {
+            parts.addAll(sumTransactions(walletId, categoryIds, endDate.toLocalDate().atStartOfDay(), endDate));
+        }
+        return merge(parts);
+    }
+
+    /**
+     * Возвращает суммы транзакций по дням, типу и категории за период (для серий статистики).
+     * Как и в {@link #sumByTypeAndCategory}, полные дни берутся из агрегатов, а неполные дни
+     * на границах периода - из транзакций.
+     * @param walletId идентификатор кошелька
+     * @param categoryIds id категорий для фильтрации (null = все категории, пустой = ни одной)
+     * @param startDate начало периода включительно (null = без ограничения по дате)
+     * @param endDate конец периода включительно (null = без ограничения по дате)
+     * @return List<DailyCategoryTotalDto> по одной строке на (день, тип, категория)
+     */
+    @Transactional(readOnly = true)
+    public List<DailyCategoryTotalDto> sumByDayTypeAndCategory(
+            UUID walletId, Collection<Integer> categoryIds, LocalDateTime startDate, LocalDateTime endDate
+    ) {
+        if (categoryIds != null && categoryIds.isEmpty()) {
+            return List.of();
+        }
+        if (startDate == null || endDate == null) {
+            return dailyRollups(walletId, categoryIds, null, null);
+        }
+        LocalDate firstFullDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate()
+                : startDate.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = endDate.toLocalTime().isBefore(END_OF_DAY)
+                ? endDate.toLocalDate().minusDays(1)
+                : endDate.toLocalDate();
+
+        if (firstFullDay.isAfter(lastFullDay)) {
+            return dailyTransactions(walletId, categoryIds, startDate, endDate);
+        }
+
+        List<DailyCategoryTotalDto> days = new ArrayList<>();
+        if (startDate.toLocalDate().isBefore(firstFullDay)) {
+            days.addAll(dailyTransactions(walletId, categoryIds, startDate, startDate.toLocalDate().atTime(END_OF_DAY)));
+        }
+        days.addAll(dailyRollups(walletId, categoryIds, firstFullDay, lastFullDay));
+        if (endDate.toLocalDate().isAfter(lastFullDay)) {
+            days.addAll(dailyTransactions(walletId, categoryIds, endDate.toLocalDate().atStartOfDay(), endDate));
+        }
+        return days;
+    }
+
+    /**
+     * Перестраивает дневные агрегаты кошелька по его транзакциям.
+     * @param walletId идентификатор кошелька
+     * @return количество записанных агрегатов
+     */
+    public int rebuild(UUID walletId) {
+        rollupRepository.deleteByWalletId(walletId);
+        List<DailyCategoryRollupEntity> rollups = transactionRepository.sumByDayTypeAndCategory(walletId).stream()
+                .map(day -> toEntity(walletId, day))
+                .toList();
+        rollupRepository.saveAll(rollups);
+        log.debug("Агрегаты кошелька {} перестроены: {} записей", walletId, rollups.size());
+        return rollups.size();
+    }
+
+    /**
+     * Перестраивает дневные агрегаты всех кошельков (каждый кошелек в отдельной транзакции)
+     * и сверяет результат с транзакциями.
+     * @return RollupRebuildResponseDto с количеством кошельков, агрегатов и расхождений
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RollupRebuildResponseDto rebuildAll() {
+        return rebuildAndVerify(walletRepository.findAllIds());
+    }
+
+    /**
+     * Перестраивает дневные агрегаты одного кошелька и сверяет результат с транзакциями.
+     * @param walletId идентификатор кошелька
+     * @return RollupRebuildResponseDto с количеством агрегатов и расхождений
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RollupRebuildResponseDto rebuildWallet(UUID walletId) {
+        return rebuildAndVerify(List.of(walletId));
+    }
+
+    /**
+     * Сверяет дневные агрегаты кошелька с суммами по его транзакциям.
+     * @param walletId идентификатор кошелька
+     * @return true, если суммы и количества по всем парам (тип, категория) совпадают
+     */
+    @Transactional(readOnly = true)
+    public boolean verify(UUID walletId) {
+        Map<String, CategoryTotalDto> expected = index(transactionRepository.sumByTypeAndCategory(walletId, null, null));
+        Map<String, CategoryTotalDto> actual = index(rollupRepository.sumByTypeAndCategory(walletId, null, null));
+        if (!expected.keySet().equals(actual.keySet())) {
+            log.warn("Агрегаты кошелька {} не совпадают по набору категорий", walletId);
+            return false;
+        }
+        for (Map.Entry<String, CategoryTotalDto> entry : expected.entrySet()) {
+            CategoryTotalDto rollup = actual.get(entry.getKey());
+            if (!entry.getValue().getCount().equals(rollup.getCount())
+                    || !entry.getValue().getTotal().equals(rollup.getTotal())) {
+                log.warn("Агрегаты кошелька {} расходятся для {}", walletId, entry.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RollupRebuildResponseDto rebuildAndVerify(List<UUID> walletIds) {
+        long started = System.currentTimeMillis();
+        long rows = 0;
+        int mismatches = 0;
+        for (UUID walletId : walletIds) {
+            Integer written = transactionTemplate.execute(status -> rebuild(walletId));
+            rows += written != null ? written : 0;
+            Boolean consistent = transactionTemplate.execute(status -> verify(walletId));
+            if (!Boolean.TRUE.equals(consistent)) {
+                mismatches++;
+            }
+        }
+        log.info("Агрегаты перестроены: кошельков {}, записей {}, расхождений {}", walletIds.size(), rows, mismatches);
+        return RollupRebuildResponseDto.builder()
+                .wallets(walletIds.size())
+                .rows(rows)
+                .mismatches(mismatches)
+                .elapsedMs(System.currentTimeMillis() - started)
+                .build();
+    }
+
+    private List<CategoryTotalDto> sumRollups(
+            UUID walletId, Collection<Integer> categoryIds, LocalDate fromDate, LocalDate toDate
+    ) {
+        return categoryIds != null
+                ? rollupRepository.sumByTypeAndCategoryIn(walletId, categoryIds, fromDate, toDate)
+                : rollupRepository.sumByTypeAndCategory(walletId, fromDate, toDate);
+    }
+
+    private List<CategoryTotalDto> sumTransactions(
+            UUID walletId, Collection<Integer> categoryIds, LocalDateTime startDate, LocalDateTime endDate
+    ) {
+        return categoryIds != null
+                ? transactionRepository.sumByTypeAndCategoryIn(walletId, categoryIds, startDate, endDate)
+                : transactionRepository.sumByTypeAndCategory(walletId, startDate, endDate);
+    }
+
+    private List<DailyCategoryTotalDto> dailyRollups(
+            UUID walletId, Collection<Integer> categoryIds, LocalDate fromDate, LocalDate toDate
+    ) {
+        return categoryIds != null
+                ? rollupRepository.findDailyIn(walletId, categoryIds, fromDate, toDate)
+                : rollupRepository.findDaily(walletId, fromDate, toDate);
+    }
+
+    private List<DailyCategoryTotalDto> dailyTransactions(
+            UUID walletId, Collection<Integer> categoryIds, LocalDateTime startDate, LocalDateTime endDate
+    ) {
+        return categoryIds != null
+                ? transactionRepository.sumByDayTypeAndCategoryBetweenIn(walletId, categoryIds, startDate, endDate)
+                : transactionRepository.sumByDayTypeAndCategoryBetween(walletId, startDate, endDate);
+    }
+
+    /**
+     * Складывает строки с одинаковой парой (тип, категория)
+     */
+    private List<CategoryTotalDto> merge(List<CategoryTotalDto> parts) {
+        Map<String, CategoryTotalDto> merged = new LinkedHashMap<>();
+        for (CategoryTotalDto part : parts) {
+            merged.merge(key(part), new CategoryTotalDto(part.getType(), part.getCategoryId(), part.getTotal(), part.getCount()),
+                    (left, right) -> {
+                        left.setTotal(left.getTotal().plus(right.getTotal()));
+                        left.setCount(left.getCount() + right.getCount());
+                        return left;
+                    });
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private Map<String, CategoryTotalDto> index(List<CategoryTotalDto> totals) {
+        Map<String, CategoryTotalDto> result = new HashMap<>();
+        totals.forEach(total -> result.put(key(total), total));
+        return result;
+    }
+
+    private String key(CategoryTotalDto total) {
+        return total.getType() + ":" + total.getCategoryId();
+    }
+
+    private DailyCategoryRollupEntity toEntity(UUID walletId, DailyCategoryTotalDto day) {
+        return DailyCategoryRollupEntity.builder()
+                .walletId(walletId)
+                .rollupDate(day.getDate())
+                .categoryId(day.getCategoryId())
+                .type(day.getType())
+                .totalAmount(day.getTotal())
+                .transactionCount(day.getCount())
+                .build();
+    }
+}
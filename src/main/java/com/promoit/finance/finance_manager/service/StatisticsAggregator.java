@@ -0,0 +1,167 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Однопроходный агрегатор статистики.
+ * За один цикл накапливает общие суммы доходов и расходов, суммы по категориям и признак
+ * наличия расходов в категории. Суммы хранятся в примитивных полях изменяемых аккумуляторов,
+ * поэтому на каждый элемент не создается ни одного объекта - {@link Money} создается один раз
+ * на категорию при построении итоговых карт.
+ * Суммы накапливаются в копейках в long, поэтому сложение точное и не зависит от порядка
+ * слагаемых: частичные результаты параллельных агрегаторов совпадают с последовательным.
+ * Категории адресуются целочисленными id словаря категорий: аккумуляторы лежат в массиве
+ * по id, без хэширования и сравнения строк. Названия подставляются только в итоговые карты.
+ */
+public final class StatisticsAggregator {
+    private long totalIncome;
+    private long totalExpense;
+    private CategoryAccumulator[] categories = new CategoryAccumulator[16];
+
+    /**
+     * Учитывает группу транзакций одного типа и категории.
+     * @param type тип транзакций
+     * @param categoryId id категории
+     * @param amount сумма транзакций группы
+     * @param count количество транзакций в группе
+     */
+    public void add(TransactionType type, int categoryId, Money amount, long count) {
+        addMinor(type, categoryId, amount.minorUnits(), count);
+    }
+
+    /**
+     * Учитывает группу транзакций одного типа и категории с суммой в копейках.
+     * @param type тип транзакций
+     * @param categoryId id категории
+     * @param amountMinor сумма транзакций группы в копейках
+     * @param count количество транзакций в группе
+     */
+    public void addMinor(TransactionType type, int categoryId, long amountMinor, long count) {
+        CategoryAccumulator accumulator = accumulator(categoryId);
+        if (type == TransactionType.INCOME) {
+            totalIncome += amountMinor;
+            accumulator.income += amountMinor;
+            accumulator.incomeCount += count;
+        } else {
+            totalExpense += amountMinor;
+            accumulator.expense += amountMinor;
+            accumulator.expenseCount += count;
+        }
+    }
+
+    public void add(CategoryTotalDto total) {
+        add(total.getType(), total.getCategoryId(), total.getTotal(), total.getCount());
+    }
+
+    public void add(TransactionEntity transaction) {
+        add(transaction.getType(), transaction.getCategoryId(), transaction.getAmount(), 1L);
+    }
+
+    /**
+     * Добавляет к текущему результату частичный результат другого агрегатора.
+     */
+    public void merge(StatisticsAggregator other) {
+        totalIncome += other.totalIncome;
+        totalExpense += other.totalExpense;
+        for (int categoryId = 0; categoryId < other.categories.length; categoryId++) {
+            CategoryAccumulator partial = other.categories[categoryId];
+            if (partial == null) {
+                continue;
+            }
+            CategoryAccumulator accumulator = accumulator(categoryId);
+            accumulator.income += partial.income;
+            accumulator.incomeCount += partial.incomeCount;
+            accumulator.expense += partial.expense;
+            accumulator.expenseCount += partial.expenseCount;
+        }
+    }
+
+    public Money getTotalIncome() {
+        return Money.ofMinor(totalIncome);
+    }
+
+    public Money getTotalExpense() {
+        return Money.ofMinor(totalExpense);
+    }
+
+    public Money getBalance() {
+        return Money.ofMinor(totalIncome - totalExpense);
+    }
+
+    /**
+     * Были ли расходы в категории среди учтенных транзакций
+     */
+    public boolean hasExpense(int categoryId) {
+        CategoryAccumulator accumulator = find(categoryId);
+        return accumulator != null && accumulator.expenseCount > 0;
+    }
+
+    /**
+     * Сумма расходов в категории (0, если расходов не было)
+     */
+    public Money getExpense(int categoryId) {
+        CategoryAccumulator accumulator = find(categoryId);
+        return accumulator != null ? Money.ofMinor(accumulator.expense) : Money.ZERO;
+    }
+
+    /**
+     * Суммы доходов по категориям (только категории, в которых были доходы)
+     * @param names функция получения названия категории по id
+     */
+    public Map<String, Money> getIncomeByCategory(IntFunction<String> names) {
+        Map<String, Money> result = new HashMap<>();
+        for (int categoryId = 0; categoryId < categories.length; categoryId++) {
+            CategoryAccumulator accumulator = categories[categoryId];
+            if (accumulator != null && accumulator.incomeCount > 0) {
+                result.put(names.apply(categoryId), Money.ofMinor(accumulator.income));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Суммы расходов по категориям (только категории, в которых были расходы)
+     * @param names функция получения названия категории по id
+     */
+    public Map<String, Money> getExpenseByCategory(IntFunction<String> names) {
+        Map<String, Money> result = new HashMap<>();
+        for (int categoryId = 0; categoryId < categories.length; categoryId++) {
+            CategoryAccumulator accumulator = categories[categoryId];
+            if (accumulator != null && accumulator.expenseCount > 0) {
+                result.put(names.apply(categoryId), Money.ofMinor(accumulator.expense));
+            }
+        }
+        return result;
+    }
+
+    private CategoryAccumulator find(int categoryId) {
+        return categoryId < categories.length ? categories[categoryId] : null;
+    }
+
+    private CategoryAccumulator accumulator(int categoryId) {
+        if (categoryId >= categories.length) {
+            categories = Arrays.copyOf(categories, Math.max(categoryId + 1, categories.length * 2));
+        }
+        CategoryAccumulator accumulator = categories[categoryId];
+        if (accumulator == null) {
+            accumulator = new CategoryAccumulator();
+            categories[categoryId] = accumulator;
+        }
+        return accumulator;
+    }
+
+    private static final class CategoryAccumulator {
+        private long income;
+        private long expense;
+        private long incomeCount;
+        private long expenseCount;
+    }
+}
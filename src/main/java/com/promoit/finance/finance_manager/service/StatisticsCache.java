@@ -0,0 +1,158 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsCacheKey;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsCacheStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
+import com.promoit.finance.finance_manager.domain.event.BudgetRolloverEvent;
+import com.promoit.finance.finance_manager.domain.event.WalletChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Ограниченный по размеру и времени жизни кэш результатов getStatistics.
+ * Записи кошелька удаляются после коммита любой операции, изменившей кошелек
+ * (транзакция, перевод, установка или удаление бюджета).
+ * Для защиты от гонки "расчет начат до коммита, сохранен после инвалидации" результат сохраняется
+ * по поколению ({@link WalletGenerations}): только если кошелек не инвалидировался за время расчета.
+ * Поколения ограничены тем же размером, что и кэш.
+ */
+@Component
+@Slf4j
+public class StatisticsCache {
+    private final int maxSize;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<StatisticsCacheKey, CachedStatistics> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<UUID, Set<StatisticsCacheKey>> keysByWallet = new HashMap<>();
+    private final WalletGenerations generations;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public StatisticsCache(
+            @Value("${finance.statistics-cache.max-size:10000}") int maxSize,
+            @Value("${finance.statistics-cache.ttl:60s}") Duration ttl
+    ) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.generations = new WalletGenerations(maxSize);
+    }
+
+    /**
+     * Возвращает закэшированную статистику или null, если записи нет или она устарела.
+     */
+    public synchronized StatisticsResponseDto get(StatisticsCacheKey key) {
+        CachedStatistics cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        if (System.nanoTime() - cached.createdAt >= ttlNanos) {
+            remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return cached.statistics;
+    }
+
+    /**
+     * Текущее поколение. Значение нужно получить до расчета и передать в {@link #put}.
+     */
+    public synchronized long generation() {
+        return generations.current();
+    }
+
+    /**
+     * Сохраняет статистику, если кошелек не изменялся с момента получения поколения.
+     * @param key ключ статистики
+     * @param statistics рассчитанная статистика
+     * @param generation поколение, полученное до начала расчета
+     */
+    public synchronized void put(StatisticsCacheKey key, StatisticsResponseDto statistics, long generation) {
+        if (maxSize <= 0 || !generations.unchangedSince(key.walletId(), generation)) {
+            return;
+        }
+        entries.put(key, new CachedStatistics(statistics, System.nanoTime()));
+        keysByWallet.computeIfAbsent(key.walletId(), walletId -> new HashSet<>()).add(key);
+
+        Iterator<Map.Entry<StatisticsCacheKey, CachedStatistics>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            StatisticsCacheKey evicted = eldest.next().getKey();
+            eldest.remove();
+            unindex(evicted);
+            evictions++;
+        }
+    }
+
+    /**
+     * Удаляет всю закэшированную статистику кошелька и отмечает изменение кошелька в поколениях.
+     */
+    public synchronized void invalidate(UUID walletId) {
+        generations.advance(walletId);
+        Set<StatisticsCacheKey> keys = keysByWallet.remove(walletId);
+        if (keys != null) {
+            keys.forEach(entries::remove);
+            invalidations += keys.size();
+        }
+    }
+
+    /**
+     * Инвалидирует статистику кошелька после коммита изменившей его операции
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onWalletChanged(WalletChangedEvent event) {
+        invalidate(event.walletId());
+        log.debug("Кэш статистики кошелька {} инвалидирован", event.walletId());
+    }
+
+    /**
+     * Инвалидирует статистику кошельков, бюджеты которых перешли на следующий период
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBudgetRollover(BudgetRolloverEvent event) {
+        event.budgets().stream()
+                .map(ExpiredBudgetDto::getWalletId)
+                .distinct()
+                .forEach(this::invalidate);
+    }
+
+    public synchronized StatisticsCacheStatsDto getStats() {
+        return StatisticsCacheStatsDto.builder()
+                .size(entries.size())
+                .maxSize(maxSize)
+                .hits(hits)
+                .misses(misses)
+                .evictions(evictions)
+                .invalidations(invalidations)
+                .build();
+    }
+
+    private void remove(StatisticsCacheKey key) {
+        entries.remove(key);
+        unindex(key);
+    }
+
+    private void unindex(StatisticsCacheKey key) {
+        Set<StatisticsCacheKey> keys = keysByWallet.get(key.walletId());
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByWallet.remove(key.walletId());
+            }
+        }
+    }
+
+    private record CachedStatistics(StatisticsResponseDto statistics, long createdAt) {
+    }
+}
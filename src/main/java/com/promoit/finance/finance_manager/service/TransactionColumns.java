@@ -0,0 +1,129 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Транзакции одного кошелька в колоночном виде: время, сумма и категория хранятся
+ * в отдельных примитивных массивах, тип - в битовой маске (бит установлен для расхода).
+ * Сканирование идет по плотным массивам без ссылок на объекты, поэтому в кэш процессора
+ * попадают только нужные для расчета данные.
+ * Суммы хранятся в копейках ({@link Money#minorUnits()}), сканирование складывает long без округлений.
+ * Время хранится в микросекундах от эпохи (UTC) - это точность хранения TIMESTAMP в БД,
+ * поэтому границы периода сравниваются так же, как в запросах.
+ */
+public final class TransactionColumns {
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Оценка постоянных накладных расходов на кошелек (объекты массивов и заголовки)
+     */
+    private static final long OVERHEAD_BYTES = 128;
+
+    private long[] epochMicros;
+    private long[] amountsMinor;
+    private int[] categoryIds;
+    private final BitSet expenses = new BitSet();
+    private int size;
+    private int maxCategoryId = -1;
+
+    public TransactionColumns() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public TransactionColumns(int capacity) {
+        int initial = Math.max(capacity, INITIAL_CAPACITY);
+        epochMicros = new long[initial];
+        amountsMinor = new long[initial];
+        categoryIds = new int[initial];
+    }
+
+    public static long toEpochMicros(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + date.getNano() / 1_000;
+    }
+
+    /**
+     * Добавляет транзакцию в конец колонок
+     * @param epochMicros время транзакции в микросекундах от эпохи
+     * @param type тип транзакции
+     * @param categoryId id категории в словаре категорий
+     * @param amount сумма транзакции
+     */
+    public void append(long epochMicros, TransactionType type, int categoryId, Money amount) {
+        if (size == this.epochMicros.length) {
+            int capacity = size + (size >> 1);
+            this.epochMicros = Arrays.copyOf(this.epochMicros, capacity);
+            this.amountsMinor = Arrays.copyOf(this.amountsMinor, capacity);
+            this.categoryIds = Arrays.copyOf(this.categoryIds, capacity);
+        }
+        this.epochMicros[size] = epochMicros;
+        this.amountsMinor[size] = amount.minorUnits();
+        this.categoryIds[size] = categoryId;
+        if (type == TransactionType.EXPENSE) {
+            expenses.set(size);
+        }
+        maxCategoryId = Math.max(maxCategoryId, categoryId);
+        size++;
+    }
+
+    /**
+     * Считает суммы по типу и категории за период одним проходом по колонкам.
+     * @param fromMicros начало периода включительно
+     * @param toMicros конец периода включительно
+     * @param allowedCategories признаки допустимых категорий по id (null = все категории)
+     * @return StatisticsAggregator с результатом
+     */
+    public StatisticsAggregator aggregate(long fromMicros, long toMicros, boolean[] allowedCategories) {
+        int categories = maxCategoryId + 1;
+        long[] income = new long[categories];
+        long[] expense = new long[categories];
+        long[] incomeCount = new long[categories];
+        long[] expenseCount = new long[categories];
+
+        for (int i = 0; i < size; i++) {
+            long time = epochMicros[i];
+            if (time < fromMicros || time > toMicros) {
+                continue;
+            }
+            int category = categoryIds[i];
+            if (allowedCategories != null && (category >= allowedCategories.length || !allowedCategories[category])) {
+                continue;
+            }
+            if (expenses.get(i)) {
+                expense[category] += amountsMinor[i];
+                expenseCount[category]++;
+            } else {
+                income[category] += amountsMinor[i];
+                incomeCount[category]++;
+            }
+        }
+
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        for (int category = 0; category < categories; category++) {
+            if (incomeCount[category] > 0) {
+                aggregator.addMinor(TransactionType.INCOME, category, income[category], incomeCount[category]);
+            }
+            if (expenseCount[category] > 0) {
+                aggregator.addMinor(TransactionType.EXPENSE, category, expense[category], expenseCount[category]);
+            }
+        }
+        return aggregator;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Оценка занятой памяти в байтах
+     */
+    public long estimatedBytes() {
+        return OVERHEAD_BYTES
+                + (long) epochMicros.length * (Long.BYTES + Long.BYTES + Integer.BYTES)
+                + expenses.size() / Byte.SIZE;
+    }
+}
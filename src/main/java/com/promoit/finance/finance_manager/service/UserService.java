@@ -1,5 +1,6 @@
 package com.promoit.finance.finance_manager.service;
 
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import com.promoit.finance.finance_manager.domain.dto.user.UserAuthDto;
 import com.promoit.finance.finance_manager.domain.dto.user.UserResponseDto;
 import com.promoit.finance.finance_manager.domain.entity.UserEntity;
@@ -39,7 +40,7 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(password));
 
         WalletEntity wallet = new WalletEntity();
-        wallet.setBalance(0.0);
+        wallet.setBalance(Money.ZERO);
         wallet.setUser(user);
 
         user.setWallet(wallet);
@@ -0,0 +1,67 @@
+package com.promoit.finance.finance_manager.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * Поколения кошельков для кэшей в памяти ({@link StatisticsCache}, {@link BudgetIndex}): защищают
+ * от гонки "чтение начато до коммита изменения, результат сохранен после инвалидации".
+ * Поколение - значение общего счетчика: оно фиксируется до чтения из БД, инвалидация кошелька
+ * увеличивает счетчик и запоминает новое значение для кошелька. Результат чтения сохраняется,
+ * только если кошелек не инвалидировался после фиксации поколения.
+ * Хранятся только последние {@code maxWallets} инвалидированных кошельков, поэтому размер
+ * не растет с количеством кошельков. Для вытесненных запоминается наибольшее значение счетчика:
+ * чтения, начатые раньше него, не сохраняются ни для какого кошелька.
+ * Класс не потокобезопасен - вызывающий код обращается к нему под своей блокировкой.
+ */
+final class WalletGenerations {
+    private final int maxWallets;
+    private final LinkedHashMap<UUID, Long> changes = new LinkedHashMap<>();
+    private long clock;
+    private long evictedUpTo;
+
+    /**
+     * @param maxWallets сколько последних инвалидированных кошельков помнить
+     */
+    WalletGenerations(int maxWallets) {
+        this.maxWallets = Math.max(maxWallets, 0);
+    }
+
+    /**
+     * Текущее поколение. Значение нужно получить до чтения и передать в {@link #unchangedSince}.
+     */
+    long current() {
+        return clock;
+    }
+
+    /**
+     * Отмечает изменение кошелька
+     */
+    void advance(UUID walletId) {
+        clock++;
+        // Порядок вставки совпадает с порядком значений: старейшее изменение всегда первое
+        changes.remove(walletId);
+        changes.put(walletId, clock);
+        Iterator<Long> eldest = changes.values().iterator();
+        while (changes.size() > maxWallets && eldest.hasNext()) {
+            evictedUpTo = eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Не изменялся ли кошелек после получения поколения
+     * @param generation поколение, полученное до чтения
+     */
+    boolean unchangedSince(UUID walletId, long generation) {
+        return generation >= evictedUpTo && changes.getOrDefault(walletId, 0L) <= generation;
+    }
+
+    /**
+     * Количество запомненных кошельков
+     */
+    int size() {
+        return changes.size();
+    }
+}
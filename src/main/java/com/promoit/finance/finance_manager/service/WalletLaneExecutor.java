@@ -0,0 +1,437 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.WriteLaneStatsDto;
+import com.promoit.finance.finance_manager.domain.exception.wallet.WalletLaneBusyException;
+import com.promoit.finance.finance_manager.domain.exception.wallet.WalletLaneTimeoutException;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Полосы записи кошельков (режим finance.write-lanes.enabled).
+ * Каждая записывающая операция кошелька направляется в одну из N полос по хэшу walletId.
+ * Полоса - один поток с ограниченной очередью, поэтому записи одного кошелька выполняются
+ * последовательно и не конкурируют за его строку в БД. Накопившиеся в очереди операции
+ * фиксируются группой в одной транзакции; если группа откатывается, ее операции выполняются
+ * заново по одной, чтобы ошибка одной операции не отменяла остальные.
+ * Вызывающий поток ждет результат не дольше finance.write-lanes.timeout.
+ * Перевод меняет два кошелька, поэтому выполняется в полосах обоих: в полосе с большим номером
+ * ставится барьер, который останавливает ее, пока перевод выполняется в полосе с меньшим номером.
+ * Операции двух полос ставятся в очереди под общей блокировкой, поэтому во всех очередях они стоят
+ * в одном порядке и полосы не могут ждать друг друга по кругу.
+ * При остановке приложения операции, оставшиеся в очередях, завершаются ошибкой.
+ * Без режима полос операции выполняются в вызывающем потоке через {@link WalletWriteExecutor}.
+ */
+@Component
+@Slf4j
+public class WalletLaneExecutor {
+    private final WalletWriteExecutor writeExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletRepository walletRepository;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int groupSize;
+    private final long timeoutNanos;
+    private final Lane[] lanes;
+    /**
+     * Блокировка постановки операций сразу в две полосы
+     */
+    private final Object crossLaneLock = new Object();
+    private volatile boolean stopped;
+
+    public WalletLaneExecutor(
+            WalletWriteExecutor writeExecutor,
+            TransactionTemplate transactionTemplate,
+            WalletRepository walletRepository,
+            @Value("${finance.write-lanes.enabled:false}") boolean enabled,
+            @Value("${finance.write-lanes.lanes:0}") int lanes,
+            @Value("${finance.write-lanes.queue-capacity:1000}") int queueCapacity,
+            @Value("${finance.write-lanes.group-size:16}") int groupSize,
+            @Value("${finance.write-lanes.timeout:5s}") Duration timeout
+    ) {
+        this.writeExecutor = writeExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.walletRepository = walletRepository;
+        this.enabled = enabled;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.groupSize = Math.max(1, groupSize);
+        this.timeoutNanos = timeout.toNanos();
+        int count = lanes > 0 ? lanes : Runtime.getRuntime().availableProcessors();
+        this.lanes = new Lane[enabled ? count : 0];
+        for (int i = 0; i < this.lanes.length; i++) {
+            this.lanes[i] = new Lane(i);
+            this.lanes[i].thread.start();
+        }
+        if (enabled) {
+            log.info("Полосы записи кошельков включены: полос {}, очередь {}, группа {}", count, this.queueCapacity, this.groupSize);
+        }
+    }
+
+    /**
+     * Выполняет записывающую операцию кошелька в его полосе.
+     * @param walletId UUID кошелька, по которому выбирается полоса
+     * @param operation транзакционная операция
+     * @return результат операции
+     * @throws WalletLaneBusyException если очередь полосы заполнена
+     * @throws WalletLaneTimeoutException если результат не получен за отведенное время
+     */
+    public <T> T execute(UUID walletId, Supplier<T> operation) {
+        if (!enabled) {
+            return writeExecutor.execute(operation);
+        }
+        return submit(lanes[laneIndex(walletId)], operation);
+    }
+
+    /**
+     * Вариант {@link #execute(UUID, Supplier)} для операций без результата
+     */
+    public void execute(UUID walletId, Runnable operation) {
+        execute(walletId, () -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Выполняет операцию двух пользователей (перевод) в полосах кошельков обоих.
+     * Если кошельки попадают в одну полосу, операция выполняется в ней как обычно; иначе полоса
+     * второго кошелька останавливается барьером на время выполнения операции в полосе первого.
+     * Если пользователь не найден, полоса выбирается по имени, а ошибку сообщит сама операция.
+     * @param fromUsername логин отправителя
+     * @param toUsername логин получателя
+     * @param operation транзакционная операция
+     */
+    public void execute(String fromUsername, String toUsername, Runnable operation) {
+        if (!enabled) {
+            writeExecutor.execute(operation);
+            return;
+        }
+        Map<String, UUID> walletIds = new HashMap<>();
+        walletRepository.findByUsernames(List.of(fromUsername, toUsername))
+                .forEach(user -> walletIds.put(user.getUsername(), user.getWalletId()));
+        int from = laneIndex(walletIds.containsKey(fromUsername) ? walletIds.get(fromUsername) : fromUsername);
+        int to = laneIndex(walletIds.containsKey(toUsername) ? walletIds.get(toUsername) : toUsername);
+        Supplier<Object> supplier = () -> {
+            operation.run();
+            return null;
+        };
+        if (from == to) {
+            submit(lanes[from], supplier);
+        } else {
+            submitCrossLane(lanes[Math.min(from, to)], lanes[Math.max(from, to)], supplier);
+        }
+    }
+
+    public WriteLaneStatsDto getStats() {
+        List<WriteLaneStatsDto.Lane> items = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            long operations = lane.operations.get();
+            items.add(WriteLaneStatsDto.Lane.builder()
+                    .index(lane.index)
+                    .queueDepth(lane.queue.size())
+                    .operations(operations)
+                    .groups(lane.groups.get())
+                    .fallbacks(lane.fallbacks.get())
+                    .rejected(lane.rejected.get())
+                    .timeouts(lane.timeouts.get())
+                    .avgLatencyMicros(operations == 0 ? 0 : lane.latencyNanos.get() / operations / 1000)
+                    .maxLatencyMicros(lane.maxLatencyNanos.get() / 1000)
+                    .build());
+        }
+        return WriteLaneStatsDto.builder()
+                .enabled(enabled)
+                .lanes(lanes.length)
+                .queueCapacity(queueCapacity)
+                .groupSize(groupSize)
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Останавливает полосы. Операции, которые остались в очередях и еще не начаты,
+     * завершаются ошибкой, чтобы вызывающие потоки не ждали их до таймаута.
+     */
+    @PreDestroy
+    public void shutdown() {
+        stopped = true;
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int abandoned = 0;
+        for (Lane lane : lanes) {
+            List<Task> pending = new ArrayList<>();
+            lane.queue.drainTo(pending);
+            for (Task task : pending) {
+                if (task.started.compareAndSet(false, true)) {
+                    task.result.completeExceptionally(stoppedException());
+                    abandoned++;
+                }
+            }
+        }
+        if (abandoned > 0) {
+            log.info("Полосы записи остановлены, не выполнено операций из очередей: {}", abandoned);
+        }
+    }
+
+    private int laneIndex(Object routingKey) {
+        return Math.floorMod(routingKey.hashCode(), lanes.length);
+    }
+
+    private <T> T submit(Lane lane, Supplier<T> operation) {
+        Task task = new Task(operation, null);
+        enqueue(lane, task);
+        return await(lane, task);
+    }
+
+    /**
+     * Ставит операцию в полосу first, а барьер - в полосу second (номер first меньше).
+     * Постановка в обе очереди выполняется под общей блокировкой: операции двух полос
+     * во всех очередях идут в одном порядке.
+     */
+    private <T> T submitCrossLane(Lane first, Lane second, Supplier<T> operation) {
+        Task task = new Task(operation, new CountDownLatch(1));
+        synchronized (crossLaneLock) {
+            enqueue(first, task);
+            try {
+                enqueue(second, Task.barrier(task));
+            } catch (WalletLaneBusyException e) {
+                // Операция уже в первой очереди: помечаем ее завершенной, полоса ее пропустит
+                task.result.completeExceptionally(e);
+                task.partnerReady.countDown();
+                throw e;
+            }
+        }
+        return await(first, task);
+    }
+
+    private void enqueue(Lane lane, Task task) {
+        if (stopped) {
+            throw stoppedException();
+        }
+        if (!lane.queue.offer(task)) {
+            lane.rejected.incrementAndGet();
+            throw new WalletLaneBusyException("Очередь записи кошелька переполнена, повторите запрос позже");
+        }
+    }
+
+    private static WalletLaneBusyException stoppedException() {
+        return new WalletLaneBusyException("Сервис останавливается, операция не выполнена");
+    }
+
+    private <T> T await(Lane lane, Task task) {
+        try {
+            @SuppressWarnings("unchecked")
+            T result = (T) task.result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (TimeoutException e) {
+            lane.timeouts.incrementAndGet();
+            if (task.started.compareAndSet(false, true)) {
+                // Операция еще не начата и уже не будет выполнена; барьер перевода во второй полосе освобождается
+                WalletLaneTimeoutException error =
+                        new WalletLaneTimeoutException("Операция не выполнена: очередь записи кошелька перегружена");
+                task.result.completeExceptionally(error);
+                throw error;
+            }
+            throw new WalletLaneTimeoutException("Операция не завершилась за отведенное время, результат неизвестен");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WalletLaneTimeoutException("Ожидание результата операции прервано");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Цикл потока полосы: забирает из очереди до groupSize операций и выполняет их группой
+     */
+    private void run(Lane lane) {
+        List<Task> group = new ArrayList<>(groupSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                group.add(lane.queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            lane.queue.drainTo(group, groupSize - 1);
+            group.removeIf(task -> !task.started.compareAndSet(false, true));
+            // Операции двух полос выполняются отдельно от групп, с сохранением порядка очереди
+            int from = 0;
+            for (int i = 0; i < group.size(); i++) {
+                Task task = group.get(i);
+                if (task.isCrossLane()) {
+                    runBatch(lane, group.subList(from, i));
+                    runCrossLane(lane, task);
+                    from = i + 1;
+                }
+            }
+            runBatch(lane, group.subList(from, group.size()));
+            group.clear();
+        }
+    }
+
+    private void runBatch(Lane lane, List<Task> batch) {
+        if (batch.size() == 1) {
+            runSingle(lane, batch.get(0));
+        } else if (!batch.isEmpty()) {
+            runGroup(lane, new ArrayList<>(batch));
+        }
+    }
+
+    /**
+     * Барьер сообщает полосе операции, что вторая полоса остановлена, и ждет завершения операции.
+     * Операция ждет барьер и выполняется в собственной транзакции.
+     */
+    private void runCrossLane(Lane lane, Task task) {
+        try {
+            if (task.partner != null) {
+                task.partner.partnerReady.countDown();
+                task.partner.result.get();
+                return;
+            }
+            task.partnerReady.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (task.partner == null) {
+                complete(lane, task, null, stoppedException());
+            }
+            return;
+        } catch (ExecutionException e) {
+            // Ошибку операции получает ее вызывающий поток, барьер только освобождает полосу
+            return;
+        }
+        if (!task.result.isDone()) {
+            runSingle(lane, task);
+        }
+    }
+
+    private void runGroup(Lane lane, List<Task> group) {
+        List<Object> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                List<Object> values = new ArrayList<>(group.size());
+                for (Task task : group) {
+                    values.add(task.operation.get());
+                }
+                return values;
+            });
+        } catch (RuntimeException e) {
+            // Одна из операций не прошла (например, недостаточно средств) - вся группа откачена,
+            // каждая операция выполняется заново в собственной транзакции
+            lane.fallbacks.incrementAndGet();
+            log.debug("Групповая транзакция полосы {} откачена ({}), операции выполняются по одной", lane.index, e.getMessage());
+            for (Task task : group) {
+                runSingle(lane, task);
+            }
+            return;
+        }
+        lane.groups.incrementAndGet();
+        for (int i = 0; i < group.size(); i++) {
+            complete(lane, group.get(i), results.get(i), null);
+        }
+    }
+
+    private void runSingle(Lane lane, Task task) {
+        try {
+            Object result = writeExecutor.execute(() -> transactionTemplate.execute(status -> task.operation.get()));
+            complete(lane, task, result, null);
+        } catch (RuntimeException e) {
+            complete(lane, task, null, e);
+        }
+    }
+
+    private void complete(Lane lane, Task task, Object result, RuntimeException error) {
+        long latency = System.nanoTime() - task.enqueuedAt;
+        lane.operations.incrementAndGet();
+        lane.latencyNanos.addAndGet(latency);
+        lane.maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        if (error != null) {
+            task.result.completeExceptionally(error);
+        } else {
+            task.result.complete(result);
+        }
+    }
+
+    /**
+     * Операция в очереди полосы
+     */
+    private static class Task {
+        private final Supplier<?> operation;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        /**
+         * Для операции двух полос: барьер во второй полосе остановил ее (null для обычной операции)
+         */
+        private final CountDownLatch partnerReady;
+        /**
+         * Для барьера: операция двух полос, на время которой останавливается полоса
+         */
+        private final Task partner;
+
+        private Task(Supplier<?> operation, CountDownLatch partnerReady) {
+            this(operation, partnerReady, null);
+        }
+
+        private Task(Supplier<?> operation, CountDownLatch partnerReady, Task partner) {
+            this.operation = operation;
+            this.partnerReady = partnerReady;
+            this.partner = partner;
+        }
+
+        private static Task barrier(Task operation) {
+            return new Task(null, null, operation);
+        }
+
+        private boolean isCrossLane() {
+            return partnerReady != null || partner != null;
+        }
+    }
+
+    /**
+     * Полоса: поток, очередь и счетчики
+     */
+    private class Lane {
+        private final int index;
+        private final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final Thread thread;
+
+        private final AtomicLong operations = new AtomicLong();
+        private final AtomicLong groups = new AtomicLong();
+        private final AtomicLong fallbacks = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        private Lane(int index) {
+            this.index = index;
+            this.thread = new Thread(() -> WalletLaneExecutor.this.run(this), "wallet-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.WriteRetryStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет записывающие операции кошелька с повтором при конфликте оптимистической блокировки.
+ * Операция должна открывать собственную транзакцию (вызов транзакционного метода сервиса),
+ * чтобы каждый повтор заново читал кошелек и бюджеты. Пауза перед повтором растет экспоненциально
+ * и выбирается случайно от нуля до текущего предела, чтобы конфликтующие запросы не повторялись одновременно.
+ */
+@Component
+@Slf4j
+public class WalletWriteExecutor {
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final AtomicLong operations = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public WalletWriteExecutor(
+            @Value("${finance.write-retry.max-attempts:5}") int maxAttempts,
+            @Value("${finance.write-retry.initial-backoff:5ms}") Duration initialBackoff,
+            @Value("${finance.write-retry.max-backoff:200ms}") Duration maxBackoff
+    ) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    /**
+     * Выполняет операцию, повторяя ее при конфликте версий.
+     * @param operation транзакционная операция
+     * @return результат операции
+     * @throws OptimisticLockingFailureException если конфликт повторился maxAttempts раз
+     */
+    public <T> T execute(Supplier<T> operation) {
+        operations.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    log.warn("Конфликт записи не разрешен за {} попыток: {}", maxAttempts, e.getMessage());
+                    throw e;
+                }
+                retries.incrementAndGet();
+                log.debug("Конфликт записи, попытка {} из {}", attempt, maxAttempts);
+                pause(attempt, e);
+            }
+        }
+    }
+
+    /**
+     * Вариант {@link #execute(Supplier)} для операций без результата
+     */
+    public void execute(Runnable operation) {
+        execute(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    public WriteRetryStatsDto getStats() {
+        return WriteRetryStatsDto.builder()
+                .maxAttempts(maxAttempts)
+                .operations(operations.get())
+                .conflicts(conflicts.get())
+                .retries(retries.get())
+                .exhausted(exhausted.get())
+                .build();
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        long limit = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        long nanos = ThreadLocalRandom.current().nextLong(limit + 1);
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
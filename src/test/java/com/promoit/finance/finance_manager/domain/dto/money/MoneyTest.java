@@ -0,0 +1,76 @@
+package com.promoit.finance.finance_manager.domain.dto.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Сумма из десятичного числа округляется до копейки по правилу HALF_UP")
+    void of_BigDecimal_RoundsHalfUp() {
+        assertEquals(1234L, Money.of(new BigDecimal("12.34")).minorUnits());
+        assertEquals(1235L, Money.of(new BigDecimal("12.345")).minorUnits());
+        assertEquals(1234L, Money.of(new BigDecimal("12.3449")).minorUnits());
+        assertEquals(-1235L, Money.of(new BigDecimal("-12.345")).minorUnits());
+        assertEquals(1200L, Money.of(new BigDecimal("12")).minorUnits());
+    }
+
+    @Test
+    @DisplayName("Слишком большая сумма не помещается в long и отклоняется")
+    void of_BigDecimalOverflow_Throws() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e20")));
+    }
+
+    @Test
+    @DisplayName("Сумма из double восстанавливает точное число копеек")
+    void of_Double_RoundsToMinorUnits() {
+        assertEquals(Money.ofMinor(30), Money.of(0.1 + 0.2));
+        assertEquals(Money.ofMinor(12346), Money.of(123.456));
+        assertEquals(Money.ofMinor(-1050), Money.of(-10.5));
+        assertEquals(1999L, Money.toMinor(19.99));
+        assertEquals(100.5, Money.toDouble(10050));
+        assertEquals(19.99, Money.ofMinor(1999).toDouble());
+    }
+
+    @Test
+    @DisplayName("Сложение и вычитание точные, переполнение не проходит молча")
+    void plusMinus_ExactArithmetic() {
+        Money sum = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            sum = sum.plus(Money.of(0.1));
+        }
+        assertEquals(Money.of(1.0), sum);
+        assertTrue(Money.of(5.0).minus(Money.of(5.01)).isNegative());
+        assertTrue(Money.of(1.0).compareTo(Money.of(0.99)) > 0);
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MIN_VALUE).minus(Money.ofMinor(1)));
+    }
+
+    @Test
+    @DisplayName("Процент от суммы считается по копейкам и округляется до двух знаков")
+    void percentOf_RoundsHalfUp() {
+        assertEquals(new BigDecimal("85.00"), Money.of(85.0).percentOf(Money.of(100.0)));
+        assertEquals(new BigDecimal("33.33"), Money.of(1.0).percentOf(Money.of(3.0)));
+        assertEquals(new BigDecimal("66.67"), Money.of(2.0).percentOf(Money.of(3.0)));
+        assertEquals(new BigDecimal("120.00"), Money.of(1200.0).percentOf(Money.of(1000.0)));
+        assertEquals(Money.ofMinor(-1050), Money.of(10.5).negate());
+    }
+
+    @Test
+    @DisplayName("В JSON сумма записывается числом с двумя знаками и читается обратно")
+    void json_RoundTrip() throws Exception {
+        Money money = Money.ofMinor(1234);
+
+        String json = objectMapper.writeValueAsString(money);
+
+        assertEquals("12.34", json);
+        assertEquals(money, objectMapper.readValue(json, Money.class));
+        assertEquals(Money.ofMinor(1200), objectMapper.readValue("12", Money.class));
+        assertEquals(Money.ofMinor(1235), objectMapper.readValue("12.345", Money.class));
+        assertEquals("12.00", Money.ofMinor(1200).toString());
+    }
+}
@@ -0,0 +1,29 @@
+package com.promoit.finance.finance_manager.domain.entity.converter;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyConverterTest {
+    private final MoneyConverter converter = new MoneyConverter();
+
+    @Test
+    @DisplayName("Сумма хранится в колонке количеством копеек и читается без потерь")
+    void convert_RoundTrip() {
+        Money money = Money.of(123.45);
+
+        Long column = converter.convertToDatabaseColumn(money);
+
+        assertEquals(12345L, column);
+        assertEquals(money, converter.convertToEntityAttribute(column));
+        assertEquals(Money.ofMinor(-50), converter.convertToEntityAttribute(-50L));
+    }
+
+    @Test
+    @DisplayName("Пустое значение преобразуется в NULL и обратно")
+    void convert_Null() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
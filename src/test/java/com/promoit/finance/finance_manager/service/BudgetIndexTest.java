@@ -0,0 +1,116 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetLimitDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.event.BudgetChangedEvent;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetIndexTest {
+    private static final int FOOD = 2;
+    private static final int TRANSPORT = 3;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    private BudgetIndex budgetIndex;
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        budgetIndex = new BudgetIndex(budgetRepository, 1);
+        walletId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Бюджеты кошелька загружаются один раз, повторные проверки обслуживаются из памяти")
+    void budgets_LoadsWalletOnce() {
+        when(budgetRepository.findLimitsByWalletId(walletId)).thenReturn(List.of(limit(FOOD, 500.0)));
+
+        assertTrue(budgetIndex.budgets(walletId).containsKey(FOOD));
+        assertFalse(budgetIndex.budgets(walletId).containsKey(TRANSPORT));
+        assertFalse(budgetIndex.budgets(walletId).containsKey(TRANSPORT));
+
+        verify(budgetRepository, times(1)).findLimitsByWalletId(walletId);
+        assertEquals(2L, budgetIndex.getStats().getHits());
+        assertEquals(1L, budgetIndex.getStats().getLoads());
+    }
+
+    @Test
+    @DisplayName("Изменение бюджета после коммита применяется к индексу без повторной загрузки")
+    void onBudgetChanged_UpdatesCachedWallet() {
+        when(budgetRepository.findLimitsByWalletId(walletId)).thenReturn(List.of(limit(FOOD, 500.0)));
+        budgetIndex.budgets(walletId);
+
+        budgetIndex.onBudgetChanged(new BudgetChangedEvent(walletId, TRANSPORT, Money.of(100.0), BudgetPeriod.NONE, null, null, null));
+        budgetIndex.onBudgetChanged(new BudgetChangedEvent(walletId, FOOD, null, null, null, null, null));
+
+        assertEquals(List.of(TRANSPORT), List.copyOf(budgetIndex.budgets(walletId).keySet()));
+        verify(budgetRepository, times(1)).findLimitsByWalletId(walletId);
+        assertEquals(2L, budgetIndex.getStats().getUpdates());
+    }
+
+    @Test
+    @DisplayName("Загрузка, начатая до изменения бюджета, не сохраняется в индекс")
+    void budgets_ChangeDuringLoad_DoesNotStoreStaleBudgets() {
+        when(budgetRepository.findLimitsByWalletId(walletId))
+                .thenAnswer(invocation -> {
+                    // Параллельная установка бюджета фиксируется, пока загрузка читает старые данные
+                    budgetIndex.onBudgetChanged(new BudgetChangedEvent(walletId, FOOD, Money.of(800.0), BudgetPeriod.NONE, null, null, null));
+                    return List.of(limit(FOOD, 500.0));
+                })
+                .thenReturn(List.of(limit(FOOD, 800.0)));
+
+        budgetIndex.budgets(walletId);
+
+        assertEquals(Money.of(800.0), budgetIndex.budgets(walletId).get(FOOD).getLimitAmount());
+        verify(budgetRepository, times(2)).findLimitsByWalletId(walletId);
+    }
+
+    @Test
+    @DisplayName("Бюджеты, прочитанные в транзакции изменения до коммита, не сохраняются в индекс")
+    void budgets_DuringUncommittedChange_DoesNotStoreUntilCompletion() {
+        BudgetChangedEvent change = new BudgetChangedEvent(walletId, FOOD, Money.of(800.0), BudgetPeriod.NONE, null, null, null);
+        when(budgetRepository.findLimitsByWalletId(walletId))
+                .thenReturn(List.of(limit(FOOD, 800.0)))   // незафиксированное изменение той же транзакции
+                .thenReturn(List.of(limit(FOOD, 500.0)));  // после отката
+
+        budgetIndex.onBudgetChanging(change);
+        assertEquals(Money.of(800.0), budgetIndex.budgets(walletId).get(FOOD).getLimitAmount());
+        assertEquals(0, budgetIndex.getStats().getWallets());
+
+        budgetIndex.onBudgetChangeRolledBack(change);
+        assertEquals(Money.of(500.0), budgetIndex.budgets(walletId).get(FOOD).getLimitAmount());
+        assertEquals(Money.of(500.0), budgetIndex.budgets(walletId).get(FOOD).getLimitAmount());
+        verify(budgetRepository, times(2)).findLimitsByWalletId(walletId);
+        assertEquals(1, budgetIndex.getStats().getWallets());
+    }
+
+    @Test
+    @DisplayName("Сверка находит расхождение с БД и удаляет кошелек из индекса")
+    void verify_Mismatch_InvalidatesWallet() {
+        when(budgetRepository.findLimitsByWalletId(walletId))
+                .thenReturn(List.of(limit(FOOD, 500.0)))
+                .thenReturn(List.of(limit(FOOD, 700.0)));
+        budgetIndex.budgets(walletId);
+
+        assertFalse(budgetIndex.verify(walletId));
+        assertEquals(1L, budgetIndex.getStats().getMismatches());
+        assertEquals(0, budgetIndex.getStats().getWallets());
+    }
+
+    private static BudgetLimitDto limit(int categoryId, double limitAmount) {
+        return new BudgetLimitDto(categoryId, Money.of(limitAmount), BudgetPeriod.NONE, null, null, null);
+    }
+}
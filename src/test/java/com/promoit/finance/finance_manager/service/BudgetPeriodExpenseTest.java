@@ -0,0 +1,81 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
+import com.promoit.finance.finance_manager.domain.entity.BudgetHistoryEntity;
+import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.repository.BudgetHistoryRepository;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:budget-period-expense")
+@ActiveProfiles("test")
+class BudgetPeriodExpenseTest {
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FinanceService financeService;
+    @Autowired
+    private CategoryDictionary categoryDictionary;
+    @Autowired
+    private BudgetIndex budgetIndex;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private BudgetRepository budgetRepository;
+    @Autowired
+    private BudgetHistoryRepository budgetHistoryRepository;
+
+    @Test
+    @DisplayName("Расход после конца периода до перехода по расписанию не попадает в траты прошедшего периода")
+    void addTransaction_AfterPeriodEndBeforeRollover_ChargesNewPeriod() {
+        LocalDate today = LocalDate.now();
+        String username = UUID.randomUUID().toString().substring(0, 8) + "-budget";
+        UUID walletId = userService.register(username, "password").getWalletId();
+        financeService.addTransaction(walletId, transaction(TransactionType.INCOME, 1000.0));
+        financeService.setBudget(walletId, "Food", 100.0, BudgetPeriod.MONTHLY, null);
+
+        // Прошедший период: закончился сегодня, траты 40, переход на следующий период еще не выполнялся
+        WalletEntity wallet = walletRepository.findById(walletId).orElseThrow();
+        int categoryId = categoryDictionary.findId("Food");
+        BudgetEntity budget = budgetRepository.findByWalletAndCategoryId(wallet, categoryId).orElseThrow();
+        budget.setPeriodStart(today.minusMonths(1));
+        budget.setPeriodEnd(today);
+        budget.setCurrentSpent(Money.of(40.0));
+        budgetRepository.save(budget);
+        budgetIndex.invalidate(walletId);
+
+        financeService.addTransaction(walletId, transaction(TransactionType.EXPENSE, 30.0));
+
+        BudgetEntity current = budgetRepository.findByWalletAndCategoryId(wallet, categoryId).orElseThrow();
+        assertEquals(Money.of(30.0), current.getCurrentSpent());
+        assertEquals(today, current.getPeriodStart());
+        assertEquals(today.plusMonths(1), current.getPeriodEnd());
+        List<BudgetHistoryEntity> history = budgetHistoryRepository.findAll().stream()
+                .filter(period -> period.getBudgetId().equals(budget.getId()))
+                .toList();
+        assertEquals(1, history.size());
+        assertEquals(Money.of(40.0), history.get(0).getSpent());
+        assertEquals(today, history.get(0).getPeriodEnd());
+    }
+
+    private static TransactionRequestDto transaction(TransactionType type, double amount) {
+        return TransactionRequestDto.builder()
+                .type(type)
+                .amount(amount)
+                .category(type == TransactionType.INCOME ? "Salary" : "Food")
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.ExpiredBudgetDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.BudgetRolloverResponseDto;
+import com.promoit.finance.finance_manager.domain.event.BudgetRolloverEvent;
+import com.promoit.finance.finance_manager.domain.repository.BudgetHistoryRepository;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetRolloverServiceTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 11, 1);
+
+    @Mock
+    private BudgetRepository budgetRepository;
+    @Mock
+    private BudgetHistoryRepository budgetHistoryRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    @DisplayName("Бюджеты переводятся порциями: архивирование и обнуление одним запросом на порцию")
+    @SuppressWarnings("unchecked")
+    void rollover_ProcessesBatchesUntilNoExpiredBudgets() {
+        BudgetRolloverService service = service(Duration.ofSeconds(10));
+        List<ExpiredBudgetDto> first = List.of(expired(), expired());
+        List<ExpiredBudgetDto> second = List.of(expired());
+        when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(budgetRepository.lockExpired(TODAY, PageRequest.of(0, 2)))
+                .thenReturn(first)
+                .thenReturn(second)
+                .thenReturn(List.of());
+
+        BudgetRolloverResponseDto result = service.rollover(TODAY);
+
+        assertEquals(3L, result.getBudgets());
+        assertEquals(2, result.getBatches());
+        assertTrue(result.getCompleted());
+        List<UUID> firstIds = first.stream().map(ExpiredBudgetDto::getId).toList();
+        InOrder inOrder = inOrder(budgetHistoryRepository, budgetRepository, eventPublisher);
+        inOrder.verify(budgetHistoryRepository).archiveCurrentPeriod(firstIds);
+        inOrder.verify(budgetRepository).rollOver(firstIds);
+        inOrder.verify(eventPublisher).publishEvent(new BudgetRolloverEvent(first));
+        verify(budgetRepository).rollOver(List.of(second.get(0).getId()));
+        verify(transactionTemplate, times(3)).execute(any(TransactionCallback.class));
+    }
+
+    @Test
+    @DisplayName("Переход останавливается по ограничению времени, остаток переводится следующим запуском")
+    void rollover_TimeLimitReached_ReportsIncomplete() {
+        BudgetRolloverService service = service(Duration.ZERO);
+
+        BudgetRolloverResponseDto result = service.rollover(TODAY);
+
+        assertFalse(result.getCompleted());
+        assertEquals(0L, result.getBudgets());
+        verifyNoInteractions(transactionTemplate, budgetRepository, budgetHistoryRepository, eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Бюджет, пропустивший два периода, переводится перед расходом до текущего периода")
+    void rolloverBudget_TwoPeriodsMissed_RollsOverUntilCurrent() {
+        BudgetRolloverService service = service(Duration.ofSeconds(10));
+        ExpiredBudgetDto budget = expired();
+        when(budgetRepository.lockExpired(budget.getWalletId(), 1, TODAY))
+                .thenReturn(Optional.of(budget))
+                .thenReturn(Optional.of(budget))
+                .thenReturn(Optional.empty());
+
+        int periods = service.rolloverBudget(budget.getWalletId(), 1, TODAY);
+
+        assertEquals(2, periods);
+        verify(budgetHistoryRepository, times(2)).archiveCurrentPeriod(List.of(budget.getId()));
+        verify(budgetRepository, times(2)).rollOver(List.of(budget.getId()));
+        verify(eventPublisher, times(2)).publishEvent(new BudgetRolloverEvent(List.of(budget)));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Бюджет с незакончившимся периодом перед расходом не меняется")
+    void rolloverBudget_PeriodNotEnded_DoesNothing() {
+        BudgetRolloverService service = service(Duration.ofSeconds(10));
+        UUID walletId = UUID.randomUUID();
+        when(budgetRepository.lockExpired(walletId, 1, TODAY)).thenReturn(Optional.empty());
+
+        assertEquals(0, service.rolloverBudget(walletId, 1, TODAY));
+        verifyNoInteractions(budgetHistoryRepository, eventPublisher);
+        verify(budgetRepository, never()).rollOver(any());
+    }
+
+    private BudgetRolloverService service(Duration maxDuration) {
+        return new BudgetRolloverService(
+                budgetRepository, budgetHistoryRepository, eventPublisher, transactionTemplate, 2, maxDuration
+        );
+    }
+
+    private static ExpiredBudgetDto expired() {
+        return new ExpiredBudgetDto(UUID.randomUUID(), UUID.randomUUID(), 1);
+    }
+}
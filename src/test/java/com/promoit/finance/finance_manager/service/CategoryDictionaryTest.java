@@ -0,0 +1,59 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.entity.CategoryEntity;
+import com.promoit.finance.finance_manager.domain.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryDictionaryTest {
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CategoryDictionary categoryDictionary;
+
+    @BeforeEach
+    void setUp() {
+        categoryDictionary = new CategoryDictionary(categoryRepository, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Новая категория сохраняется один раз, дальше id и название берутся из памяти")
+    void idOf_NewCategory_SavesOnceAndCaches() {
+        when(categoryRepository.findByName("Food")).thenReturn(Optional.empty());
+        when(categoryRepository.saveAndFlush(any(CategoryEntity.class))).thenAnswer(invocation -> {
+            CategoryEntity category = invocation.getArgument(0);
+            category.setId(7);
+            return category;
+        });
+
+        assertEquals(7, categoryDictionary.idOf("Food"));
+        assertEquals(7, categoryDictionary.idOf("Food"));
+        assertEquals("Food", categoryDictionary.nameOf(7));
+        verify(categoryRepository, times(1)).saveAndFlush(any(CategoryEntity.class));
+        verify(categoryRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Фильтр по названиям пропускает категории, которых нет в словаре")
+    void findIds_UnknownCategory_Skipped() {
+        when(categoryRepository.findByNameIn(List.of("Food", "Unknown")))
+                .thenReturn(List.of(CategoryEntity.builder().id(3).name("Food").build()));
+
+        assertEquals(Set.of(3), categoryDictionary.findIds(List.of("Food", "Unknown")));
+        assertNull(categoryDictionary.findIds(null));
+    }
+}
@@ -0,0 +1,92 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.ColumnarStoreStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionColumnDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.event.TransactionAddedEvent;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ColumnarTransactionStoreTest {
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 10, 12, 0);
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+    private static final int TRANSPORT = 3;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Test
+    @DisplayName("Колонки загружаются один раз, новые транзакции дописываются после коммита")
+    void aggregate_LoadsOnceAndAppliesAddedTransactions() {
+        UUID walletId = UUID.randomUUID();
+        ColumnarTransactionStore store = new ColumnarTransactionStore(transactionRepository, true, DataSize.ofMegabytes(1));
+        when(transactionRepository.streamColumnsByWalletId(walletId)).thenReturn(Stream.of(
+                new TransactionColumnDto(DAY, TransactionType.INCOME, SALARY, Money.of(1000.0)),
+                new TransactionColumnDto(DAY.plusHours(1), TransactionType.EXPENSE, FOOD, Money.of(200.0))
+        ));
+
+        assertEquals(Money.of(800.0), store.aggregate(walletId, null, null, null).getBalance());
+        store.onTransactionAdded(new TransactionAddedEvent(walletId, UUID.randomUUID(), DAY.plusDays(1), TransactionType.EXPENSE, FOOD, Money.of(50.0)));
+        StatisticsAggregator aggregator = store.aggregate(walletId, null, null, null);
+
+        assertEquals(Money.of(250.0), aggregator.getExpense(FOOD));
+        verify(transactionRepository, times(1)).streamColumnsByWalletId(walletId);
+    }
+
+    @Test
+    @DisplayName("Фильтры по периоду и категориям применяются при сканировании колонок")
+    void aggregate_WithPeriodAndCategories_FiltersRows() {
+        UUID walletId = UUID.randomUUID();
+        ColumnarTransactionStore store = new ColumnarTransactionStore(transactionRepository, true, DataSize.ofMegabytes(1));
+        when(transactionRepository.streamColumnsByWalletId(walletId)).thenReturn(Stream.of(
+                new TransactionColumnDto(DAY.minusDays(1), TransactionType.EXPENSE, FOOD, Money.of(100.0)),
+                new TransactionColumnDto(DAY, TransactionType.EXPENSE, FOOD, Money.of(40.0)),
+                new TransactionColumnDto(DAY, TransactionType.EXPENSE, TRANSPORT, Money.of(15.0)),
+                new TransactionColumnDto(DAY.plusDays(1), TransactionType.EXPENSE, FOOD, Money.of(70.0))
+        ));
+
+        StatisticsAggregator aggregator = store.aggregate(
+                walletId, List.of(FOOD), DAY.toLocalDate().atStartOfDay(), DAY.toLocalDate().atTime(23, 59, 59)
+        );
+
+        assertEquals(Map.of("Food", Money.of(40.0)), aggregator.getExpenseByCategory(id -> id == FOOD ? "Food" : "Transport"));
+    }
+
+    @Test
+    @DisplayName("При превышении лимита памяти вытесняется давно не использованный кошелек")
+    void aggregate_OverMemoryBudget_EvictsLeastRecentlyUsedWallet() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        // Лимит вмещает колонки только одного кошелька начального размера
+        ColumnarTransactionStore store = new ColumnarTransactionStore(transactionRepository, true, DataSize.ofBytes(500));
+        when(transactionRepository.streamColumnsByWalletId(any(UUID.class))).thenAnswer(invocation -> Stream.of(
+                new TransactionColumnDto(DAY, TransactionType.INCOME, SALARY, Money.of(10.0))
+        ));
+
+        store.aggregate(first, null, null, null);
+        store.aggregate(second, null, null, null);
+        store.aggregate(first, null, null, null);
+
+        ColumnarStoreStatsDto stats = store.getStats();
+        assertEquals(1, stats.getWallets());
+        assertEquals(3L, stats.getLoads());
+        assertTrue(stats.getEvictions() >= 1);
+        assertTrue(stats.getUsedBytes() <= stats.getMaxBytes());
+    }
+}
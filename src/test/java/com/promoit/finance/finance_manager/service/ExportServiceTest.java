@@ -0,0 +1,182 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.exception.wallet.WalletNotFoundException;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+
+    @Mock
+    private FinanceService financeService;
+    @Mock
+    private WalletRepository walletRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private CategoryDictionary categoryDictionary;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExportService exportService;
+    private ObjectMapper objectMapper;
+    private WalletEntity wallet;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new ExportService(
+                financeService, objectMapper, walletRepository, transactionRepository, entityManager, categoryDictionary, transactionManager
+        );
+        wallet = new WalletEntity();
+        wallet.setId(UUID.randomUUID());
+    }
+
+    @Test
+    @DisplayName("Лента транзакций пишется построчно в формате NDJSON")
+    void streamTransactions_WritesOneJsonObjectPerLine() throws IOException {
+        TransactionEntity first = transaction(100.0, SALARY, TransactionType.INCOME);
+        TransactionEntity second = transaction(30.0, FOOD, TransactionType.EXPENSE);
+        when(walletRepository.existsById(wallet.getId())).thenReturn(true);
+        when(transactionRepository.streamByWalletId(wallet.getId())).thenReturn(Stream.of(first, second));
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Salary");
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.streamTransactions(wallet.getId()).writeTo(output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(first.getId().toString(), objectMapper.readTree(lines[0]).get("id").asText());
+        assertEquals("Food", objectMapper.readTree(lines[1]).get("category").asText());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    @Test
+    @DisplayName("Отключение клиента прерывает выгрузку и закрывает поток из БД")
+    void streamTransactions_ClientDisconnects_ClosesStream() {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<TransactionEntity> rows = Stream.generate(() -> transaction(1.0, FOOD, TransactionType.EXPENSE))
+                .onClose(() -> closed.set(true));
+        when(walletRepository.existsById(wallet.getId())).thenReturn(true);
+        when(transactionRepository.streamByWalletId(wallet.getId())).thenReturn(rows);
+        OutputStream disconnected = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        StreamingResponseBody body = exportService.streamTransactions(wallet.getId());
+
+        assertDoesNotThrow(() -> body.writeTo(disconnected));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("Лента несуществующего кошелька - ошибка до начала ответа")
+    void streamTransactions_WalletNotFound_ThrowsException() {
+        UUID walletId = UUID.randomUUID();
+        when(walletRepository.existsById(walletId)).thenReturn(false);
+
+        assertThrows(WalletNotFoundException.class, () -> exportService.streamTransactions(walletId));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Отчет пишется в ответ потоком со сжатием gzip и транзакциями периода")
+    void streamReport_Gzip_WritesStatisticsAndTransactions() throws IOException {
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate end = LocalDate.of(2024, 1, 31);
+        LocalDateTime from = start.atStartOfDay();
+        LocalDateTime to = end.atTime(23, 59, 59);
+        TransactionEntity income = transaction(100.0, SALARY, TransactionType.INCOME);
+        TransactionEntity expense = transaction(30.0, FOOD, TransactionType.EXPENSE);
+        when(financeService.getStatistics(wallet.getId(), null, from, to)).thenReturn(StatisticsResponseDto.builder()
+                .totalIncome(Money.of(100.0)).totalExpense(Money.of(30.0)).balance(Money.of(70.0))
+                .incomeByCategory(Map.of("Salary", Money.of(100.0))).expenseByCategory(Map.of("Food", Money.of(30.0)))
+                .budgetStatus(Map.of())
+                .build());
+        when(transactionRepository.streamByWalletIdAndPeriod(wallet.getId(), from, to)).thenReturn(Stream.of(income, expense));
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Salary");
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.streamReport(wallet.getId(), start, end, true, true).writeTo(output);
+
+        JsonNode report = objectMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())));
+        assertEquals("2024-01-01", report.get("metadata").get("periodStart").asText());
+        assertEquals(70.0, report.get("statistics").get("balance").asDouble());
+        assertEquals(2, report.get("transactions").size());
+        assertEquals(income.getId().toString(), report.get("transactions").get(0).get("id").asText());
+        assertEquals("Food", report.get("transactions").get(1).get("category").asText());
+        verify(entityManager).detach(income);
+        verify(entityManager).detach(expense);
+    }
+
+    @Test
+    @DisplayName("Отчет без транзакций не читает транзакции из БД")
+    void streamReport_WithoutTransactions_WritesOnlyStatistics() throws IOException {
+        LocalDate day = LocalDate.of(2024, 1, 1);
+        when(financeService.getStatistics(wallet.getId(), null, day.atStartOfDay(), day.atTime(23, 59, 59)))
+                .thenReturn(StatisticsResponseDto.builder().totalIncome(Money.ZERO).totalExpense(Money.ZERO).balance(Money.ZERO).build());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        exportService.streamReport(wallet.getId(), day, day, false, false).writeTo(output);
+
+        JsonNode report = objectMapper.readTree(output.toString(StandardCharsets.UTF_8));
+        assertEquals(0.0, report.get("statistics").get("totalIncome").asDouble());
+        assertFalse(report.has("transactions"));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private TransactionEntity transaction(double amount, int categoryId, TransactionType type) {
+        return TransactionEntity.builder()
+                .id(UUID.randomUUID())
+                .type(type)
+                .amount(Money.of(amount))
+                .categoryId(categoryId)
+                .date(LocalDateTime.now())
+                .wallet(wallet)
+                .build();
+    }
+}
@@ -1,27 +1,53 @@
 package com.promoit.finance.finance_manager.service;
 
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetCurrentSpentDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetLimitDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.budget.BudgetResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetSpendDto;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.DailyCategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.Granularity;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsCacheKey;
 import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsSeriesResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.BulkTransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionCursor;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionPageResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.dto.user.UserWalletDto;
 import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
 import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.domain.entity.UserEntity;
 import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.event.NotificationEvent;
+import com.promoit.finance.finance_manager.domain.event.WalletChangedEvent;
+import com.promoit.finance.finance_manager.domain.exception.budget.InvalidBudgetPeriodException;
+import com.promoit.finance.finance_manager.domain.exception.transaction.BulkSizeExceededException;
 import com.promoit.finance.finance_manager.domain.exception.wallet.InsufficientFundsException;
 import com.promoit.finance.finance_manager.domain.exception.wallet.InvalidAmountException;
 import com.promoit.finance.finance_manager.domain.exception.wallet.WalletNotFoundException;
 import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
 import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
-import com.promoit.finance.finance_manager.domain.repository.UserRepository;
 import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,16 +56,33 @@ import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class FinanceServiceTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+    private static final int TRANSPORT = 3;
+    private static final int TRANSFER = 4;
+
     @Mock
     private BudgetRepository budgetRepository;
     @Mock
     private WalletRepository walletRepository;
     @Mock
-    private NotificationService notificationService;
+    private TransactionRepository transactionRepository;
     @Mock
-    private UserRepository userRepository;
+    private RollupService rollupService;
     @Mock
-    private TransactionRepository transactionRepository;
+    private StatisticsCache statisticsCache;
+    @Mock
+    private ColumnarTransactionStore columnarStore;
+    @Mock
+    private CategoryDictionary categoryDictionary;
+    @Mock
+    private BudgetIndex budgetIndex;
+    @Mock
+    private BudgetRolloverService budgetRolloverService;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private FinanceService financeService;
 
@@ -49,7 +92,7 @@ class FinanceServiceTest {
         UUID walletId = UUID.randomUUID();
         WalletEntity wallet = new WalletEntity();
         wallet.setId(walletId);
-        wallet.setBalance(100.0);
+        wallet.setBalance(Money.of(100.0));
 
         TransactionRequestDto request = TransactionRequestDto.builder()
                 .type(TransactionType.INCOME)
@@ -58,18 +101,22 @@ class FinanceServiceTest {
                 .description("Monthly salary")
                 .build();
 
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(walletRepository.applyDelta(walletId, 5000L)).thenReturn(Optional.of(15000L));
+        when(walletRepository.getReferenceById(walletId)).thenReturn(wallet);
+        when(categoryDictionary.idOf("Salary")).thenReturn(SALARY);
         when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> {
             TransactionEntity transaction = invocation.getArgument(0);
             transaction.setId(UUID.randomUUID());
             return transaction;
         });
-        when(walletRepository.save(any(WalletEntity.class))).thenReturn(wallet);
         TransactionResponseDto result = financeService.addTransaction(walletId, request);
 
         assertNotNull(result);
-        assertEquals(150.0, wallet.getBalance());
+        assertEquals(Money.of(150.0), result.getNewBalance());
         verify(transactionRepository).save(any(TransactionEntity.class));
+        verify(walletRepository, never()).findById(any());
+        verify(walletRepository, never()).findBalanceById(any());
+        verify(walletRepository, never()).save(any(WalletEntity.class));
     }
 
     @Test
@@ -78,7 +125,7 @@ class FinanceServiceTest {
         UUID walletId = UUID.randomUUID();
         WalletEntity wallet = new WalletEntity();
         wallet.setId(walletId);
-        wallet.setBalance(100.0);
+        wallet.setBalance(Money.of(100.0));
 
         TransactionRequestDto request = TransactionRequestDto.builder()
                 .type(TransactionType.EXPENSE)
@@ -87,20 +134,127 @@ class FinanceServiceTest {
                 .description("Lunch")
                 .build();
 
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(budgetRepository.findByWalletAndCategory(wallet, "Food")).thenReturn(Optional.empty());
+        when(walletRepository.applyDelta(walletId, -3000L)).thenReturn(Optional.of(7000L));
+        when(walletRepository.getReferenceById(walletId)).thenReturn(wallet);
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of());
         when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> {
             TransactionEntity transaction = invocation.getArgument(0);
             transaction.setId(UUID.randomUUID());
             return transaction;
         });
-        when(walletRepository.save(any(WalletEntity.class))).thenReturn(wallet);
 
         TransactionResponseDto result = financeService.addTransaction(walletId, request);
 
         assertNotNull(result);
-        assertEquals(70.0, wallet.getBalance());
+        assertEquals(Money.of(70.0), result.getNewBalance());
         verify(transactionRepository).save(any(TransactionEntity.class));
+        verify(budgetRepository, never()).addSpent(any(), anyInt(), anyLong(), any());
+        verify(budgetRepository, never()).save(any(BudgetEntity.class));
+    }
+
+    @Test
+    @DisplayName("Уведомление о бюджете публикуется только при пересечении порога")
+    void addTransaction_Expense_NotifiesOnlyOnThresholdCrossing() {
+        UUID walletId = UUID.randomUUID();
+        UserEntity user = new UserEntity();
+        user.setUsername("testuser");
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setUser(user);
+
+        when(walletRepository.applyDelta(walletId, -1500L)).thenReturn(Optional.of(50000L));
+        when(walletRepository.getReferenceById(walletId)).thenReturn(wallet);
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of(
+                FOOD, new BudgetLimitDto(FOOD, Money.of(100.0), BudgetPeriod.NONE, null, null, null)
+        ));
+        when(budgetRepository.addSpent(eq(walletId), eq(FOOD), eq(1500L), any(LocalDate.class)))
+                .thenReturn(Optional.of(spend(100.0, 70.0)))
+                .thenReturn(Optional.of(spend(100.0, 85.0)));
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionRequestDto request = TransactionRequestDto.builder()
+                .type(TransactionType.EXPENSE)
+                .amount(15.0)
+                .category("Food")
+                .build();
+
+        financeService.addTransaction(walletId, request); // 70 -> 85: пересечение 80%
+        financeService.addTransaction(walletId, request); // 85 -> 100: остается на уровне предупреждения
+
+        verify(eventPublisher, times(1)).publishEvent(any(NotificationEvent.class));
+        verify(eventPublisher).publishEvent(
+                new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("85.00"))
+        );
+    }
+
+    @Test
+    @DisplayName("Расход после конца периода до перехода по расписанию переводит бюджет и относится к новому периоду")
+    void addTransaction_ExpenseAfterPeriodEnd_RollsOverBeforeCharging() {
+        UUID walletId = UUID.randomUUID();
+        UserEntity user = new UserEntity();
+        user.setUsername("testuser");
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setUser(user);
+
+        when(walletRepository.applyDelta(walletId, -9000L)).thenReturn(Optional.of(50000L));
+        when(walletRepository.getReferenceById(walletId)).thenReturn(wallet);
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        // В индексе конец периода уже наступил: переход по расписанию еще не выполнялся
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of(
+                FOOD, new BudgetLimitDto(
+                        FOOD, Money.of(100.0), BudgetPeriod.MONTHLY, null, LocalDate.now().minusMonths(1), LocalDate.now()
+                )
+        ));
+        // После перехода траты нового периода равны нулю
+        when(budgetRepository.addSpent(eq(walletId), eq(FOOD), eq(9000L), any(LocalDate.class)))
+                .thenReturn(Optional.of(spend(100.0, 0.0)));
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionRequestDto request = TransactionRequestDto.builder()
+                .type(TransactionType.EXPENSE)
+                .amount(90.0)
+                .category("Food")
+                .build();
+
+        financeService.addTransaction(walletId, request);
+
+        InOrder inOrder = inOrder(budgetRolloverService, budgetRepository);
+        inOrder.verify(budgetRolloverService).rolloverBudget(eq(walletId), eq(FOOD), any(LocalDate.class));
+        inOrder.verify(budgetRepository).addSpent(eq(walletId), eq(FOOD), eq(9000L), any(LocalDate.class));
+        // Порог считается по тратам нового периода: 0 -> 90 из 100
+        verify(eventPublisher).publishEvent(
+                new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("90.00"))
+        );
+    }
+
+    @Test
+    @DisplayName("Расход задним числом до начала периода бюджета не меняет траты и не создает уведомлений")
+    void addTransaction_BackdatedExpense_SkipsBudget() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        LocalDate periodStart = LocalDate.now().withDayOfMonth(1);
+
+        when(walletRepository.applyDelta(walletId, -9000L)).thenReturn(Optional.of(50000L));
+        when(walletRepository.getReferenceById(walletId)).thenReturn(wallet);
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of(
+                FOOD, new BudgetLimitDto(FOOD, Money.of(100.0), BudgetPeriod.MONTHLY, null, periodStart, periodStart.plusMonths(1))
+        ));
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionRequestDto request = TransactionRequestDto.builder()
+                .type(TransactionType.EXPENSE)
+                .amount(90.0)
+                .category("Food")
+                .date(periodStart.minusDays(3).atTime(12, 0))
+                .build();
+
+        financeService.addTransaction(walletId, request);
+
+        verify(budgetRepository, never()).addSpent(any(), anyInt(), anyLong(), any());
+        verify(eventPublisher, never()).publishEvent(any(NotificationEvent.class));
+        verifyNoInteractions(budgetRolloverService);
     }
 
     @Test
@@ -113,7 +267,8 @@ class FinanceServiceTest {
                 .category("Salary")
                 .build();
 
-        when(walletRepository.findById(walletId)).thenReturn(Optional.empty());
+        when(walletRepository.applyDelta(walletId, 5000L)).thenReturn(Optional.empty());
+        when(walletRepository.findBalanceById(walletId)).thenReturn(null);
 
         assertThrows(WalletNotFoundException.class, () -> financeService.addTransaction(walletId, request));
         verify(transactionRepository, never()).save(any(TransactionEntity.class));
@@ -123,9 +278,6 @@ class FinanceServiceTest {
     @DisplayName("Добавление транзакции с отрицательной суммой вызывает исключение")
     void addTransaction_NegativeAmount_ThrowsException() {
         UUID walletId = UUID.randomUUID();
-        WalletEntity wallet = new WalletEntity();
-        wallet.setId(walletId);
-        wallet.setBalance(100.0);
 
         TransactionRequestDto request = TransactionRequestDto.builder()
                 .type(TransactionType.INCOME)
@@ -133,19 +285,38 @@ class FinanceServiceTest {
                 .category("Salary")
                 .build();
 
+        assertThrows(InvalidAmountException.class, () -> financeService.addTransaction(walletId, request));
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    @DisplayName("Сумма с долями копейки отклоняется и в одиночном, и в пакетном добавлении")
+    void addTransaction_FractionOfKopeck_Rejected() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setBalance(Money.of(100.0));
+        TransactionRequestDto request = TransactionRequestDto.builder()
+                .type(TransactionType.EXPENSE)
+                .amount(10.005)
+                .category("Food")
+                .build();
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
 
         assertThrows(InvalidAmountException.class, () -> financeService.addTransaction(walletId, request));
-        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        BulkTransactionResponseDto result = financeService.addTransactions(walletId, List.of(request));
+
+        assertEquals(0, result.getAccepted());
+        assertEquals("Сумма должна содержать не больше 15 цифр до точки и 2 после", result.getItems().get(0).getError());
+        verify(walletRepository, never()).applyDelta(any(), anyLong());
+        verifyNoInteractions(transactionRepository);
     }
 
     @Test
     @DisplayName("Добавление расходной транзакции при недостаточном балансе вызывает исключение")
     void addTransaction_InsufficientFunds_ThrowsException() {
         UUID walletId = UUID.randomUUID();
-        WalletEntity wallet = new WalletEntity();
-        wallet.setId(walletId);
-        wallet.setBalance(20.0);
 
         TransactionRequestDto request = TransactionRequestDto.builder()
                 .type(TransactionType.EXPENSE)
@@ -153,7 +324,9 @@ class FinanceServiceTest {
                 .category("Food")
                 .build();
 
-        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        // Условный UPDATE не изменил ни одной строки: баланса не хватает
+        when(walletRepository.applyDelta(walletId, -5000L)).thenReturn(Optional.empty());
+        when(walletRepository.findBalanceById(walletId)).thenReturn(2000L);
 
         assertThrows(InsufficientFundsException.class, () -> financeService.addTransaction(walletId, request));
         verify(transactionRepository, never()).save(any(TransactionEntity.class));
@@ -167,7 +340,8 @@ class FinanceServiceTest {
         wallet.setId(walletId);
 
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(budgetRepository.findByWalletAndCategory(wallet, "Food")).thenReturn(Optional.empty());
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(budgetRepository.findByWalletAndCategoryId(wallet, FOOD)).thenReturn(Optional.empty());
         when(budgetRepository.save(any(BudgetEntity.class))).thenAnswer(invocation -> {
             BudgetEntity budget = invocation.getArgument(0);
             budget.setId(UUID.randomUUID());
@@ -189,14 +363,15 @@ class FinanceServiceTest {
 
         BudgetEntity existingBudget = BudgetEntity.builder()
                 .id(UUID.randomUUID())
-                .category("Food")
-                .limitAmount(500.0)
-                .currentSpent(200.0)
+                .categoryId(FOOD)
+                .limitAmount(Money.of(500.0))
+                .currentSpent(Money.of(200.0))
                 .wallet(wallet)
                 .build();
 
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(budgetRepository.findByWalletAndCategory(wallet, "Food")).thenReturn(Optional.of(existingBudget));
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(budgetRepository.findByWalletAndCategoryId(wallet, FOOD)).thenReturn(Optional.of(existingBudget));
         when(budgetRepository.save(any(BudgetEntity.class))).thenReturn(existingBudget);
 
         BudgetResponseDto result = financeService.setBudget(walletId, "Food", 1500.0);
@@ -205,6 +380,44 @@ class FinanceServiceTest {
         verify(budgetRepository).save(existingBudget);
     }
 
+    @Test
+    @DisplayName("Установка месячного периода начинает текущий период с первого числа месяца")
+    void setBudget_MonthlyPeriod_SetsCurrentPeriod() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        BudgetEntity existingBudget = BudgetEntity.builder()
+                .id(UUID.randomUUID())
+                .categoryId(FOOD)
+                .limitAmount(Money.of(500.0))
+                .currentSpent(Money.of(200.0))
+                .wallet(wallet)
+                .build();
+
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(budgetRepository.findByWalletAndCategoryId(wallet, FOOD)).thenReturn(Optional.of(existingBudget));
+        when(budgetRepository.save(any(BudgetEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BudgetResponseDto result = financeService.setBudget(walletId, "Food", 1500.0, BudgetPeriod.MONTHLY, null);
+
+        LocalDate monthStart = LocalDate.now().withDayOfMonth(1);
+        assertEquals(BudgetPeriod.MONTHLY, result.getPeriod());
+        assertEquals(monthStart, result.getPeriodStart());
+        assertEquals(monthStart.plusMonths(1), result.getPeriodEnd());
+        assertEquals(Money.of(200.0), result.getCurrentSpent());
+    }
+
+    @Test
+    @DisplayName("Произвольный период без длины в днях отклоняется")
+    void setBudget_CustomPeriodWithoutDays_ThrowsException() {
+        UUID walletId = UUID.randomUUID();
+
+        assertThrows(InvalidBudgetPeriodException.class,
+                () -> financeService.setBudget(walletId, "Food", 1000.0, BudgetPeriod.CUSTOM, null));
+        verifyNoInteractions(budgetRepository);
+    }
+
     @Test
     @DisplayName("Установка нескольких бюджетов")
     void setBudgets_MultipleBudgets_Success() {
@@ -218,17 +431,56 @@ class FinanceServiceTest {
         );
 
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
-        when(budgetRepository.findByWalletAndCategory(any(), anyString())).thenReturn(Optional.empty());
-        when(budgetRepository.save(any(BudgetEntity.class))).thenAnswer(invocation -> {
-            BudgetEntity budget = invocation.getArgument(0);
-            budget.setId(UUID.randomUUID());
-            return budget;
-        });
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(categoryDictionary.idOf("Transport")).thenReturn(TRANSPORT);
+        when(budgetRepository.findByWalletAndCategoryIdIn(wallet, Set.of(FOOD, TRANSPORT))).thenReturn(List.of());
 
         List<BudgetResponseDto> results = financeService.setBudgets(walletId, requests);
 
         assertEquals(2, results.size());
-        verify(budgetRepository, times(2)).save(any(BudgetEntity.class));
+        verify(walletRepository, times(1)).findById(walletId);
+        verify(budgetRepository).saveAll(anyCollection());
+        verify(budgetRepository, never()).save(any(BudgetEntity.class));
+    }
+
+    @Test
+    @DisplayName("Массовая установка объединяет существующие и новые бюджеты в одно сохранение")
+    @SuppressWarnings("unchecked")
+    void setBudgets_MergesExistingAndNewBudgets() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        BudgetEntity existingBudget = BudgetEntity.builder()
+                .id(UUID.randomUUID())
+                .categoryId(FOOD)
+                .limitAmount(Money.of(500.0))
+                .currentSpent(Money.of(200.0))
+                .wallet(wallet)
+                .build();
+
+        List<BudgetRequestDto> requests = List.of(
+                new BudgetRequestDto("Food", 800.0),
+                new BudgetRequestDto("Transport", 300.0),
+                new BudgetRequestDto("Food", 1000.0)
+        );
+
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(categoryDictionary.idOf("Transport")).thenReturn(TRANSPORT);
+        when(budgetRepository.findByWalletAndCategoryIdIn(wallet, Set.of(FOOD, TRANSPORT)))
+                .thenReturn(List.of(existingBudget));
+
+        List<BudgetResponseDto> results = financeService.setBudgets(walletId, requests);
+
+        ArgumentCaptor<Collection<BudgetEntity>> saved = ArgumentCaptor.forClass(Collection.class);
+        verify(budgetRepository).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertTrue(saved.getValue().contains(existingBudget));
+        assertEquals(Money.of(1000.0), existingBudget.getLimitAmount());
+        assertEquals(3, results.size());
+        assertEquals(Money.of(1000.0), results.get(0).getLimitAmount());
+        assertEquals(Money.of(200.0), results.get(0).getCurrentSpent());
+        assertEquals(Money.of(300.0), results.get(1).getLimitAmount());
     }
 
     @Test
@@ -238,19 +490,22 @@ class FinanceServiceTest {
         WalletEntity wallet = new WalletEntity();
         wallet.setId(walletId);
 
-        List<TransactionEntity> transactions = Arrays.asList(
-                createTransaction(TransactionType.INCOME, 1000.0, "Salary", LocalDateTime.now().minusDays(1)),
-                createTransaction(TransactionType.EXPENSE, 300.0, "Food", LocalDateTime.now())
+        List<CategoryTotalDto> totals = Arrays.asList(
+                new CategoryTotalDto(TransactionType.INCOME, SALARY, Money.of(1000.0), 1L),
+                new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(300.0), 1L)
         );
-        wallet.setTransactions(transactions);
 
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.findIds(null)).thenReturn(null);
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Salary");
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+        when(rollupService.sumByTypeAndCategory(walletId, null, null, null)).thenReturn(totals);
         StatisticsResponseDto result = financeService.getStatistics(walletId, null, null, null);
 
         assertNotNull(result);
-        assertEquals(1000.0, result.getTotalIncome());
-        assertEquals(300.0, result.getTotalExpense());
-        assertEquals(700.0, result.getBalance());
+        assertEquals(Money.of(1000.0), result.getTotalIncome());
+        assertEquals(Money.of(300.0), result.getTotalExpense());
+        assertEquals(Money.of(700.0), result.getBalance());
     }
 
     @Test
@@ -260,20 +515,22 @@ class FinanceServiceTest {
         WalletEntity wallet = new WalletEntity();
         wallet.setId(walletId);
 
-        List<TransactionEntity> transactions = Arrays.asList(
-                createTransaction(TransactionType.INCOME, 1000.0, "Salary", LocalDateTime.now()),
-                createTransaction(TransactionType.EXPENSE, 300.0, "Food", LocalDateTime.now()),
-                createTransaction(TransactionType.EXPENSE, 200.0, "Transport", LocalDateTime.now())
+        // БД возвращает агрегаты только по запрошенным категориям
+        List<CategoryTotalDto> totals = List.of(
+                new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(300.0), 1L)
         );
-        wallet.setTransactions(transactions);
 
         List<String> categories = List.of("Food");
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.findIds(categories)).thenReturn(Set.of(FOOD));
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+        when(rollupService.sumByTypeAndCategory(walletId, Set.of(FOOD), null, null)).thenReturn(totals);
         StatisticsResponseDto result = financeService.getStatistics(walletId, categories, null, null);
 
         assertNotNull(result);
-        assertEquals(0.0, result.getTotalIncome()); // Salary не входит в фильтр
-        assertEquals(300.0, result.getTotalExpense()); // Только Food
+        assertEquals(Money.ZERO, result.getTotalIncome()); // Salary не входит в фильтр
+        assertEquals(Money.of(300.0), result.getTotalExpense()); // Только Food
+        assertEquals(Map.of("Food", Money.of(300.0)), result.getExpenseByCategory());
     }
 
     @Test
@@ -286,29 +543,302 @@ class FinanceServiceTest {
         LocalDateTime startDate = LocalDateTime.now().minusDays(7);
         LocalDateTime endDate = LocalDateTime.now().minusDays(1);
 
-        List<TransactionEntity> transactions = Arrays.asList(
-                createTransaction(TransactionType.INCOME, 1000.0, "Salary", LocalDateTime.now().minusDays(3)), // в периоде
-                createTransaction(TransactionType.EXPENSE, 300.0, "Food", LocalDateTime.now()) // вне периода
+        // Расход вне периода отсекается при агрегации, в выборку попадает только доход
+        List<CategoryTotalDto> totals = List.of(
+                new CategoryTotalDto(TransactionType.INCOME, SALARY, Money.of(1000.0), 1L)
         );
-        wallet.setTransactions(transactions);
 
         when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.findIds(null)).thenReturn(null);
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Salary");
+        when(rollupService.sumByTypeAndCategory(walletId, null, startDate, endDate)).thenReturn(totals);
         StatisticsResponseDto result = financeService.getStatistics(walletId, null, startDate, endDate);
 
         assertNotNull(result);
-        assertEquals(1000.0, result.getTotalIncome());
-        assertEquals(0.0, result.getTotalExpense()); // Расход вне периода
+        assertEquals(Money.of(1000.0), result.getTotalIncome());
+        assertEquals(Money.ZERO, result.getTotalExpense()); // Расход вне периода
     }
 
+    @Test
+    @DisplayName("Статус периодического бюджета без периода запроса учитывает только текущий период")
+    void getStatistics_PeriodicBudget_UsesCurrentPeriodSpend() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        LocalDate periodEnd = LocalDate.now().plusDays(3);
+
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.findIds(null)).thenReturn(null);
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+        when(categoryDictionary.nameOf(TRANSPORT)).thenReturn("Transport");
+        when(rollupService.sumByTypeAndCategory(walletId, null, null, null)).thenReturn(List.of(
+                new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(900.0), 3L),
+                new CategoryTotalDto(TransactionType.EXPENSE, TRANSPORT, Money.of(50.0), 1L)
+        ));
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of(
+                FOOD, new BudgetLimitDto(FOOD, Money.of(500.0), BudgetPeriod.MONTHLY, null, periodEnd.minusMonths(1), periodEnd),
+                TRANSPORT, new BudgetLimitDto(TRANSPORT, Money.of(100.0), BudgetPeriod.NONE, null, null, null)
+        ));
+        when(budgetRepository.findCurrentSpentByWalletId(eq(walletId), any(LocalDate.class)))
+                .thenReturn(List.of(currentSpent(FOOD, 200.0)));
+
+        StatisticsResponseDto result = financeService.getStatistics(walletId, null, null, null);
 
-    private TransactionEntity createTransaction(TransactionType type, Double amount, String category, LocalDateTime date) {
-        return TransactionEntity.builder()
-                .id(UUID.randomUUID())
-                .type(type)
-                .amount(amount)
-                .category(category)
-                .description("Test transaction")
-                .date(date)
+        assertEquals(Money.of(200.0), result.getBudgetStatus().get("Food").getCurrentSpent());
+        assertEquals(Money.of(50.0), result.getBudgetStatus().get("Transport").getCurrentSpent());
+        verify(budgetRepository, never()).findByWalletAndCategoryId(any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Статистика из кэша возвращается без обращения к БД")
+    void getStatistics_CacheHit_SkipsRepositories() {
+        UUID walletId = UUID.randomUUID();
+        StatisticsResponseDto cached = StatisticsResponseDto.builder()
+                .totalIncome(Money.of(1000.0))
+                .totalExpense(Money.of(300.0))
+                .balance(Money.of(700.0))
                 .build();
+        when(statisticsCache.get(StatisticsCacheKey.of(walletId, null, null, null))).thenReturn(cached);
+
+        StatisticsResponseDto result = financeService.getStatistics(walletId, null, null, null);
+
+        assertSame(cached, result);
+        verifyNoInteractions(walletRepository, rollupService);
+    }
+
+    @Test
+    @DisplayName("Добавление транзакции публикует событие изменения кошелька")
+    void addTransaction_PublishesWalletChangedEvent() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setBalance(Money.of(100.0));
+
+        TransactionRequestDto request = TransactionRequestDto.builder()
+                .type(TransactionType.INCOME)
+                .amount(50.0)
+                .category("Salary")
+                .build();
+
+        when(walletRepository.applyDelta(walletId, 5000L)).thenReturn(Optional.of(15000L));
+        when(walletRepository.getReferenceById(walletId)).thenReturn(wallet);
+        when(categoryDictionary.idOf("Salary")).thenReturn(SALARY);
+        when(transactionRepository.save(any(TransactionEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        financeService.addTransaction(walletId, request);
+
+        verify(eventPublisher).publishEvent(new WalletChangedEvent(walletId));
+    }
+
+    @Test
+    @DisplayName("Страница истории возвращает курсор последней транзакции, если есть следующая страница")
+    void getTransactions_MoreRowsThanSize_ReturnsNextCursor() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionEntity> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(TransactionEntity.builder()
+                    .id(UUID.randomUUID())
+                    .type(TransactionType.EXPENSE)
+                    .amount(Money.of(10.0 + i))
+                    .categoryId(FOOD)
+                    .date(now.minusHours(i))
+                    .wallet(wallet)
+                    .build());
+        }
+
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(transactionRepository.findFirstPage(eq(walletId), any(), any(), isNull(), isNull(), any()))
+                .thenReturn(rows);
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+
+        TransactionPageResponseDto page = financeService.getTransactions(walletId, null, null, null, null, null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.getHasMore());
+        TransactionCursor cursor = TransactionCursor.decode(page.getNextCursor());
+        assertEquals(rows.get(1).getId(), cursor.id());
+        assertEquals(rows.get(1).getDate(), cursor.date());
+    }
+
+    @Test
+    @DisplayName("Серия статистики по неделям включает пустые недели между данными")
+    void getStatisticsSeries_Weekly_GroupsDaysAndFillsGaps() {
+        UUID walletId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2025, 1, 6, 0, 0);
+        LocalDateTime endDate = LocalDateTime.of(2025, 1, 26, 23, 59, 59);
+        List<DailyCategoryTotalDto> days = List.of(
+                new DailyCategoryTotalDto(LocalDate.of(2025, 1, 6), TransactionType.INCOME, SALARY, Money.of(1000.0), 1L),
+                new DailyCategoryTotalDto(LocalDate.of(2025, 1, 8), TransactionType.EXPENSE, FOOD, Money.of(100.0), 2L),
+                new DailyCategoryTotalDto(LocalDate.of(2025, 1, 12), TransactionType.EXPENSE, FOOD, Money.of(50.0), 1L),
+                new DailyCategoryTotalDto(LocalDate.of(2025, 1, 24), TransactionType.EXPENSE, TRANSPORT, Money.of(20.0), 1L)
+        );
+
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(categoryDictionary.findIds(null)).thenReturn(null);
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Salary");
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+        when(categoryDictionary.nameOf(TRANSPORT)).thenReturn("Transport");
+        when(rollupService.sumByDayTypeAndCategory(walletId, null, startDate, endDate)).thenReturn(days);
+
+        StatisticsSeriesResponseDto series = financeService.getStatisticsSeries(
+                walletId, null, startDate, endDate, Granularity.WEEK
+        );
+
+        assertEquals(3, series.getBuckets().size());
+        StatisticsSeriesResponseDto.Bucket first = series.getBuckets().get(0);
+        assertEquals(LocalDate.of(2025, 1, 6), first.getPeriodStart());
+        assertEquals(LocalDate.of(2025, 1, 12), first.getPeriodEnd());
+        assertEquals(Money.of(1000.0), first.getTotalIncome());
+        assertEquals(Money.of(150.0), first.getExpenseByCategory().get("Food"));
+        assertEquals(Money.ZERO, series.getBuckets().get(1).getTotalExpense());
+        assertEquals(Money.of(20.0), series.getBuckets().get(2).getExpenseByCategory().get("Transport"));
+    }
+
+    @Test
+    @DisplayName("Пакет транзакций проверяется по порядку, отклоненные операции не мешают остальным")
+    void addTransactions_MixedBatch_RejectsOnlyInvalidItems() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setBalance(Money.of(100.0));
+
+        List<TransactionRequestDto> requests = List.of(
+                TransactionRequestDto.builder().type(TransactionType.EXPENSE).amount(150.0).category("Food").build(),
+                TransactionRequestDto.builder().type(TransactionType.INCOME).amount(100.0).category("Salary").build(),
+                TransactionRequestDto.builder().type(TransactionType.EXPENSE).amount(150.0).category("Food").build(),
+                TransactionRequestDto.builder().type(TransactionType.INCOME).amount(-5.0).category("Salary").build(),
+                TransactionRequestDto.builder().type(TransactionType.INCOME).amount(10.005).category("Salary").build()
+        );
+
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.idOf("Salary")).thenReturn(SALARY);
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(walletRepository.applyDelta(walletId, -5000L)).thenReturn(Optional.of(5000L));
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of(
+                FOOD, new BudgetLimitDto(FOOD, Money.of(1000.0), BudgetPeriod.NONE, null, null, null)
+        ));
+        when(budgetRepository.addSpent(eq(walletId), eq(FOOD), eq(15000L), any(LocalDate.class)))
+                .thenReturn(Optional.of(spend(1000.0, 0.0)));
+
+        BulkTransactionResponseDto result = financeService.addTransactions(walletId, requests);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(3, result.getRejected());
+        assertEquals(Money.of(50.0), result.getBalance());
+        assertFalse(result.getItems().get(0).getAccepted());
+        assertEquals(Money.of(200.0), result.getItems().get(1).getTransaction().getNewBalance());
+        assertEquals(Money.of(50.0), result.getItems().get(2).getTransaction().getNewBalance());
+        assertFalse(result.getItems().get(3).getAccepted());
+        // Те же ограничения DTO, что и у одиночного добавления
+        assertFalse(result.getItems().get(4).getAccepted());
+        assertEquals("Сумма должна содержать не больше 15 цифр до точки и 2 после", result.getItems().get(4).getError());
+        verify(budgetRepository).addSpent(eq(walletId), eq(FOOD), eq(15000L), any(LocalDate.class));
+        verify(eventPublisher, never()).publishEvent(any(NotificationEvent.class));
+        verify(transactionRepository).saveAll(argThat(saved -> ((List<?>) saved).size() == 2));
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+        verify(rollupService).recordAll(eq(walletId), anyList());
+    }
+
+    @Test
+    @DisplayName("В траты бюджета из пакета попадают только расходы текущего периода")
+    void addTransactions_MixedDates_ChargesOnlyCurrentPeriod() {
+        UUID walletId = UUID.randomUUID();
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        wallet.setBalance(Money.of(1000.0));
+        LocalDate periodStart = LocalDate.now().withDayOfMonth(1);
+
+        List<TransactionRequestDto> requests = List.of(
+                TransactionRequestDto.builder().type(TransactionType.EXPENSE).amount(100.0).category("Food")
+                        .date(periodStart.minusMonths(1).atTime(10, 0)).build(),
+                TransactionRequestDto.builder().type(TransactionType.EXPENSE).amount(40.0).category("Food")
+                        .date(periodStart.atTime(10, 0)).build(),
+                TransactionRequestDto.builder().type(TransactionType.EXPENSE).amount(20.0).category("Food").build()
+        );
+
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(categoryDictionary.idOf("Food")).thenReturn(FOOD);
+        when(walletRepository.applyDelta(walletId, -16000L)).thenReturn(Optional.of(84000L));
+        when(budgetIndex.budgets(walletId)).thenReturn(Map.of(
+                FOOD, new BudgetLimitDto(FOOD, Money.of(1000.0), BudgetPeriod.MONTHLY, null, periodStart, periodStart.plusMonths(1))
+        ));
+        when(budgetRepository.addSpent(eq(walletId), eq(FOOD), eq(6000L), any(LocalDate.class)))
+                .thenReturn(Optional.of(spend(1000.0, 0.0)));
+
+        BulkTransactionResponseDto result = financeService.addTransactions(walletId, requests);
+
+        assertEquals(3, result.getAccepted());
+        verify(budgetRepository).addSpent(eq(walletId), eq(FOOD), eq(6000L), any(LocalDate.class));
+    }
+
+    @Test
+    @DisplayName("Слишком большой пакет транзакций отклоняется целиком")
+    void addTransactions_TooManyItems_ThrowsException() {
+        UUID walletId = UUID.randomUUID();
+        List<TransactionRequestDto> requests = Collections.nCopies(
+                10_001, TransactionRequestDto.builder().type(TransactionType.INCOME).amount(1.0).category("Salary").build()
+        );
+
+        assertThrows(BulkSizeExceededException.class, () -> financeService.addTransactions(walletId, requests));
+        verifyNoInteractions(walletRepository, transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Перевод меняет балансы в порядке id кошельков и пишет обе транзакции одним пакетом")
+    void transfer_LocksWalletsInIdOrder() {
+        UUID lowerId = new UUID(0, 1);
+        UUID higherId = new UUID(0, 2);
+        WalletEntity lower = new WalletEntity();
+        lower.setId(lowerId);
+        WalletEntity higher = new WalletEntity();
+        higher.setId(higherId);
+
+        // Отправитель - кошелек с большим id, поэтому первым меняется баланс получателя
+        when(walletRepository.findByUsernames(List.of("alice", "bob"))).thenReturn(List.of(
+                new UserWalletDto("alice", higherId), new UserWalletDto("bob", lowerId)
+        ));
+        when(walletRepository.applyDelta(any(UUID.class), anyLong())).thenReturn(Optional.of(10000L));
+        when(walletRepository.getReferenceById(higherId)).thenReturn(higher);
+        when(walletRepository.getReferenceById(lowerId)).thenReturn(lower);
+        when(categoryDictionary.idOf("Transfer")).thenReturn(TRANSFER);
+
+        financeService.transfer("alice", "bob", 40.0, "Gift");
+
+        InOrder order = inOrder(walletRepository);
+        order.verify(walletRepository).applyDelta(lowerId, 4000L);
+        order.verify(walletRepository).applyDelta(higherId, -4000L);
+        verify(transactionRepository).saveAll(argThat(saved -> ((List<?>) saved).size() == 2));
+        verify(transactionRepository, never()).save(any(TransactionEntity.class));
+    }
+
+    private static BudgetCurrentSpentDto currentSpent(int categoryId, double spent) {
+        return new BudgetCurrentSpentDto() {
+            @Override
+            public Integer getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Money getCurrentSpent() {
+                return Money.of(spent);
+            }
+        };
+    }
+
+    private static BudgetSpendDto spend(double limitAmount, double spentBefore) {
+        return new BudgetSpendDto() {
+            @Override
+            public long getLimitAmount() {
+                return Money.toMinor(limitAmount);
+            }
+
+            @Override
+            public long getSpentBefore() {
+                return Money.toMinor(spentBefore);
+            }
+        };
     }
-}
\ No newline at end of file
+}
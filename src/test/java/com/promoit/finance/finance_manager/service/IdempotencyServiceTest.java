@@ -0,0 +1,214 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.IdempotencyKeyEntity;
+import com.promoit.finance.finance_manager.domain.exception.idempotency.IdempotencyKeyMismatchException;
+import com.promoit.finance.finance_manager.domain.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+    private static final Map<String, Object> REQUEST = Map.of("amount", 500.0, "category", "Salary");
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        idempotencyService = new IdempotencyService(
+                idempotencyKeyRepository, objectMapper, transactionTemplate, 100, Duration.ofHours(24), 1000
+        );
+    }
+
+    @Test
+    @DisplayName("Повтор запроса с тем же ключом возвращает сохраненный ответ без повторного выполнения")
+    void execute_RepeatedKey_RunsActionOnce() {
+        stubTransactionTemplate();
+        when(idempotencyKeyRepository.findById("key-1")).thenReturn(Optional.empty());
+        AtomicInteger calls = new AtomicInteger();
+        TransactionResponseDto response = response();
+
+        TransactionResponseDto first = idempotencyService.execute("key-1", "transaction", REQUEST, TransactionResponseDto.class, () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+        TransactionResponseDto second = idempotencyService.execute("key-1", "transaction", REQUEST, TransactionResponseDto.class, () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+
+        assertEquals(1, calls.get());
+        assertEquals(response, first);
+        assertEquals(response, second);
+        verify(idempotencyKeyRepository).save(any(IdempotencyKeyEntity.class));
+    }
+
+    @Test
+    @DisplayName("Ключ, сохраненный в БД, возвращает ответ первого выполнения")
+    void execute_KeyStoredInDatabase_ReplaysResponse() {
+        when(idempotencyKeyRepository.findById("key-1")).thenReturn(Optional.of(IdempotencyKeyEntity.builder()
+                .idempotencyKey("key-1")
+                .operation("transfer")
+                .requestHash(requestHash(REQUEST))
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .build()));
+
+        Void result = idempotencyService.execute("key-1", "transfer", REQUEST, Void.class, () -> {
+            throw new AssertionError("Операция не должна выполняться повторно");
+        });
+
+        assertNull(result);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Ключ, использованный для другой операции, отклоняется")
+    void execute_KeyReusedForOtherOperation_ThrowsException() {
+        stubTransactionTemplate();
+        when(idempotencyKeyRepository.findById("key-1")).thenReturn(Optional.empty());
+        idempotencyService.execute("key-1", "transfer", REQUEST, Void.class, () -> null);
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute(
+                "key-1", "transaction", REQUEST, TransactionResponseDto.class, this::response
+        ));
+    }
+
+    @Test
+    @DisplayName("Ключ, повторенный с другим содержимым запроса, отклоняется без выполнения операции")
+    void execute_KeyReusedWithOtherRequest_ThrowsException() {
+        stubTransactionTemplate();
+        when(idempotencyKeyRepository.findById("key-1")).thenReturn(Optional.empty());
+        idempotencyService.execute("key-1", "transfer:alice", Map.of("toUser", "bob", "amount", 10.0), Void.class, () -> null);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute(
+                "key-1", "transfer:alice", Map.of("toUser", "carol", "amount", 10.0), Void.class, () -> {
+                    calls.incrementAndGet();
+                    return null;
+                }
+        ));
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute(
+                "key-1", "transfer:carol", Map.of("toUser", "bob", "amount", 10.0), Void.class, () -> {
+                    calls.incrementAndGet();
+                    return null;
+                }
+        ));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("Без ключа операция выполняется каждый раз")
+    void execute_NoKey_RunsEveryTime() {
+        AtomicInteger calls = new AtomicInteger();
+
+        idempotencyService.execute(null, "transfer", REQUEST, Void.class, () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+        idempotencyService.execute(null, "transfer", REQUEST, Void.class, () -> {
+            calls.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, calls.get());
+        verifyNoInteractions(idempotencyKeyRepository, transactionTemplate);
+    }
+
+    @Test
+    @DisplayName("Параллельные запросы с одним ключом выполняют операцию один раз")
+    void execute_ConcurrentSameKey_Coalesced() throws Exception {
+        stubTransactionTemplate();
+        when(idempotencyKeyRepository.findById("key-1")).thenReturn(Optional.empty());
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionResponseDto response = response();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<TransactionResponseDto>> futures = new ArrayList<>();
+        futures.add(pool.submit(() -> idempotencyService.execute("key-1", "transaction", REQUEST, TransactionResponseDto.class, () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return response;
+        })));
+        started.await();
+        for (int i = 0; i < 3; i++) {
+            futures.add(pool.submit(() -> idempotencyService.execute("key-1", "transaction", REQUEST, TransactionResponseDto.class, () -> {
+                calls.incrementAndGet();
+                return response;
+            })));
+        }
+        release.countDown();
+
+        for (Future<TransactionResponseDto> future : futures) {
+            assertEquals(response, future.get(10, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        assertEquals(1, calls.get());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransactionTemplate() {
+        when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static String requestHash(Object request) {
+        try {
+            byte[] json = new ObjectMapper().writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private TransactionResponseDto response() {
+        return TransactionResponseDto.builder()
+                .id(UUID.randomUUID())
+                .type(TransactionType.INCOME)
+                .amount(Money.of(500.0))
+                .category("Salary")
+                .date(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
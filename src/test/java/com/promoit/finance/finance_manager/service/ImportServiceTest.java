@@ -0,0 +1,181 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.promoit.finance.finance_manager.domain.dto.transaction.BulkTransactionResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.ImportEventDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.exception.transaction.InvalidImportFileException;
+import com.promoit.finance.finance_manager.domain.exception.wallet.InsufficientFundsException;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServiceTest {
+    @Mock
+    private FinanceService financeService;
+    @Mock
+    private WalletLaneExecutor walletLanes;
+    @Mock
+    private WalletRepository walletRepository;
+    @Mock
+    private EntityManager entityManager;
+
+    private ImportService importService;
+    private ObjectMapper objectMapper;
+    private UUID walletId;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        importService = new ImportService(
+                financeService, walletLanes, walletRepository, entityManager,
+                Validation.buildDefaultValidatorFactory().getValidator(), objectMapper, 2
+        );
+        walletId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Выписка импортируется пакетами, отклоненные строки попадают в ленту с номером строки")
+    @SuppressWarnings("unchecked")
+    void importCsv_CommitsChunksAndReportsRowErrors() throws IOException {
+        String csv = """
+                date,type,amount,category,description
+                2024-01-05,INCOME,1000,Salary,"Зарплата, январь"
+                2024-01-06,EXPENSE,abc,Food,
+                2024-01-07T12:30:00,EXPENSE,-5,Food,
+
+                ,,"-30,5",Food,"Обед ""у дома""\"
+                2024-01-08,EXPENSE,20,Food,Cafe
+                """;
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(walletLanes.execute(eq(walletId), any(Supplier.class))).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(financeService.addTransactions(eq(walletId), anyList())).thenAnswer(invocation -> {
+            List<TransactionRequestDto> requests = invocation.getArgument(1);
+            List<BulkTransactionResponseDto.Item> items = new ArrayList<>();
+            int accepted = 0;
+            for (int i = 0; i < requests.size(); i++) {
+                boolean enoughFunds = requests.get(i).getAmount() != 20.0;
+                items.add(BulkTransactionResponseDto.Item.builder()
+                        .index(i).accepted(enoughFunds).error(enoughFunds ? null : "Недостаточно средств").build());
+                accepted += enoughFunds ? 1 : 0;
+            }
+            return BulkTransactionResponseDto.builder().accepted(accepted).rejected(requests.size() - accepted).items(items).build();
+        });
+
+        List<ImportEventDto> events = run(csv);
+
+        ArgumentCaptor<List<TransactionRequestDto>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(financeService, times(2)).addTransactions(eq(walletId), chunks.capture());
+        List<TransactionRequestDto> first = chunks.getAllValues().get(0);
+        assertEquals(2, first.size());
+        assertEquals(LocalDateTime.of(2024, 1, 5, 0, 0), first.get(0).getDate());
+        assertEquals("Зарплата, январь", first.get(0).getDescription());
+        assertEquals(TransactionType.EXPENSE, first.get(1).getType());
+        assertEquals(30.5, first.get(1).getAmount());
+        assertEquals("Обед \"у дома\"", first.get(1).getDescription());
+        assertNull(first.get(1).getDate());
+        verify(entityManager, times(2)).clear();
+
+        assertEquals(6, events.size());
+        assertEquals(ImportEventDto.Event.ERROR, events.get(0).getEvent());
+        assertEquals(2, events.get(0).getRow());
+        assertEquals("Некорректная сумма: abc", events.get(0).getError());
+        assertEquals(3, events.get(1).getRow());
+        assertTrue(events.get(1).getError().contains("Сумма должна быть положительным числом"));
+        assertEquals(ImportEventDto.Event.PROGRESS, events.get(2).getEvent());
+        assertEquals(4, events.get(2).getRows());
+        assertEquals(5, events.get(3).getRow());
+        assertEquals("Недостаточно средств", events.get(3).getError());
+        assertEquals(ImportEventDto.Event.PROGRESS, events.get(4).getEvent());
+
+        ImportEventDto done = events.get(5);
+        assertEquals(ImportEventDto.Event.DONE, done.getEvent());
+        assertEquals(5, done.getRows());
+        assertEquals(2, done.getImported());
+        assertEquals(3, done.getRejected());
+        assertNotNull(done.getRowsPerSecond());
+    }
+
+    @Test
+    @DisplayName("Откат пакета отклоняет все его строки, импорт продолжается")
+    @SuppressWarnings("unchecked")
+    void importCsv_FailedChunk_RejectsItsRowsAndContinues() throws IOException {
+        String csv = """
+                amount,category
+                -100,Food
+                -200,Food
+                50,Salary
+                """;
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+        when(walletLanes.execute(eq(walletId), any(Supplier.class))).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(financeService.addTransactions(eq(walletId), anyList()))
+                .thenThrow(new InsufficientFundsException("Недостаточно средств"))
+                .thenReturn(BulkTransactionResponseDto.builder()
+                        .accepted(1).rejected(0)
+                        .items(List.of(BulkTransactionResponseDto.Item.builder().index(0).accepted(true).build()))
+                        .build());
+
+        List<ImportEventDto> events = run(csv);
+
+        assertEquals(List.of(1L, 2L), events.stream()
+                .filter(event -> event.getEvent() == ImportEventDto.Event.ERROR)
+                .map(ImportEventDto::getRow)
+                .toList());
+        ImportEventDto done = events.get(events.size() - 1);
+        assertEquals(ImportEventDto.Event.DONE, done.getEvent());
+        assertEquals(1, done.getImported());
+        assertEquals(2, done.getRejected());
+    }
+
+    @Test
+    @DisplayName("Файл без обязательных колонок отклоняется до начала импорта")
+    void importCsv_MissingColumns_ThrowsException() {
+        when(walletRepository.existsById(walletId)).thenReturn(true);
+
+        assertThrows(InvalidImportFileException.class,
+                () -> importService.importCsv(walletId, input("date,amount,description\n2024-01-05,10,x\n"), ','));
+        verifyNoInteractions(financeService);
+    }
+
+    private List<ImportEventDto> run(String csv) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        importService.importCsv(walletId, input(csv), ',').writeTo(output);
+        List<ImportEventDto> events = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            events.add(objectMapper.readValue(line, ImportEventDto.class));
+        }
+        return events;
+    }
+
+    private static InputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,157 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerJournalTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("После повторного открытия журнал читается целиком и продолжает нумерацию")
+    void reopen_ReplaysRecordsAndContinuesSequence() {
+        UUID walletId = UUID.randomUUID();
+        UUID transactionId = UUID.randomUUID();
+        try (LedgerJournal journal = new LedgerJournal(directory, 1024)) {
+            journal.append(LedgerRecord.transaction(walletId, transactionId, 1_000_000L, TransactionType.INCOME, SALARY, Money.of(1000.0)));
+            journal.append(LedgerRecord.budgetSet(walletId, FOOD, Money.of(300.0), BudgetPeriod.NONE, null, null));
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, 1024)) {
+            List<LedgerRecord> records = new ArrayList<>();
+            assertEquals(2, journal.replay(0, records::add));
+            assertEquals(2, journal.lastSequence());
+            assertEquals(new LedgerRecord(1, LedgerRecord.TRANSACTION, walletId, transactionId,
+                    1_000_000L, TransactionType.INCOME, SALARY, 100_000L), records.get(0));
+            assertEquals(LedgerRecord.budgetSet(walletId, FOOD, Money.of(300.0), BudgetPeriod.NONE, null, null).withSequence(2), records.get(1));
+            assertEquals(3, journal.append(LedgerRecord.budgetDeleted(walletId, FOOD)));
+        }
+    }
+
+    @Test
+    @DisplayName("Журнал переходит на новый сегмент, хвост читается с нужной записи")
+    void append_RollsSegmentsAndReplaysTail() {
+        UUID walletId = UUID.randomUUID();
+        try (LedgerJournal journal = new LedgerJournal(directory, 4 * LedgerRecord.SIZE)) {
+            for (int i = 1; i <= 10; i++) {
+                journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(), i, TransactionType.INCOME, SALARY, Money.of(i)));
+            }
+            assertEquals(3, journal.segmentCount());
+
+            List<Long> tail = new ArrayList<>();
+            journal.replay(5, record -> tail.add(record.sequence()));
+            assertEquals(List.of(6L, 7L, 8L, 9L, 10L), tail);
+        }
+    }
+
+    @Test
+    @DisplayName("Снимок и хвост журнала дают то же состояние, что и журнал целиком")
+    void snapshotPlusTail_EqualsFullReplay() throws Exception {
+        UUID walletId = UUID.randomUUID();
+        try (LedgerJournal journal = new LedgerJournal(directory, 1024)) {
+            LedgerRecord.category(FOOD, "Еда").forEach(journal::append);
+            journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(), 1, TransactionType.INCOME, SALARY, Money.of(1000.0)));
+            // Расход до установки бюджета не учитывается в тратах бюджета
+            journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(), 2, TransactionType.EXPENSE, FOOD, Money.of(100.0)));
+            journal.append(LedgerRecord.budgetSet(walletId, FOOD, Money.of(500.0), BudgetPeriod.MONTHLY, null, LocalDate.of(2026, 10, 1)));
+
+            LedgerState snapshotState = new LedgerState();
+            journal.replay(0, snapshotState::apply);
+            Path snapshot = directory.resolve("snapshot.bin");
+            snapshotState.writeSnapshot(snapshot);
+
+            journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(),
+                    TransactionColumns.toEpochMicros(LocalDateTime.of(2026, 10, 5, 12, 0)), TransactionType.EXPENSE, FOOD, Money.of(200.0)));
+
+            LedgerState restored = LedgerState.readSnapshot(snapshot);
+            assertEquals(1, journal.replay(restored.getSequence(), restored::apply));
+            LedgerState full = new LedgerState();
+            journal.replay(0, full::apply);
+
+            assertEquals(5, restored.getSequence());
+            assertEquals(Money.of(700.0), restored.getWallets().get(walletId).getBalance());
+            assertEquals(3, restored.getWallets().get(walletId).getTransactions());
+            LedgerState.BudgetTotals budget = restored.getBudgets().get(new LedgerState.BudgetKey(walletId, "Еда"));
+            assertEquals(Money.of(500.0), budget.getLimit());
+            assertEquals(Money.of(200.0), budget.getSpent());
+            assertEquals(LocalDate.of(2026, 11, 1), budget.getPeriodEnd());
+            assertEquals(full.getWallets().get(walletId).getBalance(), restored.getWallets().get(walletId).getBalance());
+        }
+    }
+
+    @Test
+    @DisplayName("Расход задним числом меняет баланс, но не траты текущего периода бюджета")
+    void replay_BackdatedExpense_NotChargedToBudget() {
+        UUID walletId = UUID.randomUUID();
+        try (LedgerJournal journal = new LedgerJournal(directory, 1024)) {
+            LedgerRecord.category(FOOD, "Еда").forEach(journal::append);
+            journal.append(LedgerRecord.budgetSet(walletId, FOOD, Money.of(500.0), BudgetPeriod.MONTHLY, null, LocalDate.of(2026, 10, 1)));
+            // Импорт выписки за прошлый месяц после установки бюджета
+            journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(),
+                    TransactionColumns.toEpochMicros(LocalDateTime.of(2026, 9, 30, 23, 59)), TransactionType.EXPENSE, FOOD, Money.of(300.0)));
+            journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(),
+                    TransactionColumns.toEpochMicros(LocalDateTime.of(2026, 10, 1, 0, 0)), TransactionType.EXPENSE, FOOD, Money.of(40.0)));
+
+            LedgerState state = new LedgerState();
+            journal.replay(0, state::apply);
+
+            assertEquals(Money.of(-340.0), state.getWallets().get(walletId).getBalance());
+            assertEquals(Money.of(40.0), state.getBudgets().get(new LedgerState.BudgetKey(walletId, "Еда")).getSpent());
+        }
+    }
+
+    @Test
+    @DisplayName("Длинное название категории записывается несколькими записями и собирается при чтении")
+    void category_LongName_SplitsIntoRecordsAndReassembles() {
+        UUID walletId = UUID.randomUUID();
+        String name = "Коммунальные платежи и обслуживание квартиры";
+        try (LedgerJournal journal = new LedgerJournal(directory, 1024)) {
+            List<LedgerRecord> definition = LedgerRecord.category(FOOD, name);
+            assertTrue(definition.size() > 1);
+            definition.forEach(journal::append);
+            journal.append(LedgerRecord.budgetSet(walletId, FOOD, Money.of(100.0), BudgetPeriod.NONE, null, null));
+
+            LedgerState state = new LedgerState();
+            journal.replay(0, state::apply);
+
+            assertEquals(name, state.categoryName(FOOD));
+            assertTrue(state.getBudgets().containsKey(new LedgerState.BudgetKey(walletId, name)));
+        }
+    }
+
+    @Test
+    @DisplayName("Бюджет остается за категорией по названию, даже если ее id выдан другой категории")
+    void category_Redefined_BudgetsKeepCategoryName() {
+        UUID walletId = UUID.randomUUID();
+        try (LedgerJournal journal = new LedgerJournal(directory, 1024)) {
+            LedgerRecord.category(FOOD, "Еда").forEach(journal::append);
+            journal.append(LedgerRecord.budgetSet(walletId, FOOD, Money.of(500.0), BudgetPeriod.NONE, null, null));
+            // После потери БД тот же id получила другая категория
+            LedgerRecord.category(FOOD, "Транспорт").forEach(journal::append);
+            journal.append(LedgerRecord.transaction(walletId, UUID.randomUUID(), 1, TransactionType.EXPENSE, FOOD, Money.of(50.0)));
+            // Запись без определения категории не меняет бюджеты
+            journal.append(LedgerRecord.budgetSet(walletId, SALARY, Money.of(100.0), BudgetPeriod.NONE, null, null));
+
+            LedgerState state = new LedgerState();
+            journal.replay(0, state::apply);
+
+            assertEquals(1, state.getBudgets().size());
+            assertEquals(Money.ZERO, state.getBudgets().get(new LedgerState.BudgetKey(walletId, "Еда")).getSpent());
+            assertEquals(Money.of(-50.0), state.getWallets().get(walletId).getBalance());
+        }
+    }
+}
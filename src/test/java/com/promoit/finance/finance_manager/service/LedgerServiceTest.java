@@ -0,0 +1,194 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.budget.BudgetPeriod;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerRestoreResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.LedgerVerifyResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.WalletTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.BudgetEntity;
+import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.event.BudgetChangedEvent;
+import com.promoit.finance.finance_manager.domain.event.TransactionAddedEvent;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private WalletRepository walletRepository;
+    @Mock
+    private BudgetRepository budgetRepository;
+    @Mock
+    private BudgetIndex budgetIndex;
+    @Mock
+    private CategoryDictionary categoryDictionary;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    Path directory;
+
+    private LedgerService ledgerService;
+
+    @AfterEach
+    void tearDown() {
+        if (ledgerService != null) {
+            ledgerService.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("При запуске загружается снимок и применяется только хвост журнала после него")
+    void recover_LoadsSnapshotAndReplaysTail() {
+        stubCategoryNames();
+        UUID walletId = UUID.randomUUID();
+        ledgerService = startService();
+        ledgerService.onTransactionAdded(income(walletId, 1000.0));
+        ledgerService.onBudgetChanged(budgetSet(walletId, 500.0));
+        ledgerService.snapshot();
+        ledgerService.onTransactionAdded(expense(walletId, 200.0));
+        ledgerService.shutdown();
+
+        ledgerService = startService();
+        LedgerStatsDto stats = ledgerService.getStats();
+
+        // Записи до снимка: определение категории "Зарплата", доход, определение категории "Еда", бюджет
+        assertEquals(4L, stats.getSnapshotSequence());
+        assertEquals(1L, stats.getRecoveredRecords());
+        assertEquals(5L, stats.getRecords());
+        assertEquals(1, stats.getWallets());
+        assertEquals(1, stats.getBudgets());
+    }
+
+    @Test
+    @DisplayName("Сверка сообщает о кошельках, по которым журнал расходится с БД")
+    void verify_DatabaseDiffers_ReportsMismatch() {
+        stubCategoryNames();
+        UUID walletId = UUID.randomUUID();
+        UUID otherWalletId = UUID.randomUUID();
+        ledgerService = startService();
+        ledgerService.onTransactionAdded(income(walletId, 1000.0));
+        ledgerService.onTransactionAdded(expense(walletId, 200.0));
+        ledgerService.onTransactionAdded(income(otherWalletId, 50.0));
+        when(transactionRepository.sumByWalletAndType()).thenReturn(List.of(
+                new WalletTotalDto(walletId, TransactionType.INCOME, Money.of(1000.0), 1L),
+                new WalletTotalDto(walletId, TransactionType.EXPENSE, Money.of(200.0), 1L),
+                // Вторая транзакция кошелька зафиксирована в БД, но не попала в журнал
+                new WalletTotalDto(otherWalletId, TransactionType.INCOME, Money.of(80.0), 2L)
+        ));
+
+        LedgerVerifyResponseDto result = ledgerService.verify();
+
+        assertEquals(2, result.getWallets());
+        assertEquals(1, result.getMismatches().size());
+        LedgerVerifyResponseDto.Mismatch mismatch = result.getMismatches().get(0);
+        assertEquals(otherWalletId, mismatch.getWalletId());
+        assertEquals(1L, mismatch.getJournalTransactions());
+        assertEquals(2L, mismatch.getDatabaseTransactions());
+        assertEquals(Money.of(50.0), mismatch.getJournalBalance());
+        assertEquals(Money.of(80.0), mismatch.getDatabaseBalance());
+    }
+
+    @Test
+    @DisplayName("Восстановление создает бюджет по названию категории с новым id и сохраняет период")
+    void restore_CategoryIdChanged_ReinternsNameAndKeepsPeriod() {
+        stubCategoryNames();
+        stubTransactionTemplate();
+        UUID walletId = UUID.randomUUID();
+        ledgerService = startService();
+        ledgerService.onTransactionAdded(income(walletId, 1000.0));
+        ledgerService.onBudgetChanged(budgetSet(walletId, 500.0));
+        ledgerService.onTransactionAdded(expense(walletId, 120.0));
+
+        // После потери БД категория "Еда" получает в словаре другой id
+        int newFoodId = 7;
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(walletId);
+        when(categoryDictionary.idOf("Еда")).thenReturn(newFoodId);
+        when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+        when(budgetRepository.findByWalletAndCategoryId(wallet, newFoodId)).thenReturn(Optional.empty());
+
+        LedgerRestoreResponseDto result = ledgerService.restore();
+
+        assertEquals(1, result.getWallets());
+        assertEquals(1, result.getBudgets());
+        assertEquals(Money.of(880.0), wallet.getBalance());
+        ArgumentCaptor<BudgetEntity> budgetCaptor = ArgumentCaptor.forClass(BudgetEntity.class);
+        verify(budgetRepository).save(budgetCaptor.capture());
+        BudgetEntity budget = budgetCaptor.getValue();
+        assertEquals(newFoodId, budget.getCategoryId());
+        assertEquals(Money.of(500.0), budget.getLimitAmount());
+        assertEquals(Money.of(120.0), budget.getCurrentSpent());
+        assertEquals(BudgetPeriod.MONTHLY, budget.getPeriod());
+        assertEquals(LocalDate.of(2026, 10, 1), budget.getPeriodStart());
+        assertEquals(LocalDate.of(2026, 11, 1), budget.getPeriodEnd());
+        verify(budgetIndex).invalidate(walletId);
+    }
+
+    private LedgerService startService() {
+        LedgerService service = new LedgerService(
+                transactionRepository, walletRepository, budgetRepository, budgetIndex, categoryDictionary,
+                transactionTemplate, eventPublisher, true, directory.toString(), DataSize.ofKilobytes(4)
+        );
+        service.recover();
+        return service;
+    }
+
+    private void stubCategoryNames() {
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Зарплата");
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Еда");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransactionTemplate() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any(Consumer.class));
+    }
+
+    private static TransactionAddedEvent income(UUID walletId, double amount) {
+        return new TransactionAddedEvent(walletId, UUID.randomUUID(), LocalDateTime.now(), TransactionType.INCOME, SALARY, Money.of(amount));
+    }
+
+    private static TransactionAddedEvent expense(UUID walletId, double amount) {
+        return new TransactionAddedEvent(walletId, UUID.randomUUID(), LocalDateTime.now(), TransactionType.EXPENSE, FOOD, Money.of(amount));
+    }
+
+    private static BudgetChangedEvent budgetSet(UUID walletId, double limitAmount) {
+        return new BudgetChangedEvent(walletId, FOOD, Money.of(limitAmount), BudgetPeriod.MONTHLY, null,
+                LocalDate.of(2026, 10, 1), LocalDate.of(2026, 11, 1));
+    }
+}
@@ -1,25 +1,37 @@
 package com.promoit.finance.finance_manager.service;
 
+import com.promoit.finance.finance_manager.domain.dto.statistics.NotificationStatsDto;
+import com.promoit.finance.finance_manager.domain.event.NotificationEvent;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NotificationServiceTest {
 
-    @InjectMocks
     private NotificationService notificationService;
 
+    @BeforeEach
+    void setUp() {
+        // Фоновый поток не запускается: пакеты отправляются из теста напрямую
+        notificationService = new NotificationService(2, Duration.ofMillis(50), 100);
+    }
+
     @Test
     @DisplayName("Уведомление о превышении бюджета логируется корректно")
     void notifyBudgetExceeded_LogsWarning() {
         String username = "testuser";
         String category = "Food";
-        Double spent = 1200.0;
+        BigDecimal spent = new BigDecimal("1200.00");
 
         assertDoesNotThrow(() -> notificationService.notifyBudgetExceeded(username, category, spent));
     }
@@ -29,7 +41,7 @@ class NotificationServiceTest {
     void notifyBudgetWarning_LogsInfo() {
         String username = "testuser";
         String category = "Food";
-        Double percentage = 85.0;
+        BigDecimal percentage = new BigDecimal("85.00");
 
         assertDoesNotThrow(() -> notificationService.notifyBudgetWarning(username, category, percentage));
     }
@@ -41,4 +53,65 @@ class NotificationServiceTest {
 
         assertDoesNotThrow(() -> notificationService.notifyNegativeBalance(username));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Повторные уведомления в окне объединяются, превышение заменяет предупреждение")
+    void deliver_CoalescesPerUserAndCategory() {
+        NotificationService service = spy(notificationService);
+        service.deliver(List.of(
+                new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("85.00")),
+                new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("90.00")),
+                new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Transport", new BigDecimal("81.00")),
+                new NotificationEvent(NotificationEvent.Type.BUDGET_EXCEEDED, "testuser", "Food", new BigDecimal("1200.00")),
+                new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("95.00"))
+        ));
+
+        verify(service).notifyBudgetExceeded("testuser", "Food", new BigDecimal("1200.00"));
+        verify(service).notifyBudgetWarning("testuser", "Transport", new BigDecimal("81.00"));
+        verify(service, never()).notifyBudgetWarning(eq("testuser"), eq("Food"), any(BigDecimal.class));
+        NotificationStatsDto stats = service.getStats();
+        assertEquals(2, stats.getDelivered());
+        assertEquals(3, stats.getCoalesced());
+        assertEquals(1, stats.getBatches());
+    }
+
+    @Test
+    @DisplayName("При заполненной очереди уведомления отбрасываются без блокировки")
+    void onNotification_QueueFull_DropsAndCounts() {
+        for (int i = 0; i < 3; i++) {
+            notificationService.onNotification(
+                    new NotificationEvent(NotificationEvent.Type.NEGATIVE_BALANCE, "user" + i, null, new BigDecimal("-1.00"))
+            );
+        }
+
+        NotificationStatsDto stats = notificationService.getStats();
+        assertEquals(2, stats.getQueueDepth());
+        assertEquals(2, stats.getEnqueued());
+        assertEquals(1, stats.getDropped());
+    }
+
+    @Test
+    @DisplayName("Фоновый поток отправляет уведомления из очереди")
+    void worker_DeliversQueuedNotifications() throws InterruptedException {
+        notificationService.start();
+        try {
+            notificationService.onNotification(
+                    new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("85.00"))
+            );
+            notificationService.onNotification(
+                    new NotificationEvent(NotificationEvent.Type.BUDGET_WARNING, "testuser", "Food", new BigDecimal("88.00"))
+            );
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            NotificationStatsDto stats = notificationService.getStats();
+            while (stats.getDelivered() + stats.getCoalesced() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+                stats = notificationService.getStats();
+            }
+            assertEquals(0, stats.getQueueDepth());
+            assertEquals(2, stats.getDelivered() + stats.getCoalesced());
+        } finally {
+            notificationService.shutdown();
+        }
+    }
+}
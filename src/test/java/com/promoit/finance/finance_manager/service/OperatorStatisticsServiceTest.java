@@ -0,0 +1,105 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.statistics.OperatorStatisticsResponseDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.repository.BudgetRepository;
+import com.promoit.finance.finance_manager.domain.repository.DailyCategoryRollupRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OperatorStatisticsServiceTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+
+    @Mock
+    private WalletRepository walletRepository;
+    @Mock
+    private DailyCategoryRollupRepository rollupRepository;
+    @Mock
+    private BudgetRepository budgetRepository;
+    @Mock
+    private CategoryDictionary categoryDictionary;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OperatorStatisticsService operatorStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        operatorStatisticsService = new OperatorStatisticsService(
+                walletRepository, rollupRepository, budgetRepository, categoryDictionary, transactionManager, 2, 2
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        operatorStatisticsService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Группы кошельков считаются отдельно, частичные результаты складываются")
+    void getStatistics_SeveralPartitions_MergesPartials() {
+        List<UUID> walletIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            walletIds.add(UUID.randomUUID());
+        }
+        when(walletRepository.findAllIds()).thenReturn(walletIds);
+        // Каждый кошелек группы: расход 10 на еду и доход 100 зарплаты
+        when(rollupRepository.sumByTypeAndCategoryForWallets(anyCollection())).thenAnswer(invocation -> {
+            int wallets = invocation.<Collection<UUID>>getArgument(0).size();
+            return List.of(
+                    new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(10.0 * wallets), (long) wallets),
+                    new CategoryTotalDto(TransactionType.INCOME, SALARY, Money.of(100.0 * wallets), (long) wallets)
+            );
+        });
+        when(budgetRepository.countByWalletIds(anyCollection()))
+                .thenAnswer(invocation -> (long) invocation.<Collection<UUID>>getArgument(0).size());
+        when(budgetRepository.countExceededByWalletIds(anyCollection(), any(LocalDate.class))).thenReturn(1L);
+        when(categoryDictionary.nameOf(SALARY)).thenReturn("Salary");
+        when(categoryDictionary.nameOf(FOOD)).thenReturn("Food");
+
+        OperatorStatisticsResponseDto result = operatorStatisticsService.getStatistics();
+
+        assertEquals(5, result.getWallets());
+        assertEquals(3, result.getPartitions());
+        assertEquals(Money.of(500.0), result.getTotalIncome());
+        assertEquals(Money.of(50.0), result.getTotalExpense());
+        assertEquals(Map.of("Food", Money.of(50.0)), result.getExpenseByCategory());
+        assertEquals(5L, result.getBudgets());
+        assertEquals(3L, result.getExceededBudgets());
+        verify(rollupRepository, times(3)).sumByTypeAndCategoryForWallets(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Без кошельков сводная статистика пустая")
+    void getStatistics_NoWallets_ReturnsZeros() {
+        when(walletRepository.findAllIds()).thenReturn(List.of());
+
+        OperatorStatisticsResponseDto result = operatorStatisticsService.getStatistics();
+
+        assertEquals(0, result.getWallets());
+        assertEquals(Money.ZERO, result.getTotalIncome());
+        assertEquals(0L, result.getExceededBudgets());
+        verifyNoInteractions(rollupRepository, budgetRepository);
+    }
+}
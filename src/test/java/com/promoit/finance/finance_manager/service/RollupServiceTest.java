@@ -0,0 +1,112 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.CategoryTotalDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.entity.DailyCategoryRollupEntity;
+import com.promoit.finance.finance_manager.domain.entity.TransactionEntity;
+import com.promoit.finance.finance_manager.domain.entity.WalletEntity;
+import com.promoit.finance.finance_manager.domain.repository.DailyCategoryRollupRepository;
+import com.promoit.finance.finance_manager.domain.repository.TransactionRepository;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollupServiceTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+
+    @Mock
+    private DailyCategoryRollupRepository rollupRepository;
+    @Mock
+    private TransactionRepository transactionRepository;
+    @Mock
+    private WalletRepository walletRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @InjectMocks
+    private RollupService rollupService;
+
+    @Test
+    @DisplayName("Статистика без периода считается только по агрегатам")
+    void sumByTypeAndCategory_NoPeriod_UsesRollupsOnly() {
+        UUID walletId = UUID.randomUUID();
+        List<CategoryTotalDto> totals = List.of(new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(300.0), 3L));
+        when(rollupRepository.sumByTypeAndCategory(walletId, null, null)).thenReturn(totals);
+
+        List<CategoryTotalDto> result = rollupService.sumByTypeAndCategory(walletId, null, null, null);
+
+        assertEquals(totals, result);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @DisplayName("Полные дни берутся из агрегатов, неполные дни на границах - из транзакций")
+    void sumByTypeAndCategory_PartialEdges_MergesRollupsAndTransactions() {
+        UUID walletId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 12, 0);
+        LocalDateTime endDate = LocalDateTime.of(2025, 1, 5, 18, 0);
+
+        when(rollupRepository.sumByTypeAndCategory(walletId, LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 4)))
+                .thenReturn(List.of(new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(300.0), 3L)));
+        when(transactionRepository.sumByTypeAndCategory(eq(walletId), eq(startDate), any(LocalDateTime.class)))
+                .thenReturn(List.of(new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(50.0), 1L)));
+        when(transactionRepository.sumByTypeAndCategory(walletId, LocalDate.of(2025, 1, 5).atStartOfDay(), endDate))
+                .thenReturn(List.of(new CategoryTotalDto(TransactionType.INCOME, SALARY, Money.of(1000.0), 1L)));
+
+        List<CategoryTotalDto> result = rollupService.sumByTypeAndCategory(walletId, null, startDate, endDate);
+
+        assertEquals(2, result.size());
+        CategoryTotalDto food = result.stream().filter(t -> t.getCategoryId() == FOOD).findFirst().orElseThrow();
+        assertEquals(Money.of(350.0), food.getTotal());
+        assertEquals(4L, food.getCount());
+    }
+
+    @Test
+    @DisplayName("Период внутри одного дня считается только по транзакциям")
+    void sumByTypeAndCategory_WithinOneDay_UsesTransactionsOnly() {
+        UUID walletId = UUID.randomUUID();
+        LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 9, 0);
+        LocalDateTime endDate = LocalDateTime.of(2025, 1, 1, 18, 0);
+        List<CategoryTotalDto> totals = List.of(new CategoryTotalDto(TransactionType.EXPENSE, FOOD, Money.of(40.0), 1L));
+        when(transactionRepository.sumByTypeAndCategory(walletId, startDate, endDate)).thenReturn(totals);
+
+        List<CategoryTotalDto> result = rollupService.sumByTypeAndCategory(walletId, null, startDate, endDate);
+
+        assertEquals(totals, result);
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    @DisplayName("Первая транзакция дня в категории создает новый агрегат")
+    void record_NoRollupForDay_CreatesRollup() {
+        WalletEntity wallet = new WalletEntity();
+        wallet.setId(UUID.randomUUID());
+        TransactionEntity transaction = TransactionEntity.builder()
+                .type(TransactionType.EXPENSE)
+                .amount(Money.of(30.0))
+                .categoryId(FOOD)
+                .date(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .wallet(wallet)
+                .build();
+        when(rollupRepository.increment(wallet.getId(), LocalDate.of(2025, 1, 1), FOOD, TransactionType.EXPENSE, Money.of(30.0), 1L))
+                .thenReturn(0);
+
+        rollupService.record(transaction);
+
+        verify(rollupRepository).save(any(DailyCategoryRollupEntity.class));
+    }
+}
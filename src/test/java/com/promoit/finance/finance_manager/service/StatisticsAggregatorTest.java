@@ -0,0 +1,70 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsAggregatorTest {
+    private static final int SALARY = 1;
+    private static final int FOOD = 2;
+    private static final int TRANSPORT = 3;
+    private static final int GIFTS = 4;
+    // id больше начального размера массива аккумуляторов
+    private static final int RENT = 40;
+    private static final Map<Integer, String> NAMES = Map.of(
+            SALARY, "Salary", FOOD, "Food", TRANSPORT, "Transport", GIFTS, "Gifts", RENT, "Rent"
+    );
+
+    @Test
+    @DisplayName("Агрегатор считает итоги и суммы по категориям за один проход")
+    void add_MixedTransactions_CalculatesTotalsAndCategories() {
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        aggregator.add(TransactionType.INCOME, SALARY, Money.of(1000.0), 1);
+        aggregator.add(TransactionType.EXPENSE, FOOD, Money.of(300.0), 2);
+        aggregator.add(TransactionType.EXPENSE, FOOD, Money.of(50.0), 1);
+        aggregator.add(TransactionType.EXPENSE, TRANSPORT, Money.of(100.0), 1);
+
+        assertEquals(Money.of(1000.0), aggregator.getTotalIncome());
+        assertEquals(Money.of(450.0), aggregator.getTotalExpense());
+        assertEquals(Money.of(550.0), aggregator.getBalance());
+        assertEquals(Map.of("Salary", Money.of(1000.0)), aggregator.getIncomeByCategory(NAMES::get));
+        assertEquals(Map.of("Food", Money.of(350.0), "Transport", Money.of(100.0)), aggregator.getExpenseByCategory(NAMES::get));
+        assertTrue(aggregator.hasExpense(FOOD));
+        assertFalse(aggregator.hasExpense(SALARY));
+        assertEquals(Money.ZERO, aggregator.getExpense(RENT));
+    }
+
+    @Test
+    @DisplayName("Слияние частичных результатов складывает итоги и категории")
+    void merge_TwoPartials_SumsEverything() {
+        StatisticsAggregator left = new StatisticsAggregator();
+        left.add(TransactionType.EXPENSE, FOOD, Money.of(100.0), 1);
+        StatisticsAggregator right = new StatisticsAggregator();
+        right.add(TransactionType.EXPENSE, FOOD, Money.of(20.0), 1);
+        right.add(TransactionType.INCOME, GIFTS, Money.of(10.0), 1);
+
+        left.merge(right);
+
+        assertEquals(Money.of(120.0), left.getExpense(FOOD));
+        assertEquals(Money.of(10.0), left.getTotalIncome());
+        assertEquals(Map.of("Gifts", Money.of(10.0)), left.getIncomeByCategory(NAMES::get));
+    }
+
+    @Test
+    @DisplayName("Суммы копеек складываются точно, без ошибки округления double")
+    void add_FractionalAmounts_SumsExactly() {
+        StatisticsAggregator aggregator = new StatisticsAggregator();
+        for (int i = 0; i < 10; i++) {
+            aggregator.add(TransactionType.EXPENSE, FOOD, Money.of(0.1), 1);
+        }
+        aggregator.add(TransactionType.INCOME, SALARY, Money.of(0.1), 1);
+        aggregator.add(TransactionType.INCOME, SALARY, Money.of(0.2), 1);
+
+        assertEquals(Money.of(1.0), aggregator.getExpense(FOOD));
+        assertEquals(Money.of(0.3), aggregator.getTotalIncome());
+        assertEquals(Money.of(-0.7), aggregator.getBalance());
+    }
+}
@@ -0,0 +1,89 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsCacheKey;
+import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticsCacheTest {
+
+    @Test
+    @DisplayName("Порядок и повторы категорий не влияют на ключ кэша")
+    void get_SameCategoriesInOtherOrder_Hit() {
+        StatisticsCache cache = new StatisticsCache(10, Duration.ofMinutes(1));
+        UUID walletId = UUID.randomUUID();
+        StatisticsResponseDto statistics = StatisticsResponseDto.builder().totalIncome(Money.of(100.0)).build();
+
+        cache.put(StatisticsCacheKey.of(walletId, List.of("Food", "Rent"), null, null), statistics, cache.generation());
+
+        assertSame(statistics, cache.get(StatisticsCacheKey.of(walletId, List.of("Rent", "Food", "Rent"), null, null)));
+        assertEquals(1L, cache.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("Инвалидация удаляет записи только указанного кошелька")
+    void invalidate_RemovesOnlyWalletEntries() {
+        StatisticsCache cache = new StatisticsCache(10, Duration.ofMinutes(1));
+        UUID walletId = UUID.randomUUID();
+        UUID otherWalletId = UUID.randomUUID();
+        StatisticsCacheKey key = StatisticsCacheKey.of(walletId, null, null, null);
+        StatisticsCacheKey otherKey = StatisticsCacheKey.of(otherWalletId, null, null, null);
+        cache.put(key, new StatisticsResponseDto(), cache.generation());
+        cache.put(otherKey, new StatisticsResponseDto(), cache.generation());
+
+        cache.invalidate(walletId);
+
+        assertNull(cache.get(key));
+        assertNotNull(cache.get(otherKey));
+        assertEquals(1L, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("Результат, рассчитанный до изменения кошелька, не кэшируется")
+    void put_GenerationChangedDuringCalculation_Skipped() {
+        StatisticsCache cache = new StatisticsCache(10, Duration.ofMinutes(1));
+        UUID walletId = UUID.randomUUID();
+        StatisticsCacheKey key = StatisticsCacheKey.of(walletId, null, null, null);
+        long generation = cache.generation();
+
+        cache.invalidate(walletId);
+        cache.put(key, new StatisticsResponseDto(), generation);
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    @DisplayName("При превышении размера вытесняется самая давно использованная запись")
+    void put_OverMaxSize_EvictsLeastRecentlyUsed() {
+        StatisticsCache cache = new StatisticsCache(2, Duration.ofMinutes(1));
+        UUID walletId = UUID.randomUUID();
+        StatisticsCacheKey first = StatisticsCacheKey.of(walletId, List.of("Food"), null, null);
+        StatisticsCacheKey second = StatisticsCacheKey.of(walletId, List.of("Rent"), null, null);
+        StatisticsCacheKey third = StatisticsCacheKey.of(walletId, List.of("Fun"), null, null);
+        cache.put(first, new StatisticsResponseDto(), 0L);
+        cache.put(second, new StatisticsResponseDto(), 0L);
+        cache.get(first);
+
+        cache.put(third, new StatisticsResponseDto(), 0L);
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertEquals(1L, cache.getStats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("Запись с истекшим временем жизни не возвращается")
+    void get_ExpiredEntry_Miss() {
+        StatisticsCache cache = new StatisticsCache(10, Duration.ZERO);
+        UUID walletId = UUID.randomUUID();
+        StatisticsCacheKey key = StatisticsCacheKey.of(walletId, null, null, null);
+        cache.put(key, new StatisticsResponseDto(), 0L);
+
+        assertNull(cache.get(key));
+    }
+}
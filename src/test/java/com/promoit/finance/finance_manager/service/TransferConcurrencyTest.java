@@ -0,0 +1,95 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
+import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
+import com.promoit.finance.finance_manager.domain.exception.wallet.InsufficientFundsException;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:transfer-concurrency;LOCK_TIMEOUT=10000")
+@ActiveProfiles("test")
+class TransferConcurrencyTest {
+    private static final int USERS = 4;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 150;
+    private static final double INITIAL_BALANCE = 1000.0;
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private FinanceService financeService;
+    @Autowired
+    private WalletWriteExecutor writeExecutor;
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Test
+    @DisplayName("Встречные переводы под нагрузкой не блокируют друг друга и сохраняют сумму балансов")
+    void transfer_ConcurrentOppositeDirections_NoDeadlocksAndBalancesPreserved() throws Exception {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        List<String> usernames = new ArrayList<>();
+        List<UUID> walletIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String username = prefix + "-user-" + i;
+            UUID walletId = userService.register(username, "password").getWalletId();
+            financeService.addTransaction(walletId, TransactionRequestDto.builder()
+                    .type(TransactionType.INCOME)
+                    .amount(INITIAL_BALANCE)
+                    .category("Salary")
+                    .build());
+            usernames.add(username);
+            walletIds.add(walletId);
+        }
+        // Дневные агрегаты переводов создаются заранее, чтобы тест проверял только блокировки кошельков
+        for (int i = 0; i < USERS; i++) {
+            financeService.transfer(usernames.get(i), usernames.get((i + 1) % USERS), 1.0, "Warm-up");
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            long seed = thread;
+            futures.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(USERS);
+                    int to = (from + 1 + random.nextInt(USERS - 1)) % USERS;
+                    double amount = 1 + random.nextInt(50);
+                    try {
+                        writeExecutor.execute(() -> financeService.transfer(
+                                usernames.get(from), usernames.get(to), amount, "Load"
+                        ));
+                    } catch (InsufficientFundsException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES), "Переводы не завершились - возможна взаимная блокировка");
+        for (Future<?> future : futures) {
+            // Любая ошибка, кроме нехватки средств (в том числе deadlock и таймаут блокировки), провалит тест
+            future.get();
+        }
+
+        Money total = Money.ZERO;
+        for (UUID walletId : walletIds) {
+            Money balance = Money.ofMinor(walletRepository.findBalanceById(walletId));
+            assertFalse(balance.isNegative(), "Баланс кошелька стал отрицательным");
+            total = total.plus(balance);
+        }
+        assertEquals(Money.of(USERS * INITIAL_BALANCE), total);
+        assertTrue(rejected.get() < THREADS * TRANSFERS_PER_THREAD);
+    }
+}
@@ -0,0 +1,38 @@
+package com.promoit.finance.finance_manager.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletGenerationsTest {
+
+    @Test
+    @DisplayName("Поколения помнят не больше заданного количества кошельков")
+    void advance_ManyWallets_StaysBounded() {
+        WalletGenerations generations = new WalletGenerations(3);
+
+        for (int i = 0; i < 1000; i++) {
+            generations.advance(UUID.randomUUID());
+        }
+
+        assertEquals(3, generations.size());
+    }
+
+    @Test
+    @DisplayName("Чтение, начатое до изменения кошелька, не сохраняется и после вытеснения кошелька")
+    void unchangedSince_ChangeEvicted_StillRejectsEarlierRead() {
+        WalletGenerations generations = new WalletGenerations(1);
+        UUID walletId = UUID.randomUUID();
+        UUID otherWalletId = UUID.randomUUID();
+        long generation = generations.current();
+
+        generations.advance(walletId);
+        assertFalse(generations.unchangedSince(walletId, generation));
+        assertTrue(generations.unchangedSince(otherWalletId, generation));
+
+        generations.advance(otherWalletId); // изменение walletId вытеснено
+        assertFalse(generations.unchangedSince(walletId, generation));
+        assertTrue(generations.unchangedSince(walletId, generations.current()));
+    }
+}
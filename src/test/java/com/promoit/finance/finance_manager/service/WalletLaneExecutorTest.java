@@ -0,0 +1,199 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.WriteLaneStatsDto;
+import com.promoit.finance.finance_manager.domain.dto.user.UserWalletDto;
+import com.promoit.finance.finance_manager.domain.exception.wallet.InsufficientFundsException;
+import com.promoit.finance.finance_manager.domain.exception.wallet.WalletLaneBusyException;
+import com.promoit.finance.finance_manager.domain.repository.WalletRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletLaneExecutorTest {
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Test
+    @DisplayName("Без режима полос операция выполняется в вызывающем потоке")
+    void execute_Disabled_RunsInCallerThread() {
+        WalletLaneExecutor executor = executor(false);
+
+        String thread = executor.execute(UUID.randomUUID(), () -> Thread.currentThread().getName());
+
+        assertEquals(Thread.currentThread().getName(), thread);
+        assertEquals(0, executor.getStats().getLanes());
+        verifyNoInteractions(transactionTemplate, walletRepository);
+    }
+
+    @Test
+    @DisplayName("Записи кошелька выполняются в потоке его полосы")
+    void execute_Enabled_RunsInWalletLane() {
+        stubTransactionTemplate();
+        WalletLaneExecutor executor = executor(true);
+        UUID walletId = UUID.randomUUID();
+
+        String first = executor.execute(walletId, () -> Thread.currentThread().getName());
+        String second = executor.execute(walletId, () -> Thread.currentThread().getName());
+
+        assertTrue(first.startsWith("wallet-lane-"));
+        assertEquals(first, second);
+        assertEquals(2L, executor.getStats().getItems().get(0).getOperations());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Ошибка одной операции группы не отменяет остальные: группа выполняется заново по одной операции")
+    void execute_GroupWithFailure_FallsBackToSingleOperations() throws Exception {
+        stubTransactionTemplate();
+        WalletLaneExecutor executor = executor(true);
+        UUID walletId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        // Первая операция занимает полосу, пока остальные не встанут в очередь
+        Future<String> blocker = callers.submit(() -> executor.execute(walletId, () -> {
+            started.countDown();
+            await(release);
+            return "blocker";
+        }));
+        started.await();
+        Future<String> first = callers.submit(() -> executor.execute(walletId, () -> "first"));
+        Future<String> failing = callers.submit(() -> executor.execute(walletId, () -> {
+            throw new InsufficientFundsException("Недостаточно средств");
+        }));
+        Future<String> last = callers.submit(() -> executor.execute(walletId, () -> "last"));
+        waitForQueueDepth(executor, 3);
+        release.countDown();
+
+        assertEquals("blocker", blocker.get(10, TimeUnit.SECONDS));
+        assertEquals("first", first.get(10, TimeUnit.SECONDS));
+        assertEquals("last", last.get(10, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientFundsException.class, error.getCause());
+
+        WriteLaneStatsDto.Lane lane = executor.getStats().getItems().get(0);
+        assertEquals(1L, lane.getFallbacks());
+        assertEquals(4L, lane.getOperations());
+        callers.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Перевод между кошельками разных полос ждет полосу получателя")
+    void execute_TransferAcrossLanes_WaitsForReceiverLane() throws Exception {
+        stubTransactionTemplate();
+        WalletLaneExecutor executor = executor(true, 2);
+        UUID senderWallet = walletInLane(0, 2);
+        UUID receiverWallet = walletInLane(1, 2);
+        when(walletRepository.findByUsernames(List.of("alice", "bob"))).thenReturn(List.of(
+                new UserWalletDto("alice", senderWallet), new UserWalletDto("bob", receiverWallet)
+        ));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean transferred = new AtomicBoolean();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        // Полоса получателя занята операцией его кошелька
+        Future<String> receiverWrite = callers.submit(() -> executor.execute(receiverWallet, () -> {
+            started.countDown();
+            await(release);
+            return transferred.get() ? "after transfer" : "before transfer";
+        }));
+        started.await();
+        Future<?> transfer = callers.submit(() -> executor.execute("alice", "bob", () -> transferred.set(true)));
+        Thread.sleep(100);
+        assertFalse(transferred.get());
+        release.countDown();
+
+        transfer.get(10, TimeUnit.SECONDS);
+        assertTrue(transferred.get());
+        assertEquals("before transfer", receiverWrite.get(10, TimeUnit.SECONDS));
+        callers.shutdown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("При остановке операции из очереди завершаются ошибкой, а не ждут таймаута")
+    void shutdown_PendingOperations_FailsThem() throws Exception {
+        stubTransactionTemplate();
+        WalletLaneExecutor executor = executor(true);
+        UUID walletId = UUID.randomUUID();
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        Future<String> running = callers.submit(() -> executor.execute(walletId, () -> {
+            started.countDown();
+            await(new CountDownLatch(1)); // до прерывания потока полосы
+            return "running";
+        }));
+        started.await();
+        Future<String> pending = callers.submit(() -> executor.execute(walletId, () -> "pending"));
+        waitForQueueDepth(executor, 1);
+
+        executor.shutdown();
+
+        assertEquals("running", running.get(10, TimeUnit.SECONDS));
+        ExecutionException error = assertThrows(ExecutionException.class, () -> pending.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(WalletLaneBusyException.class, error.getCause());
+        assertThrows(WalletLaneBusyException.class, () -> executor.execute(walletId, () -> "late"));
+        callers.shutdown();
+    }
+
+    private WalletLaneExecutor executor(boolean enabled) {
+        return executor(enabled, 1);
+    }
+
+    private WalletLaneExecutor executor(boolean enabled, int lanes) {
+        return new WalletLaneExecutor(
+                new WalletWriteExecutor(1, Duration.ZERO, Duration.ZERO),
+                transactionTemplate, walletRepository, enabled, lanes, 100, 16, Duration.ofSeconds(10)
+        );
+    }
+
+    private static UUID walletInLane(int lane, int lanes) {
+        while (true) {
+            UUID walletId = UUID.randomUUID();
+            if (Math.floorMod(walletId.hashCode(), lanes) == lane) {
+                return walletId;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransactionTemplate() {
+        when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private static void waitForQueueDepth(WalletLaneExecutor executor, int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (executor.getStats().getItems().get(0).getQueueDepth() != depth) {
+            assertTrue(System.nanoTime() < deadline, "Операции не встали в очередь полосы");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
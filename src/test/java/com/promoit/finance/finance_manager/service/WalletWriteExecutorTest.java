@@ -0,0 +1,48 @@
+package com.promoit.finance.finance_manager.service;
+
+import com.promoit.finance.finance_manager.domain.dto.statistics.WriteRetryStatsDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WalletWriteExecutorTest {
+
+    @Test
+    @DisplayName("Операция повторяется после конфликта версий и возвращает результат успешной попытки")
+    void execute_ConflictThenSuccess_Retries() {
+        WalletWriteExecutor executor = new WalletWriteExecutor(3, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("BudgetEntity", "id");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        WriteRetryStatsDto stats = executor.getStats();
+        assertEquals(1L, stats.getOperations());
+        assertEquals(2L, stats.getConflicts());
+        assertEquals(2L, stats.getRetries());
+        assertEquals(0L, stats.getExhausted());
+    }
+
+    @Test
+    @DisplayName("После исчерпания попыток конфликт пробрасывается вызывающему")
+    void execute_PersistentConflict_ThrowsAfterMaxAttempts() {
+        WalletWriteExecutor executor = new WalletWriteExecutor(2, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> executor.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("WalletEntity", "id");
+        }));
+
+        assertEquals(2, attempts.get());
+        assertEquals(1L, executor.getStats().getExhausted());
+    }
+}
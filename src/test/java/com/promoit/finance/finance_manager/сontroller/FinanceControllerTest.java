@@ -1,11 +1,14 @@
 package com.promoit.finance.finance_manager.сontroller;
 
 import com.promoit.finance.finance_manager.controller.FinanceController;
+import com.promoit.finance.finance_manager.domain.dto.money.Money;
 import com.promoit.finance.finance_manager.domain.dto.statistics.StatisticsResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionRequestDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionResponseDto;
 import com.promoit.finance.finance_manager.domain.dto.transaction.TransactionType;
 import com.promoit.finance.finance_manager.service.FinanceService;
+import com.promoit.finance.finance_manager.service.IdempotencyService;
+import com.promoit.finance.finance_manager.service.WalletLaneExecutor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,7 +19,10 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -24,6 +30,10 @@ import static org.mockito.Mockito.*;
 class FinanceControllerTest {
     @Mock
     private FinanceService financeService;
+    @Mock
+    private WalletLaneExecutor walletLanes;
+    @Mock
+    private IdempotencyService idempotencyService;
     @InjectMocks
     private FinanceController financeController;
 
@@ -40,14 +50,17 @@ class FinanceControllerTest {
         TransactionResponseDto response = TransactionResponseDto.builder()
                 .id(UUID.randomUUID())
                 .type(TransactionType.INCOME)
-                .amount(500.0)
+                .amount(Money.of(500.0))
                 .category("Salary")
                 .description("Monthly salary")
                 .date(LocalDateTime.now())
                 .build();
 
         when(financeService.addTransaction(walletId, request)).thenReturn(response);
-        TransactionResponseDto result = financeController.addTransaction(walletId, request);
+        when(walletLanes.execute(eq(walletId), any(Supplier.class))).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(idempotencyService.execute(eq("key-1"), eq("transaction:" + walletId), eq(request), eq(TransactionResponseDto.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
+        TransactionResponseDto result = financeController.addTransaction(walletId, "key-1", request);
 
         assertNotNull(result);
         assertEquals(response, result);
@@ -63,9 +76,9 @@ class FinanceControllerTest {
         LocalDateTime endDate = LocalDateTime.now();
 
         StatisticsResponseDto response = StatisticsResponseDto.builder()
-                .totalIncome(5000.0)
-                .totalExpense(3000.0)
-                .balance(2000.0)
+                .totalIncome(Money.of(5000.0))
+                .totalExpense(Money.of(3000.0))
+                .balance(Money.of(2000.0))
                 .build();
 
         when(financeService.getStatistics(walletId, categories, startDate, endDate)).thenReturn(response);